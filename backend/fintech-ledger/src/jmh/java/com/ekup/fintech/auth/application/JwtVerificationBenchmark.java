@@ -0,0 +1,83 @@
+package com.ekup.fintech.auth.application;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ekup.fintech.auth.domain.Role;
+import com.ekup.fintech.auth.domain.User;
+import com.ekup.fintech.auth.infrastructure.VerifiedTokenCache;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * JWT work done by JwtAuthenticationFilter for one authenticated request.
+ *
+ * perRequestParsing reproduces the previous filter: three parses (extractUsername, then
+ * isTokenValid's subject and expiry), each decoding the secret and building a new parser.
+ * sharedParser is a single parse with the prebuilt key/parser (cache miss); cachedToken is
+ * a repeat request for the same token.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtVerificationBenchmark {
+    private static final String SECRET = "dGhpc2lzYXZlcnlzZWN1cmVzZWNyZXRrZXlmb3JmaW50ZWNobGVkZ2VyYXBw";
+    private static final long EXPIRATION = 3_600_000;
+
+    private final User user = User.create("bench@example.com", "encoded-password", "Bench", Set.of(Role.USER));
+    private JwtService uncached;
+    private JwtService cached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncached = new JwtService(SECRET, EXPIRATION, EXPIRATION, false, new VerifiedTokenCache(false, 0, new SimpleMeterRegistry()));
+        cached = new JwtService(SECRET, EXPIRATION, EXPIRATION, false, new VerifiedTokenCache(true, 10_000, new SimpleMeterRegistry()));
+        token = uncached.generateToken(user);
+        cached.verify(token);
+    }
+
+    @Benchmark
+    public boolean perRequestParsing() {
+        String username = parseWithNewParser().getSubject();
+        return username.equals(user.getUsername())
+            && parseWithNewParser().getSubject().equals(user.getUsername())
+            && parseWithNewParser().getExpiration().getTime() > System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public boolean sharedParser() {
+        return uncached.verify(token).isValidFor(user);
+    }
+
+    @Benchmark
+    public boolean cachedToken() {
+        return cached.verify(token).isValidFor(user);
+    }
+
+    private Claims parseWithNewParser() {
+        return Jwts.parser()
+            .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+            .build()
+            .parseSignedClaims(token)
+            .getPayload();
+    }
+}
@@ -0,0 +1,49 @@
+package com.ekup.fintech.ledger.application;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ekup.fintech.shared.domain.Currency;
+import com.ekup.fintech.shared.domain.Money;
+
+/**
+ * Per-request CPU work outside the database: idempotency fingerprinting and FX conversion.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PostingPathBenchmark {
+	private final FxRateProvider fxRateProvider = new FxRateProvider();
+	private final UUID walletId = UUID.randomUUID();
+	private final BigDecimal amount = new BigDecimal("250.00");
+	private final Money usd = Money.of(amount, Currency.USD);
+
+	@Benchmark
+	public String fingerprintSingle() {
+		return LedgerUseCaseService.fingerprintSingle(walletId, amount, Currency.USD);
+	}
+
+	@Benchmark
+	public Money fxConvertUsdToTry() {
+		return fxRateProvider.convert(usd, Currency.TRY);
+	}
+
+	@Benchmark
+	public Money fxConvertSameCurrency() {
+		return fxRateProvider.convert(usd, Currency.USD);
+	}
+}
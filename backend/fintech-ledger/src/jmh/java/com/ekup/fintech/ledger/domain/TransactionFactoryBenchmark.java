@@ -0,0 +1,51 @@
+package com.ekup.fintech.ledger.domain;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ekup.fintech.shared.domain.Currency;
+import com.ekup.fintech.shared.domain.Money;
+
+/**
+ * Transaction.credit/debit validate and normalize the amount and allocate a new id.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransactionFactoryBenchmark {
+	private final UUID walletId = UUID.randomUUID();
+	private final UUID referenceId = UUID.randomUUID();
+	private final Money amount = Money.of("42.10", Currency.EUR);
+	private final Instant occurredAt = Instant.now();
+
+	@Benchmark
+	public Transaction credit() {
+		return Transaction.credit(walletId, amount, TransactionGroupType.USER_ACTION, ReferenceType.DEPOSIT,
+				referenceId, "deposit", occurredAt);
+	}
+
+	@Benchmark
+	public Transaction debit() {
+		return Transaction.debit(walletId, amount, TransactionGroupType.USER_ACTION, ReferenceType.WITHDRAWAL,
+				referenceId, "withdraw", occurredAt);
+	}
+
+	@Benchmark
+	public Money signedMoney() {
+		return credit().getSignedMoney();
+	}
+}
@@ -0,0 +1,56 @@
+package com.ekup.fintech.shared.domain;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Money normalizes its scale on every construction; these cover the already-normalized,
+ * needs-rescale and string-parsing paths plus the arithmetic used when posting.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+	private final BigDecimal normalized = new BigDecimal("125.5000");
+	private final BigDecimal unscaled = new BigDecimal("125.5");
+	private final Money left = Money.of("100.25", Currency.USD);
+	private final Money right = Money.of("0.7500", Currency.USD);
+
+	@Benchmark
+	public Money ofNormalizedAmount() {
+		return Money.of(normalized, Currency.USD);
+	}
+
+	@Benchmark
+	public Money ofUnscaledAmount() {
+		return Money.of(unscaled, Currency.USD);
+	}
+
+	@Benchmark
+	public Money ofString() {
+		return Money.of("125.50", Currency.USD);
+	}
+
+	@Benchmark
+	public Money add() {
+		return left.add(right);
+	}
+
+	@Benchmark
+	public Money negate() {
+		return left.negate();
+	}
+}
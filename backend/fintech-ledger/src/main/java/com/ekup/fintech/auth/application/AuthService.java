@@ -1,5 +1,6 @@
 package com.ekup.fintech.auth.application;
 
+import java.time.Instant;
 import java.util.Set;
 
 import org.springframework.security.authentication.AuthenticationManager;
@@ -13,7 +14,9 @@ import com.ekup.fintech.auth.api.dto.AuthResponse;
 import com.ekup.fintech.auth.api.dto.RegisterRequest;
 import com.ekup.fintech.auth.domain.Role;
 import com.ekup.fintech.auth.domain.User;
+import com.ekup.fintech.auth.infrastructure.LastLoginBuffer;
 import com.ekup.fintech.auth.infrastructure.UserRepository;
+import com.ekup.fintech.shared.exception.AuthenticationBusyException;
 import com.ekup.fintech.shared.exception.DuplicateResourceException;
 import com.ekup.fintech.shared.exception.InvalidCredentialsException;
 
@@ -24,16 +27,19 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final LastLoginBuffer lastLoginBuffer;
     
     public AuthService(
             UserRepository userRepository,
             PasswordEncoder passwordEncoder,
             JwtService jwtService,
-            AuthenticationManager authenticationManager) {
+            AuthenticationManager authenticationManager,
+            LastLoginBuffer lastLoginBuffer) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
         this.authenticationManager = authenticationManager;
+        this.lastLoginBuffer = lastLoginBuffer;
     }
     
     @Transactional
@@ -57,12 +63,14 @@ public class AuthService {
         return new AuthResponse(accessToken, refreshToken, user.getEmail(), user.getFullName());
     }
     
-    @Transactional
+    @Transactional(readOnly = true)
     public AuthResponse authenticate(AuthRequest request) {
         try {
             authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.email(), request.password())
             );
+        } catch (AuthenticationBusyException e) {
+            throw e;
         } catch (Exception e) {
             throw new InvalidCredentialsException("Invalid email or password");
         }
@@ -70,8 +78,8 @@ public class AuthService {
         User user = userRepository.findByEmail(request.email())
             .orElseThrow(() -> new InvalidCredentialsException("Invalid email or password"));
         
-        user.recordLogin();
-        userRepository.save(user);
+        // users satırına login başına yazılmaz; son login zamanı toplu olarak flush edilir
+        lastLoginBuffer.record(user.getId(), Instant.now());
         
         String accessToken = jwtService.generateToken(user);
         String refreshToken = jwtService.generateRefreshToken(user);
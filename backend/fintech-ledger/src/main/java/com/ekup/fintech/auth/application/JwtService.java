@@ -1,9 +1,14 @@
 package com.ekup.fintech.auth.application;
 
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.crypto.SecretKey;
 
@@ -11,7 +16,12 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com.ekup.fintech.auth.domain.Role;
+import com.ekup.fintech.auth.domain.User;
+import com.ekup.fintech.auth.infrastructure.VerifiedTokenCache;
+
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -19,17 +29,84 @@ import io.jsonwebtoken.security.Keys;
 @Service
 public class JwtService {
     
-    @Value("${fintech.jwt.secret}")
-    private String secretKey;
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLES_CLAIM = "roles";
+    static final String VERSION_CLAIM = "ver";
+    
+    /**
+     * Subject and expiry of a token whose signature has been checked. userId, roles and version
+     * are only present on tokens issued with fintech.security.jwt.stateless-principal=true.
+     */
+    public record VerifiedToken(String subject, Instant expiresAt, UUID userId, Set<Role> roles, Long version) {
+        public boolean hasPrincipal() {
+            return userId != null && roles != null && version != null;
+        }
+        
+        public User toPrincipal() {
+            return User.fromToken(userId, subject, roles, version);
+        }
+        
+        public boolean isValidFor(UserDetails userDetails) {
+            if (!subject.equals(userDetails.getUsername()) || !expiresAt.isAfter(Instant.now())) {
+                return false;
+            }
+            // Sürüm taşıyan token'lar kullanıcı devre dışı bırakılınca veya iptal edilince geçersizleşir
+            if (version != null && userDetails instanceof User user) {
+                return user.isEnabled() && user.getTokenVersion() <= version;
+            }
+            return true;
+        }
+    }
+    
+    private final long jwtExpiration;
+    private final long refreshExpiration;
+    private final boolean statelessPrincipal;
+    // Key ve parser bir kez kurulur; her istekte base64 decode + parser build yapılmaz
+    private final SecretKey signInKey;
+    private final JwtParser parser;
+    private final VerifiedTokenCache tokenCache;
     
-    @Value("${fintech.jwt.expiration:86400000}")
-    private long jwtExpiration; // 24 hours by default
+    public JwtService(
+            @Value("${fintech.jwt.secret}") String secretKey,
+            @Value("${fintech.jwt.expiration:86400000}") long jwtExpiration, // 24 hours by default
+            @Value("${fintech.jwt.refresh-expiration:604800000}") long refreshExpiration, // 7 days by default
+            @Value("${fintech.security.jwt.stateless-principal:false}") boolean statelessPrincipal,
+            VerifiedTokenCache tokenCache
+    ) {
+        this.jwtExpiration = jwtExpiration;
+        this.refreshExpiration = refreshExpiration;
+        this.statelessPrincipal = statelessPrincipal;
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parser().verifyWith(signInKey).build();
+        this.tokenCache = tokenCache;
+    }
     
-    @Value("${fintech.jwt.refresh-expiration:604800000}")
-    private long refreshExpiration; // 7 days by default
+    /**
+     * Verifies the signature and expiry once per token; later calls with the same token are
+     * answered from the cache until the token expires. Throws like the JJWT parser on a bad token.
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken cached = tokenCache.get(token, Instant.now());
+        if (cached != null) {
+            return cached;
+        }
+        Claims claims = extractAllClaims(token);
+        Date expiration = claims.getExpiration();
+        VerifiedToken verified = new VerifiedToken(
+            claims.getSubject(),
+            expiration != null ? expiration.toInstant() : Instant.MAX,
+            userId(claims),
+            roles(claims),
+            claims.get(VERSION_CLAIM, Long.class)
+        );
+        if (expiration != null) {
+            tokenCache.put(token, verified, verified.expiresAt());
+        }
+        return verified;
+    }
     
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
     
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -50,38 +127,42 @@ public class JwtService {
     }
     
     private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
+        Map<String, Object> claims = extraClaims;
+        if (statelessPrincipal && userDetails instanceof User user) {
+            claims = new HashMap<>(extraClaims);
+            claims.put(USER_ID_CLAIM, user.getId().toString());
+            claims.put(ROLES_CLAIM, user.getRoles().stream().map(Role::name).sorted().toList());
+            claims.put(VERSION_CLAIM, user.getTokenVersion());
+        }
         return Jwts.builder()
-            .claims(extraClaims)
+            .claims(claims)
             .subject(userDetails.getUsername())
             .issuedAt(new Date(System.currentTimeMillis()))
             .expiration(new Date(System.currentTimeMillis() + expiration))
-            .signWith(getSignInKey())
+            .signWith(signInKey)
             .compact();
     }
     
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return verify(token).isValidFor(userDetails);
     }
     
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static UUID userId(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        return userId != null ? UUID.fromString(userId) : null;
     }
     
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private static Set<Role> roles(Claims claims) {
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (roles == null) {
+            return null;
+        }
+        return roles.stream().map(role -> Role.valueOf(role.toString())).collect(Collectors.toUnmodifiableSet());
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-            .verifyWith(getSignInKey())
-            .build()
+        return parser
             .parseSignedClaims(token)
             .getPayload();
     }
-    
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
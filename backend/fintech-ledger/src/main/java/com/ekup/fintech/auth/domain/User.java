@@ -25,12 +25,13 @@ import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = @Index(name = "idx_users_tokens_revoked_at", columnList = "tokens_revoked_at"))
 public class User extends BaseEntity implements UserDetails {
     @Id
     @Column(nullable = false)
@@ -57,6 +58,13 @@ public class User extends BaseEntity implements UserDetails {
     @Column(name = "last_login_at")
     private Instant lastLoginAt;
 
+    // Token'lara gömülür; artırılınca bu sürümden eski tüm token'lar geçersiz olur
+    @Column(name = "token_version", nullable = false)
+    private long tokenVersion;
+
+    @Column(name = "tokens_revoked_at")
+    private Instant tokensRevokedAt;
+
     @OneToMany(mappedBy = "owner", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<Wallet> wallets = new ArrayList<>();
 
@@ -76,6 +84,16 @@ public class User extends BaseEntity implements UserDetails {
         return new User(IdGenerator.newId(), email, password, fullName, roles);
     }
 
+    /**
+     * Detached principal rebuilt from JWT claims (stateless authentication). It carries no
+     * password and must never be saved or merged; use it for identity and ownership checks only.
+     */
+    public static User fromToken(UUID id, String email, Set<Role> roles, long tokenVersion) {
+        User user = new User(id, email, null, null, roles);
+        user.tokenVersion = tokenVersion;
+        return user;
+    }
+
     public UUID getId() {
         return id;
     }
@@ -100,8 +118,27 @@ public class User extends BaseEntity implements UserDetails {
         return wallets;
     }
 
-    public void recordLogin() {
-        this.lastLoginAt = Instant.now();
+    public long getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public Instant getTokensRevokedAt() {
+        return tokensRevokedAt;
+    }
+
+    /**
+     * Replaces the hash of the same password, e.g. after a login re-hashed it at a higher cost.
+     */
+    public void upgradePasswordHash(String encodedPassword) {
+        this.password = encodedPassword;
+    }
+
+    /**
+     * Invalidates every token issued so far; new tokens carry the next version.
+     */
+    public void revokeTokens() {
+        this.tokenVersion++;
+        this.tokensRevokedAt = Instant.now();
     }
 
     // UserDetails implementation
@@ -143,6 +180,9 @@ public class User extends BaseEntity implements UserDetails {
     }
 
     public void setEnabled(boolean enabled) {
+        if (this.enabled && !enabled) {
+            revokeTokens();
+        }
         this.enabled = enabled;
     }
 }
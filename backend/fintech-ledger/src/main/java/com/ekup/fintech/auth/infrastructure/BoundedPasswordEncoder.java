@@ -0,0 +1,123 @@
+package com.ekup.fintech.auth.infrastructure;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.ekup.fintech.shared.exception.AuthenticationBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs password hashing (register, login, hash upgrades) on a small dedicated pool.
+ *
+ * BCrypt is deliberately CPU-heavy; on the request thread a login burst would take the CPU
+ * away from ledger endpoints sharing the same Tomcat pool. Here at most {@code threads} hashes
+ * run at once and at most {@code queueCapacity} wait; anything beyond that is rejected at once
+ * with {@link AuthenticationBusyException} (429) instead of queueing behind the burst.
+ * The caller waits for its own hash, which is cheap with virtual threads enabled.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final String configuredCost;
+    private final Counter rejected;
+    private final Counter upgrades;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int cost, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.configuredCost = "%02d".formatted(cost);
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        // CPU-bound iş: virtual thread bir şey kazandırmaz, platform thread sayısı CPU payını sınırlar
+        this.executor = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+            Thread.ofPlatform().name("password-hashing-", 0).daemon(true).factory(),
+            new ThreadPoolExecutor.AbortPolicy());
+        this.rejected = Counter.builder("fintech.auth.password.hash.rejected").register(meterRegistry);
+        this.upgrades = Counter.builder("fintech.auth.password.hash.upgrades").register(meterRegistry);
+        Gauge.builder("fintech.auth.password.hash.cost", () -> cost).register(meterRegistry);
+        Gauge.builder("fintech.auth.password.hash.queue.depth", executor.getQueue(), BlockingQueue::size).register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run("encode", configuredCost, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run("matches", costOf(encodedPassword), () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * True when the stored hash is below the configured cost; DaoAuthenticationProvider then
+     * re-hashes the password after a successful login.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        boolean upgrade = delegate.upgradeEncoding(encodedPassword);
+        if (upgrade) {
+            upgrades.increment();
+        }
+        return upgrade;
+    }
+
+    private <T> T run(String operation, String hashCost, Callable<T> hashing) {
+        Timer timer = Timer.builder("fintech.auth.password.hash.duration")
+            .tag("operation", operation)
+            .tag("cost", hashCost)
+            .register(meterRegistry);
+        Future<T> result;
+        try {
+            result = executor.submit(() -> timer.recordCallable(hashing));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new AuthenticationBusyException("Too many authentication requests in progress, please retry");
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationBusyException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Cost factor of a BCrypt hash ($2a$10$...), "unknown" for anything else.
+     */
+    static String costOf(String encodedPassword) {
+        if (encodedPassword != null && encodedPassword.length() > 7 && encodedPassword.charAt(0) == '$'
+                && encodedPassword.charAt(3) == '$' && encodedPassword.charAt(6) == '$'
+                && Character.isDigit(encodedPassword.charAt(4)) && Character.isDigit(encodedPassword.charAt(5))) {
+            return encodedPassword.substring(4, 6);
+        }
+        return "unknown";
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+}
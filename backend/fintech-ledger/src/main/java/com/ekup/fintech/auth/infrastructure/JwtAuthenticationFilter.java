@@ -2,6 +2,7 @@ package com.ekup.fintech.auth.infrastructure;
 
 import java.io.IOException;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -25,10 +26,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationRegistry revocations;
+    private final boolean statelessPrincipal;
     
-    public JwtAuthenticationFilter(JwtService jwtService, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(
+            JwtService jwtService,
+            UserDetailsService userDetailsService,
+            TokenRevocationRegistry revocations,
+            @Value("${fintech.security.jwt.stateless-principal:false}") boolean statelessPrincipal
+    ) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.revocations = revocations;
+        this.statelessPrincipal = statelessPrincipal;
     }
     
     @Override
@@ -47,12 +57,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String jwt = authHeader.substring(7);
         
         try {
-            final String userEmail = jwtService.extractUsername(jwt);
+            // İmza token başına bir kez doğrulanır; aynı token'ın sonraki istekleri cache'ten gelir
+            final JwtService.VerifiedToken token = jwtService.verify(jwt);
+            final String userEmail = token.subject();
             
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+                UserDetails userDetails = resolvePrincipal(token);
                 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (userDetails != null && token.isValidFor(userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -69,4 +81,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+    
+    private UserDetails resolvePrincipal(JwtService.VerifiedToken token) {
+        if (statelessPrincipal && token.hasPrincipal() && revocations.isComplete()) {
+            // Principal claim'lerden kurulur, users tablosuna gidilmez; iptaller yerel listeden kontrol edilir
+            return revocations.isCurrent(token.userId(), token.version()) ? token.toPrincipal() : null;
+        }
+        return userDetailsService.loadUserByUsername(token.subject());
+    }
 }
@@ -0,0 +1,111 @@
+package com.ekup.fintech.auth.infrastructure;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Buffers last-login timestamps and writes them to users in periodic batched UPDATEs.
+ *
+ * Logins only touch an in-memory map that keeps the latest timestamp per user, so the login
+ * transaction stays read-only and repeated logins of one user cost a single row write per
+ * flush. The UPDATE never moves last_login_at backwards, so several instances can flush the
+ * same user. Entries that fail to flush stay for the next run; on a crash at most one
+ * flush-ms worth of timestamps is lost (the remaining ones are flushed on shutdown).
+ */
+@Component
+public class LastLoginBuffer implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(LastLoginBuffer.class);
+    private static final String UPDATE_SQL =
+        "update users set last_login_at = ? where id = ? and (last_login_at is null or last_login_at < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final Map<UUID, Instant> pending = new ConcurrentHashMap<>();
+    // Zamanlanmış flush ile kapanıştaki flush aynı anda çalışmasın
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Counter recorded;
+    private final Counter coalesced;
+    private final Counter flushed;
+    private final Counter failed;
+
+    public LastLoginBuffer(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${fintech.auth.last-login.batch-size:500}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.recorded = Counter.builder("fintech.auth.last-login.recorded").register(meterRegistry);
+        this.coalesced = Counter.builder("fintech.auth.last-login.coalesced").register(meterRegistry);
+        this.flushed = Counter.builder("fintech.auth.last-login.flushed").tag("result", "written").register(meterRegistry);
+        this.failed = Counter.builder("fintech.auth.last-login.flushed").tag("result", "failed").register(meterRegistry);
+        Gauge.builder("fintech.auth.last-login.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    public void record(UUID userId, Instant loggedInAt) {
+        recorded.increment();
+        Instant previous = pending.putIfAbsent(userId, loggedInAt);
+        if (previous != null) {
+            coalesced.increment();
+            pending.merge(userId, loggedInAt, (current, next) -> next.isAfter(current) ? next : current);
+        }
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${fintech.auth.last-login.flush-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            List<Map.Entry<UUID, Instant>> entries = new ArrayList<>(pending.size());
+            pending.forEach((userId, loggedInAt) -> entries.add(Map.entry(userId, loggedInAt)));
+            for (int from = 0; from < entries.size(); from += batchSize) {
+                List<Map.Entry<UUID, Instant>> batch = entries.subList(from, Math.min(entries.size(), from + batchSize));
+                try {
+                    jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (ps, entry) -> {
+                        Timestamp loggedInAt = Timestamp.from(entry.getValue());
+                        ps.setTimestamp(1, loggedInAt);
+                        ps.setObject(2, entry.getKey());
+                        ps.setTimestamp(3, loggedInAt);
+                    });
+                    // Flush sırasında gelen daha yeni login'ler map'te kalır, bir sonraki turda yazılır
+                    batch.forEach(entry -> pending.remove(entry.getKey(), entry.getValue()));
+                    flushed.increment(batch.size());
+                } catch (Exception e) {
+                    failed.increment(batch.size());
+                    log.warn("Last-login flush failed for {} users, retrying on the next run: {}", batch.size(), e.getMessage());
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        flush();
+    }
+}
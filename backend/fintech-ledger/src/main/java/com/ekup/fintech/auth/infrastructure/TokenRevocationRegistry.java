@@ -0,0 +1,106 @@
+package com.ekup.fintech.auth.infrastructure;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ekup.fintech.auth.domain.User;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Local copy of recent token revocations, used when JWTs are trusted without loading the user.
+ *
+ * Every refresh-ms the users whose tokens were revoked (disabled, version bumped) within one
+ * access-token lifetime are reloaded; older revocations no longer matter because every token
+ * issued before them has expired. A token is rejected when its user is disabled or its version
+ * is below the user's current one. Until the first load succeeds, or when more users than
+ * max-entries were revoked in the window, the registry reports itself incomplete and callers
+ * fall back to loading the user.
+ */
+@Component
+public class TokenRevocationRegistry {
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    private record Revocation(long tokenVersion, boolean enabled) {
+    }
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final Duration window;
+    private final int maxEntries;
+    private final Counter rejected;
+    private volatile Map<UUID, Revocation> revocations = Map.of();
+    private volatile boolean complete;
+
+    public TokenRevocationRegistry(
+            UserRepository userRepository,
+            @Value("${fintech.security.jwt.stateless-principal:false}") boolean enabled,
+            @Value("${fintech.jwt.expiration:86400000}") long accessTokenLifetimeMs,
+            @Value("${fintech.security.jwt.revocation.max-entries:100000}") int maxEntries,
+            MeterRegistry meterRegistry
+    ) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.window = Duration.ofMillis(accessTokenLifetimeMs);
+        this.maxEntries = maxEntries;
+        this.rejected = Counter.builder("fintech.jwt.revocation.rejected").register(meterRegistry);
+        Gauge.builder("fintech.jwt.revocation.size", this, registry -> registry.revocations.size()).register(meterRegistry);
+    }
+
+    /**
+     * Her refresh-ms'de son token ömrü içindeki iptaller yeniden yüklenir; liste atomik olarak değiştirilir
+     */
+    @Scheduled(fixedDelayString = "${fintech.security.jwt.revocation.refresh-ms:30000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<User> revoked = userRepository.findByTokensRevokedAtGreaterThanEqual(Instant.now().minus(window));
+            if (revoked.size() > maxEntries) {
+                complete = false;
+                log.warn("{} token revocations exceed fintech.security.jwt.revocation.max-entries={}, loading users per request",
+                    revoked.size(), maxEntries);
+                return;
+            }
+            Map<UUID, Revocation> loaded = new HashMap<>(revoked.size() * 2);
+            for (User user : revoked) {
+                loaded.put(user.getId(), new Revocation(user.getTokenVersion(), user.isEnabled()));
+            }
+            revocations = loaded;
+            complete = true;
+        } catch (Exception e) {
+            // Son başarılı liste refresh-ms'den eskiyse güvenilmez; kullanıcıyı yükleyen yola dönülür
+            complete = false;
+            log.error("Token revocation refresh failed", e);
+        }
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * True unless the user was disabled or their tokens were revoked after this version was issued.
+     */
+    public boolean isCurrent(UUID userId, long tokenVersion) {
+        Revocation revocation = revocations.get(userId);
+        if (revocation == null || (revocation.enabled() && tokenVersion >= revocation.tokenVersion())) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+}
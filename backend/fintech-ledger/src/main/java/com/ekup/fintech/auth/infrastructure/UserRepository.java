@@ -1,13 +1,27 @@
 package com.ekup.fintech.auth.infrastructure;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.ekup.fintech.auth.domain.User;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    List<User> findByTokensRevokedAtGreaterThanEqual(Instant since);
+
+    // Login transaction'ı read-only; hash yükseltmesi kendi transaction'ında yazılır
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePasswordHash(@Param("id") UUID id, @Param("password") String password);
 }
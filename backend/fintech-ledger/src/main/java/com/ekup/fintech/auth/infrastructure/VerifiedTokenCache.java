@@ -0,0 +1,119 @@
+package com.ekup.fintech.auth.infrastructure;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded LRU map of JWTs whose signature has already been checked, keyed by the SHA-256 of the
+ * compact token (the raw token is never kept). An entry lives until the token's own expiry, so a
+ * hit is exactly as trustworthy as re-verifying; any change to the token changes the key.
+ */
+@Component
+public class VerifiedTokenCache {
+    private record Entry<T>(T value, Instant expiresAt) {
+    }
+
+    private final boolean enabled;
+    private final Map<String, Entry<?>> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Counter hits;
+    private final Counter misses;
+
+    public VerifiedTokenCache(
+            @Value("${fintech.jwt.cache.enabled:true}") boolean enabled,
+            @Value("${fintech.jwt.cache.max-entries:10000}") int maxEntries,
+            MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<?>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = Counter.builder("fintech.jwt.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("fintech.jwt.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("fintech.jwt.cache.size", this, VerifiedTokenCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Returns what was cached for this token, or null on a miss or once the token has expired.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String token, Instant now) {
+        if (!enabled) {
+            return null;
+        }
+        String key = digest(token);
+        Entry<?> entry;
+        lock.lock();
+        try {
+            entry = entries.get(key);
+            if (entry != null && !entry.expiresAt().isAfter(now)) {
+                entries.remove(key);
+                entry = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return (T) entry.value();
+    }
+
+    public <T> void put(String token, T value, Instant expiresAt) {
+        if (!enabled) {
+            return;
+        }
+        String key = digest(token);
+        lock.lock();
+        try {
+            entries.put(key, new Entry<>(value, expiresAt));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -2,13 +2,17 @@ package com.ekup.fintech.ledger.api;
 
 import java.util.UUID;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.ekup.fintech.ledger.application.BalanceSnapshotBatchJob;
 import com.ekup.fintech.ledger.application.BalanceSnapshotService;
+import com.ekup.fintech.ledger.application.BalanceSnapshotService.VerificationReport;
 import com.ekup.fintech.ledger.domain.BalanceSnapshot;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -20,9 +24,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class BalanceSnapshotController {
     
     private final BalanceSnapshotService snapshotService;
+    private final BalanceSnapshotBatchJob batchJob;
     
-    public BalanceSnapshotController(BalanceSnapshotService snapshotService) {
+    public BalanceSnapshotController(BalanceSnapshotService snapshotService, BalanceSnapshotBatchJob batchJob) {
         this.snapshotService = snapshotService;
+        this.batchJob = batchJob;
     }
     
     @PostMapping("/wallets/{walletId}")
@@ -33,10 +39,24 @@ public class BalanceSnapshotController {
     }
     
     @PostMapping("/all")
-    @Operation(summary = "Trigger snapshot creation for all wallets")
-    public ResponseEntity<String> createSnapshotsForAll() {
-        snapshotService.createSnapshotsForAllWallets();
-        return ResponseEntity.ok("Snapshot creation triggered for all wallets");
+    @Operation(summary = "Trigger snapshot creation for all wallets",
+        description = "Starts the paged batch snapshot job in the background; 409 if a run is already active")
+    public ResponseEntity<BalanceSnapshotBatchJob.Progress> createSnapshotsForAll() {
+        boolean started = batchJob.start();
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(batchJob.getProgress());
+    }
+    
+    @GetMapping("/all")
+    @Operation(summary = "Progress of the batch snapshot job")
+    public ResponseEntity<BalanceSnapshotBatchJob.Progress> batchProgress() {
+        return ResponseEntity.ok(batchJob.getProgress());
+    }
+    
+    @PostMapping("/verify")
+    @Operation(summary = "Verify latest snapshots against a full recomputation",
+        description = "Reports drifted snapshots and replaces them with fully recomputed ones")
+    public ResponseEntity<VerificationReport> verifySnapshots() {
+        return ResponseEntity.ok(snapshotService.verifyAllSnapshots());
     }
     
     public record SnapshotResponse(
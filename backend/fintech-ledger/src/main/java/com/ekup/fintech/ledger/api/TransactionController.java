@@ -1,22 +1,38 @@
 package com.ekup.fintech.ledger.api;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.ekup.fintech.ledger.api.dto.CursorPageResponse;
 import com.ekup.fintech.ledger.api.dto.TransactionResponse;
+import com.ekup.fintech.ledger.application.TransactionExportService;
 import com.ekup.fintech.ledger.domain.ReferenceType;
 import com.ekup.fintech.ledger.domain.Transaction;
 import com.ekup.fintech.ledger.domain.TransactionDirection;
@@ -27,15 +43,27 @@ import com.ekup.fintech.shared.exception.ResourceNotFoundException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import tools.jackson.databind.json.JsonMapper;
 
 @RestController
 @RequestMapping("/api/v1")
 @Tag(name = "Transactions", description = "Transaction history and details")
 public class TransactionController {
+	private static final Logger log = LoggerFactory.getLogger(TransactionController.class);
+	private static final int EXPORT_BUFFER_SIZE = 16 * 1024;
+
+	static final int MAX_CURSOR_PAGE_SIZE = 100;
+	// uuid sıralamasında en büyük değer: ilk sayfada aynı occurred_at'e sahip tüm satırlar dahil olur
+	private static final UUID LAST_ID = new UUID(-1L, -1L);
+
 	private final TransactionJpaRepository transactionRepository;
+	private final TransactionExportService exportService;
+	private final JsonMapper jsonMapper;
 
-	public TransactionController(TransactionJpaRepository transactionRepository) {
+	public TransactionController(TransactionJpaRepository transactionRepository, TransactionExportService exportService, JsonMapper jsonMapper) {
 		this.transactionRepository = transactionRepository;
+		this.exportService = exportService;
+		this.jsonMapper = jsonMapper;
 	}
 
 	@Operation(summary = "List wallet transactions", description = "Retrieve paginated transaction history for a wallet with optional filters")
@@ -53,6 +81,73 @@ public class TransactionController {
 				.map(TransactionController::toResponse);
 	}
 
+	@Operation(
+			summary = "List wallet transactions by cursor",
+			description = "Newest-first transaction history paged by an opaque cursor (no total count); "
+					+ "pass nextCursor from the previous response to get the following page"
+	)
+	@GetMapping("/wallets/{walletId}/transactions/cursor")
+	public CursorPageResponse<TransactionResponse> listWalletTransactionsByCursor(
+			@PathVariable UUID walletId,
+			@Parameter(description = "Filter by CREDIT or DEBIT") @RequestParam(required = false) TransactionDirection direction,
+			@Parameter(description = "Filter by group type") @RequestParam(required = false) TransactionGroupType groupType,
+			@Parameter(description = "Filter by reference type") @RequestParam(required = false) ReferenceType referenceType,
+			@Parameter(description = "Start date (ISO format)") @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Instant from,
+			@Parameter(description = "End date (ISO format)") @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Instant to,
+			@Parameter(description = "nextCursor of the previous page; omit for the first page") @RequestParam(required = false) String cursor,
+			@Parameter(description = "Page size (1-" + MAX_CURSOR_PAGE_SIZE + ")") @RequestParam(defaultValue = "20") int size
+	) {
+		int limit = Math.clamp(size, 1, MAX_CURSOR_PAGE_SIZE);
+		TransactionCursor position = cursor != null && !cursor.isBlank()
+				? TransactionCursor.decode(cursor)
+				: new TransactionCursor(TransactionJpaRepository.OCCURRED_MAX, LAST_ID);
+
+		// Bir fazla satır okunur: COUNT sorgusu olmadan sonraki sayfanın varlığı anlaşılır
+		List<Transaction> rows = transactionRepository.findPageBefore(walletId, direction, groupType, referenceType,
+				from != null ? from : TransactionJpaRepository.OCCURRED_MIN,
+				to != null ? to : TransactionJpaRepository.OCCURRED_MAX,
+				position.occurredAt(), position.id(), limit + 1);
+
+		boolean hasMore = rows.size() > limit;
+		List<Transaction> page = hasMore ? rows.subList(0, limit) : rows;
+		String nextCursor = hasMore ? TransactionCursor.after(page.get(page.size() - 1)).encode() : null;
+		return new CursorPageResponse<>(page.stream().map(TransactionController::toResponse).toList(), nextCursor, hasMore);
+	}
+
+	@Operation(
+			summary = "Export wallet transactions",
+			description = "Streams the full filtered history, oldest first, as NDJSON or CSV without paging"
+	)
+	@GetMapping("/wallets/{walletId}/transactions/export")
+	public ResponseEntity<StreamingResponseBody> exportWalletTransactions(
+			@PathVariable UUID walletId,
+			@Parameter(description = "Filter by CREDIT or DEBIT") @RequestParam(required = false) TransactionDirection direction,
+			@Parameter(description = "Filter by group type") @RequestParam(required = false) TransactionGroupType groupType,
+			@Parameter(description = "Filter by reference type") @RequestParam(required = false) ReferenceType referenceType,
+			@Parameter(description = "Start date (ISO format)") @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Instant from,
+			@Parameter(description = "End date (ISO format)") @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) Instant to,
+			@Parameter(description = "ndjson or csv") @RequestParam(defaultValue = "ndjson") String format
+	) {
+		TransactionExportFormat exportFormat = TransactionExportFormat.fromParameter(format);
+		StreamingResponseBody body = out -> {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+			TransactionExportWriter exportWriter = new TransactionExportWriter(exportFormat, writer, jsonMapper);
+			try {
+				exportWriter.writeHeader();
+				exportService.export(walletId, direction, groupType, referenceType, from, to, exportWriter);
+				writer.flush();
+			} catch (IOException | UncheckedIOException e) {
+				// İstemci bağlantıyı kapattı: cursor ve transaction export() içinde kapanır, yanıt zaten başlamış durumda
+				log.info("Export of wallet {} stopped after {} rows: {}", walletId, exportWriter.getRows(), e.getMessage());
+			}
+		};
+		String filename = "wallet-" + walletId + "-transactions." + exportFormat.extension();
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(exportFormat.mediaType()))
+				.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+				.body(body);
+	}
+
 	@Operation(summary = "Get transaction", description = "Retrieve a single transaction by ID")
 	@GetMapping("/transactions/{id}")
 	@ResponseStatus(HttpStatus.OK)
@@ -62,7 +157,7 @@ public class TransactionController {
 		return toResponse(tx);
 	}
 
-	private static TransactionResponse toResponse(Transaction tx) {
+	static TransactionResponse toResponse(Transaction tx) {
 		return new TransactionResponse(
 				tx.getId(),
 				tx.getWalletId(),
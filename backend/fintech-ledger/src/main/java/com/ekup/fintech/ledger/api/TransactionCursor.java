@@ -0,0 +1,40 @@
+package com.ekup.fintech.ledger.api;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import com.ekup.fintech.ledger.domain.Transaction;
+import com.ekup.fintech.shared.exception.InvalidCursorException;
+
+/**
+ * Position in a wallet's history, newest first: the (occurred_at, id) of the last row returned.
+ * Clients only see it as an opaque URL-safe token.
+ */
+public record TransactionCursor(Instant occurredAt, UUID id) {
+	private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+	private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+	public static TransactionCursor after(Transaction last) {
+		return new TransactionCursor(last.getOccurredAt(), last.getId());
+	}
+
+	public String encode() {
+		return ENCODER.encodeToString((occurredAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static TransactionCursor decode(String token) {
+		try {
+			String value = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+			int separator = value.indexOf('|');
+			if (separator < 0) {
+				throw new InvalidCursorException("Invalid cursor");
+			}
+			return new TransactionCursor(Instant.parse(value.substring(0, separator)), UUID.fromString(value.substring(separator + 1)));
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			throw new InvalidCursorException("Invalid cursor");
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package com.ekup.fintech.ledger.api;
+
+import java.util.Locale;
+
+import com.ekup.fintech.shared.exception.UnsupportedExportFormatException;
+
+enum TransactionExportFormat {
+	NDJSON("application/x-ndjson", "ndjson"),
+	CSV("text/csv", "csv");
+
+	private final String mediaType;
+	private final String extension;
+
+	TransactionExportFormat(String mediaType, String extension) {
+		this.mediaType = mediaType;
+		this.extension = extension;
+	}
+
+	String mediaType() {
+		return mediaType;
+	}
+
+	String extension() {
+		return extension;
+	}
+
+	static TransactionExportFormat fromParameter(String value) {
+		try {
+			return valueOf(value.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			throw new UnsupportedExportFormatException("Unsupported export format: " + value + " (expected ndjson or csv)");
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.ekup.fintech.ledger.api;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+import com.ekup.fintech.ledger.domain.Transaction;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Writes postings one line at a time: NDJSON (the same JSON as {@link TransactionController}'s
+ * responses) or RFC 4180 CSV. Write failures surface as {@link UncheckedIOException} so the
+ * export stops at the first broken write.
+ */
+final class TransactionExportWriter implements Consumer<Transaction> {
+	private static final String CSV_HEADER =
+			"id,wallet_id,occurred_at,direction,amount,currency,group_type,reference_type,reference_id,description";
+
+	private final TransactionExportFormat format;
+	private final Writer writer;
+	private final JsonMapper jsonMapper;
+	private long rows;
+
+	TransactionExportWriter(TransactionExportFormat format, Writer writer, JsonMapper jsonMapper) {
+		this.format = format;
+		this.writer = writer;
+		this.jsonMapper = jsonMapper;
+	}
+
+	void writeHeader() throws IOException {
+		if (format == TransactionExportFormat.CSV) {
+			writer.write(CSV_HEADER);
+			writer.write('\n');
+		}
+	}
+
+	@Override
+	public void accept(Transaction tx) {
+		try {
+			writer.write(format == TransactionExportFormat.CSV ? csvLine(tx) : jsonMapper.writeValueAsString(TransactionController.toResponse(tx)));
+			writer.write('\n');
+			rows++;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	long getRows() {
+		return rows;
+	}
+
+	private static String csvLine(Transaction tx) {
+		return String.join(",",
+				tx.getId().toString(),
+				tx.getWalletId().toString(),
+				tx.getOccurredAt().toString(),
+				tx.getDirection().name(),
+				tx.getMoney().amount().toPlainString(),
+				tx.getMoney().currency().name(),
+				tx.getGroupType().name(),
+				tx.getReferenceType().name(),
+				tx.getReferenceId() != null ? tx.getReferenceId().toString() : "",
+				csvField(tx.getDescription()));
+	}
+
+	private static String csvField(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return value;
+		}
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+}
@@ -1,6 +1,7 @@
 package com.ekup.fintech.ledger.api;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,6 +12,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.ekup.fintech.ledger.api.dto.BulkPostingRequest;
+import com.ekup.fintech.ledger.api.dto.BulkPostingResponse;
 import com.ekup.fintech.ledger.api.dto.DepositRequest;
 import com.ekup.fintech.ledger.api.dto.DepositResponse;
 import com.ekup.fintech.ledger.api.dto.FxConvertRequest;
@@ -20,6 +23,10 @@ import com.ekup.fintech.ledger.api.dto.TransferRequest;
 import com.ekup.fintech.ledger.api.dto.TransferResponse;
 import com.ekup.fintech.ledger.api.dto.WithdrawalRequest;
 import com.ekup.fintech.ledger.api.dto.WithdrawalResponse;
+import com.ekup.fintech.ledger.application.BulkPostingService;
+import com.ekup.fintech.ledger.application.BulkPostingService.BulkResult;
+import com.ekup.fintech.ledger.application.BulkPostingService.ItemStatus;
+import com.ekup.fintech.ledger.application.BulkPostingService.PostingItem;
 import com.ekup.fintech.ledger.application.FxRateProvider;
 import com.ekup.fintech.ledger.application.FxService;
 import com.ekup.fintech.ledger.application.LedgerUseCaseService;
@@ -40,11 +47,18 @@ public class UseCaseController {
 	private final LedgerUseCaseService useCaseService;
 	private final FxService fxService;
 	private final FxRateProvider fxRateProvider;
+	private final BulkPostingService bulkPostingService;
 
-	public UseCaseController(LedgerUseCaseService useCaseService, FxService fxService, FxRateProvider fxRateProvider) {
+	public UseCaseController(
+			LedgerUseCaseService useCaseService,
+			FxService fxService,
+			FxRateProvider fxRateProvider,
+			BulkPostingService bulkPostingService
+	) {
 		this.useCaseService = useCaseService;
 		this.fxService = fxService;
 		this.fxRateProvider = fxRateProvider;
+		this.bulkPostingService = bulkPostingService;
 	}
 
 	@Operation(summary = "Get FX rate", description = "Get exchange rate and preview converted amount between two currencies")
@@ -86,6 +100,45 @@ public class UseCaseController {
 		return new WithdrawalResponse(result.requestId(), tx.getId(), tx.getWalletId(), tx.getMoney(), "COMPLETED", result.processedAt());
 	}
 
+	@Operation(summary = "Bulk deposits/withdrawals", description = "Post many deposits and withdrawals in one transaction with per-item idempotency keys and results. With atomic=true any failing item rolls back the whole batch.")
+	@PostMapping("/postings/bulk")
+	@ResponseStatus(HttpStatus.OK)
+	public BulkPostingResponse bulkPost(@Valid @RequestBody BulkPostingRequest request) {
+		List<PostingItem> items = request.items().stream()
+				.map(item -> new PostingItem(
+						item.type(),
+						item.walletId(),
+						Money.of(item.amount(), item.currency()),
+						item.idempotencyKey(),
+						item.description()
+				))
+				.toList();
+		BulkResult result = bulkPostingService.post(items, request.atomic());
+		List<BulkPostingResponse.ItemResult> results = result.items().stream()
+				.map(item -> {
+					Transaction tx = item.transaction();
+					return new BulkPostingResponse.ItemResult(
+							item.index(),
+							item.requestId(),
+							item.status().name(),
+							tx != null ? tx.getId() : null,
+							request.items().get(item.index()).walletId(),
+							tx != null ? tx.getMoney() : null,
+							item.errorCode(),
+							item.message()
+					);
+				})
+				.toList();
+		return new BulkPostingResponse(
+				results.size(),
+				result.count(ItemStatus.COMPLETED),
+				result.count(ItemStatus.REPLAYED),
+				result.count(ItemStatus.FAILED),
+				results,
+				result.processedAt()
+		);
+	}
+
 	@Operation(summary = "Transfer funds", description = "Move money between two wallets. Creates DEBIT on source and CREDIT on target atomically.")
 	@PostMapping("/transfers")
 	@ResponseStatus(HttpStatus.OK)
@@ -0,0 +1,52 @@
+package com.ekup.fintech.ledger.api;
+
+import java.util.UUID;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.ekup.fintech.ledger.application.WalletBalanceService;
+import com.ekup.fintech.ledger.application.WalletBalanceService.ReconciliationResult;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/api/v1/admin/balances")
+@Tag(name = "Admin - Wallet Balances", description = "Materialized wallet balance operations")
+public class WalletBalanceController {
+
+    private final WalletBalanceService walletBalanceService;
+
+    public WalletBalanceController(WalletBalanceService walletBalanceService) {
+        this.walletBalanceService = walletBalanceService;
+    }
+
+    @GetMapping("/wallets/{walletId}/reconciliation")
+    @Operation(summary = "Compare the materialized balance with SUM(transactions)")
+    public ReconciliationResponse reconcile(@PathVariable UUID walletId) {
+        return ReconciliationResponse.from(walletBalanceService.reconcile(walletId));
+    }
+
+    public record ReconciliationResponse(
+        UUID walletId,
+        String materializedBalance,
+        String ledgerBalance,
+        String currency,
+        long lastSequence,
+        boolean consistent
+    ) {
+        public static ReconciliationResponse from(ReconciliationResult result) {
+            return new ReconciliationResponse(
+                result.walletId(),
+                result.materializedBalance().amount().toPlainString(),
+                result.ledgerBalance().amount().toPlainString(),
+                result.materializedBalance().currency().name(),
+                result.lastSequence(),
+                result.consistent()
+            );
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.ekup.fintech.ledger.api.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import com.ekup.fintech.ledger.application.BulkPostingService.PostingType;
+import com.ekup.fintech.shared.domain.Currency;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public record BulkPostingItemRequest(
+		@NotNull PostingType type,
+		@NotNull UUID walletId,
+		@NotNull @Positive BigDecimal amount,
+		@NotNull Currency currency,
+		UUID idempotencyKey,
+		String description
+) {
+}
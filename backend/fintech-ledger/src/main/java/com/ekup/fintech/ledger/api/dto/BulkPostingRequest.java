@@ -0,0 +1,12 @@
+package com.ekup.fintech.ledger.api.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+public record BulkPostingRequest(
+		@NotEmpty List<@Valid BulkPostingItemRequest> items,
+		boolean atomic
+) {
+}
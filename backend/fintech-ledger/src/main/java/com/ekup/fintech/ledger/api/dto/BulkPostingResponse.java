@@ -0,0 +1,28 @@
+package com.ekup.fintech.ledger.api.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import com.ekup.fintech.shared.domain.Money;
+
+public record BulkPostingResponse(
+		int total,
+		long completed,
+		long replayed,
+		long failed,
+		List<ItemResult> results,
+		Instant processedAt
+) {
+	public record ItemResult(
+			int index,
+			UUID requestId,
+			String status,
+			UUID transactionId,
+			UUID walletId,
+			Money amount,
+			String errorCode,
+			String message
+	) {
+	}
+}
@@ -0,0 +1,13 @@
+package com.ekup.fintech.ledger.api.dto;
+
+import java.util.List;
+
+/**
+ * One page of a cursor-paginated list. nextCursor is null on the last page.
+ */
+public record CursorPageResponse<T>(
+		List<T> items,
+		String nextCursor,
+		boolean hasMore
+) {
+}
@@ -6,40 +6,85 @@ import java.util.UUID;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.ekup.fintech.ledger.domain.Transaction;
+import com.ekup.fintech.ledger.infrastructure.cache.WalletBalanceCache;
 import com.ekup.fintech.ledger.infrastructure.persistence.TransactionJpaRepository;
 import com.ekup.fintech.shared.domain.Currency;
 import com.ekup.fintech.shared.domain.Money;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 @Service
 public class BalanceCalculator {
 	private final TransactionJpaRepository transactionRepository;
 	private final BalanceSnapshotService snapshotService;
+	private final WalletBalanceService walletBalanceService;
+	private final WalletBalanceCache balanceCache;
+	private final BalanceSnapshotWorker snapshotWorker;
 	private final boolean useSnapshot;
+	private final boolean useMaterialized;
+	// Cache miss'te seçilen yolun süresi: materialized satır, snapshot + delta, tam SUM
+	private final Timer materializedTimer;
+	private final Timer snapshotTimer;
+	private final Timer sumTimer;
 
 	public BalanceCalculator(
 			TransactionJpaRepository transactionRepository,
 			BalanceSnapshotService snapshotService,
-			@Value("${fintech.balance.use-snapshot:true}") boolean useSnapshot) {
+			WalletBalanceService walletBalanceService,
+			WalletBalanceCache balanceCache,
+			BalanceSnapshotWorker snapshotWorker,
+			MeterRegistry meterRegistry,
+			@Value("${fintech.balance.use-snapshot:true}") boolean useSnapshot,
+			@Value("${fintech.balance.use-materialized:true}") boolean useMaterialized) {
 		this.transactionRepository = transactionRepository;
 		this.snapshotService = snapshotService;
+		this.walletBalanceService = walletBalanceService;
+		this.balanceCache = balanceCache;
+		this.snapshotWorker = snapshotWorker;
 		this.useSnapshot = useSnapshot;
+		this.useMaterialized = useMaterialized;
+		this.materializedTimer = strategyTimer("materialized", meterRegistry);
+		this.snapshotTimer = strategyTimer("snapshot", meterRegistry);
+		this.sumTimer = strategyTimer("sum", meterRegistry);
 	}
 
 	public Money calculateBalance(UUID walletId, Currency currency) {
-		if (useSnapshot) {
-			return snapshotService.calculateBalanceWithSnapshot(walletId, currency);
-		}
-		// Fallback: direct SUM
-		BigDecimal signed = transactionRepository.sumSignedAmount(walletId, currency);
-		return Money.of(signed, currency);
+		return balanceCache.get(walletId, currency, () -> loadBalance(walletId, currency));
 	}
-	
+
 	/**
-	 * İşlem sonrası snapshot kontrolü için çağrılır
+	 * Posting sonrası çağrılır: commit olunca cache güncellenir, rollback olursa wallet cache'ten atılır.
+	 * Snapshot ihtiyacı da commit sonrası arka planda değerlendirilir.
 	 */
-	public void checkAndCreateSnapshot(UUID walletId) {
+	public void recordPosting(Transaction transaction) {
+		balanceCache.applyAfterCommit(transaction.getWalletId(), transaction.getSignedMoney());
 		if (useSnapshot) {
-			snapshotService.createSnapshotIfNeeded(walletId);
+			snapshotWorker.recordPosting(transaction.getWalletId());
 		}
 	}
+
+	private Money loadBalance(UUID walletId, Currency currency) {
+		if (useMaterialized) {
+			// wallet_balances satırı yoksa (eski wallet) snapshot/SUM yoluna düş
+			Money materialized = materializedTimer.record(() -> walletBalanceService.findBalance(walletId, currency).orElse(null));
+			if (materialized != null) {
+				return materialized;
+			}
+		}
+		if (useSnapshot) {
+			return snapshotTimer.record(() -> snapshotService.calculateBalanceWithSnapshot(walletId, currency));
+		}
+		// Fallback: direct SUM
+		BigDecimal signed = sumTimer.record(() -> transactionRepository.sumSignedAmount(walletId, currency));
+		return Money.of(signed, currency);
+	}
+
+	private static Timer strategyTimer(String strategy, MeterRegistry meterRegistry) {
+		return Timer.builder("fintech.balance.load.duration")
+				.tag("strategy", strategy)
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+	}
 }
@@ -0,0 +1,241 @@
+package com.ekup.fintech.ledger.application;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.ekup.fintech.ledger.infrastructure.persistence.BalanceSnapshotJpaRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Batch snapshot job for all wallets that are due.
+ *
+ * Wallets are streamed in keyset pages ordered by wallet id; only wallets whose
+ * wallet_balances.last_sequence is at least the threshold past their latest snapshot are
+ * selected. Each page is fanned out over a bounded worker pool and every wallet gets its own
+ * short transaction (an incremental {@link BalanceSnapshotService#createSnapshot(UUID)}), so a
+ * failure only affects that wallet. At most one run is active; progress is exposed through
+ * {@link #getProgress()} (actuator endpoint "snapshotbatch") and fintech.balance.snapshot.batch.* meters.
+ */
+@Component
+public class BalanceSnapshotBatchJob implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(BalanceSnapshotBatchJob.class);
+    private static final UUID FIRST_KEY = new UUID(0L, 0L);
+
+    public enum State {
+        IDLE, RUNNING
+    }
+
+    public record Progress(
+        State state,
+        Instant startedAt,
+        Instant finishedAt,
+        long pages,
+        long selected,
+        long created,
+        long failed,
+        double walletsPerSecond,
+        String lastError
+    ) {
+    }
+
+    private final BalanceSnapshotService snapshotService;
+    private final BalanceSnapshotJpaRepository snapshotRepository;
+    private final long threshold;
+    private final int pageSize;
+    private final ExecutorService workers;
+    private final boolean virtualThreads;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong pages = new AtomicLong();
+    private final AtomicLong selected = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicReference<String> lastError = new AtomicReference<>();
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+
+    private final Counter createdCounter;
+    private final Counter failedCounter;
+    private final Timer runTimer;
+
+    @Autowired
+    public BalanceSnapshotBatchJob(
+            BalanceSnapshotService snapshotService,
+            BalanceSnapshotJpaRepository snapshotRepository,
+            MeterRegistry meterRegistry,
+            @Value("${fintech.balance.snapshot-threshold:100}") long threshold,
+            @Value("${fintech.balance.snapshot-batch.page-size:1000}") int pageSize,
+            @Value("${fintech.balance.snapshot-batch.threads:4}") int threads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this.snapshotService = snapshotService;
+        this.snapshotRepository = snapshotRepository;
+        this.threshold = threshold;
+        this.pageSize = Math.max(1, pageSize);
+        this.virtualThreads = virtualThreads;
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads), threadFactory("snapshot-batch-", virtualThreads));
+        this.createdCounter = Counter.builder("fintech.balance.snapshot.batch.wallets").tag("result", "created").register(meterRegistry);
+        this.failedCounter = Counter.builder("fintech.balance.snapshot.batch.wallets").tag("result", "failed").register(meterRegistry);
+        this.runTimer = Timer.builder("fintech.balance.snapshot.batch.duration").register(meterRegistry);
+        Gauge.builder("fintech.balance.snapshot.batch.running", running, flag -> flag.get() ? 1 : 0).register(meterRegistry);
+    }
+
+    /**
+     * Runs the job on the calling thread. Returns false without doing anything if a run is already active.
+     */
+    public boolean run() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Snapshot batch job already running, skipping");
+            return false;
+        }
+        runClaimed();
+        return true;
+    }
+
+    /**
+     * Runs the job; the caller has already claimed {@code running}, which is released at the end.
+     */
+    private void runClaimed() {
+        reset();
+        Timer.Sample sample = Timer.start();
+        try {
+            UUID after = FIRST_KEY;
+            while (true) {
+                List<UUID> page = snapshotRepository.findWalletsDueForSnapshot(after, threshold, pageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                pages.incrementAndGet();
+                selected.addAndGet(page.size());
+                processPage(page);
+                after = page.get(page.size() - 1);
+                if (page.size() < pageSize) {
+                    break;
+                }
+            }
+            log.info("Snapshot batch job finished: {}", getProgress());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lastError.set("interrupted");
+            log.warn("Snapshot batch job interrupted: {}", getProgress());
+        } catch (RuntimeException e) {
+            lastError.set(e.getMessage());
+            log.error("Snapshot batch job aborted", e);
+        } finally {
+            finishedAt = Instant.now();
+            sample.stop(runTimer);
+            running.set(false);
+        }
+    }
+
+    /**
+     * Starts a run in the background (admin/actuator trigger). Returns false if a run is already active.
+     */
+    public boolean start() {
+        // Bayrak burada alınır ve coordinator'a devredilir: iki eşzamanlı tetikten yalnızca biri true döner
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread coordinator = virtualThreads
+            ? Thread.ofVirtual().name("snapshot-batch-coordinator").unstarted(this::runClaimed)
+            : Thread.ofPlatform().name("snapshot-batch-coordinator").daemon(true).unstarted(this::runClaimed);
+        try {
+            coordinator.start();
+        } catch (RuntimeException | Error e) {
+            running.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    public Progress getProgress() {
+        Instant start = startedAt;
+        Instant end = running.get() ? Instant.now() : finishedAt;
+        double seconds = start != null && end != null ? Duration.between(start, end).toMillis() / 1000.0 : 0;
+        long done = created.get() + failed.get();
+        return new Progress(
+            running.get() ? State.RUNNING : State.IDLE,
+            start,
+            running.get() ? null : finishedAt,
+            pages.get(),
+            selected.get(),
+            created.get(),
+            failed.get(),
+            seconds > 0 ? done / seconds : 0,
+            lastError.get()
+        );
+    }
+
+    private void processPage(List<UUID> walletIds) throws InterruptedException {
+        List<Future<?>> futures = new ArrayList<>(walletIds.size());
+        for (UUID walletId : walletIds) {
+            futures.add(workers.submit(() -> snapshot(walletId)));
+        }
+        // Sayfa bitmeden sonraki sayfa okunmaz: bellekte en fazla bir sayfa iş bekler
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                // snapshot() kendi hatalarını sayar
+            }
+        }
+    }
+
+    private void snapshot(UUID walletId) {
+        try {
+            snapshotService.createSnapshot(walletId);
+            created.incrementAndGet();
+            createdCounter.increment();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            failedCounter.increment();
+            lastError.set(walletId + ": " + e.getMessage());
+            log.error("Failed to create snapshot for wallet {}: {}", walletId, e.getMessage());
+        }
+    }
+
+    private void reset() {
+        pages.set(0);
+        selected.set(0);
+        created.set(0);
+        failed.set(0);
+        lastError.set(null);
+        startedAt = Instant.now();
+        finishedAt = null;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        workers.shutdownNow();
+        workers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static ThreadFactory threadFactory(String name, boolean virtualThreads) {
+        return virtualThreads
+            ? Thread.ofVirtual().name(name, 0).factory()
+            : Thread.ofPlatform().name(name, 0).daemon(true).factory();
+    }
+}
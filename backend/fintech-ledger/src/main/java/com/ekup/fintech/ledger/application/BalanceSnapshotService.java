@@ -1,13 +1,19 @@
 package com.ekup.fintech.ledger.application;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.ekup.fintech.ledger.domain.BalanceSnapshot;
 import com.ekup.fintech.ledger.domain.Wallet;
@@ -21,34 +27,62 @@ import com.ekup.fintech.shared.domain.Money;
  * Balance Snapshot Service - Snapshot tabanlı hızlı bakiye hesaplama.
  * 
  * Strateji:
- * 1. Son snapshot varsa: snapshot balance + snapshot'tan sonraki işlemler
+ * 1. Son snapshot varsa: snapshot balance + snapshot'ın last_sequence'inden sonraki işlemler
  * 2. Son snapshot yoksa: tüm işlemlerin SUM'u (fallback)
  * 
+ * Snapshot'lar wallet sequence'ine göre kesilir; böylece delta tam olarak
+ * snapshot'a girmeyen işlemleri kapsar (zaman damgası yarışları yok).
+ * 
  * Snapshot'lar belirli eşiklerde otomatik oluşturulur:
  * - Her 100 işlemde bir
  * - Manuel trigger ile
+ * 
+ * Yeni snapshot önceki snapshot + sonrasındaki delta ile hesaplanır; periyodik tam
+ * doğrulama (verifyAllSnapshots) olası sapmaları raporlar ve düzeltir.
  */
 @Service
 public class BalanceSnapshotService {
     private static final Logger log = LoggerFactory.getLogger(BalanceSnapshotService.class);
     
+    public record SnapshotDrift(
+        UUID walletId,
+        UUID snapshotId,
+        long lastSequence,
+        Money snapshotBalance,
+        Money actualBalance,
+        long snapshotTransactionCount,
+        long actualTransactionCount
+    ) {
+    }
+    
+    public record VerificationReport(int walletsChecked, List<SnapshotDrift> drifts, Instant verifiedAt) {
+    }
+    
     // Kaç işlemde bir snapshot alınacak
     private static final long SNAPSHOT_THRESHOLD = 100;
     
     // Her wallet için max kaç snapshot tutulacak
     private static final int MAX_SNAPSHOTS_PER_WALLET = 5;
     
+    // Doğrulamada bir keyset sayfasındaki wallet sayısı
+    private static final int VERIFY_PAGE_SIZE = 500;
+    private static final UUID FIRST_KEY = new UUID(0L, 0L);
+    
     private final BalanceSnapshotJpaRepository snapshotRepository;
     private final TransactionJpaRepository transactionRepository;
     private final WalletJpaRepository walletRepository;
+    private final TransactionTemplate perWalletTransaction;
     
     public BalanceSnapshotService(
             BalanceSnapshotJpaRepository snapshotRepository,
             TransactionJpaRepository transactionRepository,
-            WalletJpaRepository walletRepository) {
+            WalletJpaRepository walletRepository,
+            PlatformTransactionManager transactionManager) {
         this.snapshotRepository = snapshotRepository;
         this.transactionRepository = transactionRepository;
         this.walletRepository = walletRepository;
+        this.perWalletTransaction = new TransactionTemplate(transactionManager);
+        this.perWalletTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
     
     /**
@@ -62,9 +96,9 @@ public class BalanceSnapshotService {
             BalanceSnapshot snapshot = latestSnapshot.get();
             
             // Snapshot'tan sonraki işlemlerin toplamını al
-            BigDecimal deltaAmount = snapshotRepository.sumSignedAmountAfter(
-                walletId, currency, snapshot.getSnapshotAt()
-            );
+            BigDecimal deltaAmount = snapshot.getLastSequence() != null
+                ? snapshotRepository.sumSignedAmountAfterSequence(walletId, currency, snapshot.getLastSequence(), snapshot.laterPostingsNotBefore())
+                : snapshotRepository.sumSignedAmountAfter(walletId, currency, snapshot.getSnapshotAt());
             
             // Snapshot balance + delta
             BigDecimal totalBalance = snapshot.getBalance().amount().add(deltaAmount);
@@ -90,9 +124,10 @@ public class BalanceSnapshotService {
         
         long transactionsSinceSnapshot;
         if (latestSnapshot.isPresent()) {
-            transactionsSinceSnapshot = snapshotRepository.countTransactionsAfter(
-                walletId, latestSnapshot.get().getSnapshotAt()
-            );
+            BalanceSnapshot snapshot = latestSnapshot.get();
+            transactionsSinceSnapshot = snapshot.getLastSequence() != null
+                ? snapshotRepository.countTransactionsAfterSequence(walletId, snapshot.getLastSequence(), snapshot.laterPostingsNotBefore())
+                : snapshotRepository.countTransactionsAfter(walletId, snapshot.getSnapshotAt());
         } else {
             transactionsSinceSnapshot = snapshotRepository.countTransactionsByWalletId(walletId);
         }
@@ -105,27 +140,36 @@ public class BalanceSnapshotService {
     }
     
     /**
-     * Manuel snapshot oluşturma
+     * Manuel snapshot oluşturma.
+     * Önceki snapshot sequence tabanlıysa yalnızca ondan sonraki işlemler toplanır (artımlı);
+     * aksi halde tüm geçmiş üzerinden hesaplanır.
      */
     @Transactional
     public BalanceSnapshot createSnapshot(UUID walletId) {
         Wallet wallet = walletRepository.findById(walletId)
             .orElseThrow(() -> new IllegalArgumentException("Wallet not found: " + walletId));
         
-        // Mevcut bakiyeyi hesapla (SUM ile)
-        BigDecimal balance = transactionRepository.sumSignedAmount(walletId, wallet.getBaseCurrency());
-        Money balanceMoney = Money.of(balance, wallet.getBaseCurrency());
+        // Snapshot'ın keseceği sequence: o ana kadar commit edilmiş en yüksek sequence
+        long lastSequence = snapshotRepository.findMaxSequence(walletId);
         
-        // İşlem sayısı ve son işlem ID
-        Long transactionCount = snapshotRepository.countTransactionsByWalletId(walletId);
-        UUID lastTransactionId = snapshotRepository.findLastTransactionId(walletId).orElse(null);
+        Optional<BalanceSnapshot> previous = snapshotRepository.findTopByWalletIdOrderBySnapshotAtDesc(walletId)
+            .filter(snapshot -> snapshot.getLastSequence() != null
+                && snapshot.getCurrency() == wallet.getBaseCurrency()
+                && snapshot.getLastSequence() <= lastSequence);
         
-        // Snapshot oluştur
-        BalanceSnapshot snapshot = BalanceSnapshot.create(walletId, balanceMoney, transactionCount, lastTransactionId);
+        if (previous.isPresent() && previous.get().getLastSequence() == lastSequence) {
+            // Son snapshot'tan beri yeni işlem yok
+            return previous.get();
+        }
+        
+        BalanceSnapshot snapshot = previous
+            .map(base -> incrementalSnapshot(wallet, base, lastSequence))
+            .orElseGet(() -> fullSnapshot(wallet, lastSequence));
         snapshotRepository.save(snapshot);
         
-        log.info("Created snapshot for wallet {}: balance={}, txCount={}", 
-            walletId, balanceMoney, transactionCount);
+        log.info("Created {} snapshot for wallet {}: balance={}, txCount={}, lastSequence={}", 
+            previous.isPresent() ? "incremental" : "full", walletId, snapshot.getBalance(),
+            snapshot.getTransactionCount(), lastSequence);
         
         // Eski snapshot'ları temizle (async yapılabilir)
         cleanupOldSnapshots(walletId);
@@ -134,21 +178,95 @@ public class BalanceSnapshotService {
     }
     
     /**
-     * Tüm wallet'lar için snapshot oluştur (scheduled job için)
+     * Snapshot'ı olan her wallet'ın son snapshot'ını tam SUM/COUNT ile doğrular.
+     * Sapma bulunan wallet'lar için tam hesaplanmış yeni bir snapshot yazılır, böylece
+     * sonraki artımlı snapshot'lar doğru temelden devam eder.
+     * 
+     * Wallet'lar keyset sayfalarıyla okunur ve her wallet kendi kısa transaction'ında doğrulanır:
+     * bir wallet'taki hata diğerlerinin onarımını geri almaz.
      */
-    @Transactional
-    public void createSnapshotsForAllWallets() {
-        log.info("Starting batch snapshot creation for all wallets");
-        
-        walletRepository.findAll().forEach(wallet -> {
-            try {
-                createSnapshotIfNeeded(wallet.getId());
-            } catch (Exception e) {
-                log.error("Failed to create snapshot for wallet {}: {}", wallet.getId(), e.getMessage());
+    public VerificationReport verifyAllSnapshots() {
+        List<SnapshotDrift> drifts = new ArrayList<>();
+        int checked = 0;
+        UUID after = FIRST_KEY;
+        while (true) {
+            List<UUID> page = snapshotRepository.findWalletsWithSnapshots(after, VERIFY_PAGE_SIZE);
+            for (UUID walletId : page) {
+                try {
+                    Optional<SnapshotDrift> drift = perWalletTransaction.execute(status -> verifyLatestSnapshot(walletId));
+                    checked++;
+                    drift.ifPresent(drifts::add);
+                } catch (Exception e) {
+                    log.error("Failed to verify snapshot for wallet {}: {}", walletId, e.getMessage());
+                }
             }
-        });
+            if (page.size() < VERIFY_PAGE_SIZE) {
+                break;
+            }
+            after = page.get(page.size() - 1);
+        }
+        return new VerificationReport(checked, drifts, Instant.now());
+    }
+    
+    private Optional<SnapshotDrift> verifyLatestSnapshot(UUID walletId) {
+        Wallet wallet = walletRepository.findById(walletId)
+            .orElseThrow(() -> new IllegalArgumentException("Wallet not found: " + walletId));
+        Optional<BalanceSnapshot> latest = snapshotRepository.findTopByWalletIdOrderBySnapshotAtDesc(walletId)
+            .filter(snapshot -> snapshot.getLastSequence() != null);
+        if (latest.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        BalanceSnapshot snapshot = latest.get();
+        long sequence = snapshot.getLastSequence();
+        Money actualBalance = Money.of(
+            snapshotRepository.sumSignedAmountUpToSequence(walletId, snapshot.getCurrency(), sequence),
+            snapshot.getCurrency());
+        long actualCount = snapshotRepository.countTransactionsUpToSequence(walletId, sequence);
+        
+        if (actualBalance.amount().compareTo(snapshot.getBalance().amount()) == 0 && actualCount == snapshot.getTransactionCount()) {
+            return Optional.empty();
+        }
+        
+        SnapshotDrift drift = new SnapshotDrift(walletId, snapshot.getId(), sequence,
+            snapshot.getBalance(), actualBalance, snapshot.getTransactionCount(), actualCount);
+        log.error("Snapshot drift detected: {}", drift);
+        
+        // Onarım: tam hesaplanmış snapshot en yeni snapshot olur
+        BalanceSnapshot repaired = fullSnapshot(wallet, snapshotRepository.findMaxSequence(walletId));
+        snapshotRepository.save(repaired);
+        cleanupOldSnapshots(walletId);
+        return Optional.of(drift);
+    }
+    
+    private BalanceSnapshot incrementalSnapshot(Wallet wallet, BalanceSnapshot base, long lastSequence) {
+        UUID walletId = wallet.getId();
+        long baseSequence = base.getLastSequence();
+        
+        Instant notBefore = base.laterPostingsNotBefore();
+        
+        BigDecimal delta = snapshotRepository.sumSignedAmountBetweenSequences(walletId, wallet.getBaseCurrency(), baseSequence, lastSequence, notBefore);
+        Long deltaCount = snapshotRepository.countTransactionsBetweenSequences(walletId, baseSequence, lastSequence, notBefore);
+        Money balance = base.getBalance().add(Money.of(delta, wallet.getBaseCurrency()));
+        UUID lastTransactionId = snapshotRepository.findTransactionIdBySequence(walletId, lastSequence).orElse(null);
+        
+        return BalanceSnapshot.create(walletId, balance, base.getTransactionCount() + deltaCount, lastTransactionId, lastSequence);
+    }
+    
+    private BalanceSnapshot fullSnapshot(Wallet wallet, long lastSequence) {
+        UUID walletId = wallet.getId();
+        
+        // Bakiyeyi bu sequence'e kadar hesapla (SUM ile)
+        BigDecimal balance = snapshotRepository.sumSignedAmountUpToSequence(walletId, wallet.getBaseCurrency(), lastSequence);
+        Money balanceMoney = Money.of(balance, wallet.getBaseCurrency());
+        
+        // İşlem sayısı ve son işlem ID
+        Long transactionCount = snapshotRepository.countTransactionsUpToSequence(walletId, lastSequence);
+        UUID lastTransactionId = snapshotRepository.findTransactionIdBySequence(walletId, lastSequence)
+            .or(() -> snapshotRepository.findLastTransactionId(walletId))
+            .orElse(null);
         
-        log.info("Batch snapshot creation completed");
+        return BalanceSnapshot.create(walletId, balanceMoney, transactionCount, lastTransactionId, lastSequence);
     }
     
     /**
@@ -0,0 +1,230 @@
+package com.ekup.fintech.ledger.application;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Creates balance snapshots in the background, off the posting transaction.
+ *
+ * Postings are counted per wallet in memory once their transaction commits; when a wallet
+ * reaches the threshold a snapshot task is queued on a small bounded executor. A wallet with
+ * a task already queued or running is not queued again (coalescing), and a full queue simply
+ * drops the request - the counter is kept, so the next posting retries. A wallet's counter is
+ * removed when its snapshot starts, and at most {@code max-tracked-wallets} wallets are counted;
+ * postings for further wallets are not counted. Counters start from zero after a restart; the
+ * hourly {@link BalanceSnapshotBatchJob} still catches wallets that crossed the threshold
+ * without being counted here.
+ */
+@Component
+public class BalanceSnapshotWorker implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(BalanceSnapshotWorker.class);
+
+    private final BalanceSnapshotService snapshotService;
+    private final long threshold;
+    private final int maxTrackedWallets;
+    private final ExecutorService executor;
+    // Sadece snapshot'ı gelmemiş posting'i olan wallet'lar tutulur; sıfır sayaç saklanmaz
+    private final Map<UUID, Long> postingsSinceSnapshot = new ConcurrentHashMap<>();
+    private final Set<UUID> scheduled = ConcurrentHashMap.newKeySet();
+    private final Counter created;
+    private final Counter coalesced;
+    private final Counter rejected;
+    private final Counter failed;
+    private final Counter untracked;
+    private final Timer snapshotDuration;
+    // Lag gauge'ları bu özeti okur; map scrape başına değil refresh turunda bir kez taranır
+    private volatile LagStats lagStats = LagStats.EMPTY;
+
+    /**
+     * Snapshot lag tiers: how far a wallet's postings since its last snapshot are toward the threshold.
+     */
+    enum LagTier {
+        BELOW_HALF, NEAR_THRESHOLD, DUE
+    }
+
+    private record LagStats(long[] walletsPerTier, long max) {
+        static final LagStats EMPTY = new LagStats(new long[LagTier.values().length], 0);
+    }
+
+    @Autowired
+    public BalanceSnapshotWorker(
+            BalanceSnapshotService snapshotService,
+            MeterRegistry meterRegistry,
+            @Value("${fintech.balance.snapshot-threshold:100}") long threshold,
+            @Value("${fintech.balance.snapshot-worker.max-tracked-wallets:100000}") int maxTrackedWallets,
+            @Value("${fintech.balance.snapshot-worker.threads:1}") int threads,
+            @Value("${fintech.balance.snapshot-worker.queue-capacity:1000}") int queueCapacity,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads
+    ) {
+        this(snapshotService, meterRegistry, threshold, maxTrackedWallets, newExecutor(threads, queueCapacity, virtualThreads));
+    }
+
+    BalanceSnapshotWorker(
+            BalanceSnapshotService snapshotService,
+            MeterRegistry meterRegistry,
+            long threshold,
+            int maxTrackedWallets,
+            ExecutorService executor
+    ) {
+        this.snapshotService = snapshotService;
+        this.threshold = threshold;
+        this.maxTrackedWallets = maxTrackedWallets;
+        this.executor = executor;
+        this.created = Counter.builder("fintech.balance.snapshot.worker.tasks").tag("result", "created").register(meterRegistry);
+        this.failed = Counter.builder("fintech.balance.snapshot.worker.tasks").tag("result", "failed").register(meterRegistry);
+        this.coalesced = Counter.builder("fintech.balance.snapshot.worker.coalesced").register(meterRegistry);
+        this.rejected = Counter.builder("fintech.balance.snapshot.worker.rejected").register(meterRegistry);
+        this.untracked = Counter.builder("fintech.balance.snapshot.worker.untracked")
+            .description("Postings not counted because max-tracked-wallets was reached")
+            .register(meterRegistry);
+        Gauge.builder("fintech.balance.snapshot.worker.tracked", postingsSinceSnapshot, Map::size).register(meterRegistry);
+        Gauge.builder("fintech.balance.snapshot.worker.scheduled", scheduled, Set::size).register(meterRegistry);
+        this.snapshotDuration = Timer.builder("fintech.balance.snapshot.worker.duration").register(meterRegistry);
+        // Sayaçlar bellekte, restart sonrası sıfırdan başlar; gauge'lar son refreshLagStats sonucunu gösterir
+        for (LagTier tier : LagTier.values()) {
+            Gauge.builder("fintech.balance.snapshot.lag.wallets", this, worker -> worker.lagStats.walletsPerTier()[tier.ordinal()])
+                .tag("tier", tier.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+        }
+        Gauge.builder("fintech.balance.snapshot.lag.max", this, worker -> worker.lagStats.max()).register(meterRegistry);
+    }
+
+    /**
+     * Posting'i sayar; transaction commit olduktan sonra eşik kontrolü yapılır, rollback'te sayılmaz
+     */
+    public void recordPosting(UUID walletId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            postingsCommitted(walletId, 1);
+            return;
+        }
+        PendingCounts pending = (PendingCounts) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingCounts();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.counts.merge(walletId, 1, Integer::sum);
+    }
+
+    long postingsSinceSnapshot(UUID walletId) {
+        return postingsSinceSnapshot.getOrDefault(walletId, 0L);
+    }
+
+    int trackedWallets() {
+        return postingsSinceSnapshot.size();
+    }
+
+    private LagTier tierOf(long postings) {
+        if (postings >= threshold) {
+            return LagTier.DUE;
+        }
+        return postings * 2 < threshold ? LagTier.BELOW_HALF : LagTier.NEAR_THRESHOLD;
+    }
+
+    /**
+     * Recomputes the lag gauges in one pass over the tracked wallets.
+     */
+    @Scheduled(fixedDelayString = "${fintech.balance.snapshot-worker.lag-refresh-ms:15000}")
+    void refreshLagStats() {
+        long[] walletsPerTier = new long[LagTier.values().length];
+        long max = 0;
+        for (long postings : postingsSinceSnapshot.values()) {
+            walletsPerTier[tierOf(postings).ordinal()]++;
+            max = Math.max(max, postings);
+        }
+        lagStats = new LagStats(walletsPerTier, max);
+    }
+
+    private void postingsCommitted(UUID walletId, int postings) {
+        if (postingsSinceSnapshot.size() >= maxTrackedWallets && !postingsSinceSnapshot.containsKey(walletId)) {
+            untracked.increment(postings);
+            return;
+        }
+        long count = postingsSinceSnapshot.merge(walletId, (long) postings, Long::sum);
+        if (count < threshold) {
+            return;
+        }
+        if (!scheduled.add(walletId)) {
+            coalesced.increment();
+            return;
+        }
+        try {
+            executor.execute(() -> snapshot(walletId));
+        } catch (RejectedExecutionException e) {
+            scheduled.remove(walletId);
+            rejected.increment();
+            log.debug("Snapshot queue full, deferring snapshot for wallet {}", walletId);
+        }
+    }
+
+    private void snapshot(UUID walletId) {
+        // Sayaç snapshot'tan önce silinir: arada gelen posting'ler ya snapshot'a girer ya da bir sonrakine sayılır
+        Long counted = postingsSinceSnapshot.remove(walletId);
+        try {
+            snapshotDuration.record(() -> snapshotService.createSnapshot(walletId));
+            created.increment();
+        } catch (Exception e) {
+            if (counted != null) {
+                postingsSinceSnapshot.merge(walletId, counted, Long::sum);
+            }
+            failed.increment();
+            log.warn("Background snapshot failed for wallet {}: {}", walletId, e.getMessage());
+        } finally {
+            scheduled.remove(walletId);
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ExecutorService newExecutor(int threads, int queueCapacity, boolean virtualThreads) {
+        ThreadFactory threadFactory = virtualThreads
+            ? Thread.ofVirtual().name("snapshot-worker-", 0).factory()
+            : Thread.ofPlatform().name("snapshot-worker-", 0).daemon(true).factory();
+        int size = Math.max(1, threads);
+        return new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private final class PendingCounts implements TransactionSynchronization {
+        private final Map<UUID, Integer> counts = new HashMap<>();
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(BalanceSnapshotWorker.this);
+            if (status == STATUS_COMMITTED) {
+                counts.forEach(BalanceSnapshotWorker.this::postingsCommitted);
+            }
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.ekup.fintech.ledger.application;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.ekup.fintech.ledger.domain.ReferenceType;
+import com.ekup.fintech.ledger.domain.Transaction;
+import com.ekup.fintech.ledger.domain.TransactionGroupType;
+import com.ekup.fintech.ledger.domain.Wallet;
+import com.ekup.fintech.ledger.domain.WalletBalance;
+import com.ekup.fintech.ledger.domain.WalletStatus;
+import com.ekup.fintech.ledger.infrastructure.persistence.IdempotencyRecord;
+import com.ekup.fintech.ledger.infrastructure.persistence.IdempotencyRecordJpaRepository;
+import com.ekup.fintech.ledger.infrastructure.persistence.IdempotencyRetention;
+import com.ekup.fintech.ledger.infrastructure.persistence.PostingWriter;
+import com.ekup.fintech.ledger.infrastructure.persistence.TransactionJpaRepository;
+import com.ekup.fintech.ledger.infrastructure.persistence.WalletJpaRepository;
+import com.ekup.fintech.shared.domain.Money;
+import com.ekup.fintech.shared.exception.BulkLimitExceededException;
+import com.ekup.fintech.shared.exception.CurrencyMismatchException;
+import com.ekup.fintech.shared.exception.DomainException;
+import com.ekup.fintech.shared.exception.IdempotencyConflictException;
+import com.ekup.fintech.shared.exception.InsufficientBalanceException;
+import com.ekup.fintech.shared.exception.ResourceNotFoundException;
+import com.ekup.fintech.shared.exception.WalletClosedException;
+import com.ekup.fintech.shared.exception.WalletSuspendedException;
+import com.ekup.fintech.shared.util.IdGenerator;
+
+/**
+ * Posts many deposits/withdrawals in one transaction.
+ *
+ * Client-supplied idempotency keys are locked first; idempotency records, wallets and wallet
+ * balance rows are then each loaded once for the whole batch, transactions are inserted together
+ * and the snapshot check runs once per wallet. By default a failing item is reported in its result
+ * and the rest of the batch is still posted; with {@code atomic=true} the first failure rolls back
+ * the whole batch.
+ *
+ * The batch runs through {@link PostingEngine} like single postings. In sharded mode the shards
+ * owning its wallets are parked while it runs (one shard: it joins that shard's micro-batch), so
+ * its balance rows, locked in wallet id order, are never held by a shard batch that locks them in
+ * arrival order.
+ */
+@Service
+public class BulkPostingService {
+	public enum PostingType {
+		DEPOSIT, WITHDRAWAL
+	}
+
+	public enum ItemStatus {
+		COMPLETED, REPLAYED, FAILED
+	}
+
+	public record PostingItem(PostingType type, UUID walletId, Money amount, UUID idempotencyKey, String description) {
+	}
+
+	public record ItemResult(
+			int index,
+			UUID requestId,
+			ItemStatus status,
+			Transaction transaction,
+			String errorCode,
+			String message
+	) {
+	}
+
+	public record BulkResult(List<ItemResult> items, Instant processedAt) {
+		public long count(ItemStatus status) {
+			return items.stream().filter(item -> item.status() == status).count();
+		}
+	}
+
+	private final WalletJpaRepository walletRepository;
+	private final TransactionJpaRepository transactionRepository;
+	private final PostingWriter postingWriter;
+	private final IdempotencyRecordJpaRepository idempotencyRepository;
+	private final IdempotencyLockManager idempotencyLocks;
+	private final WalletBalanceService walletBalanceService;
+	private final WalletLockManager walletLockManager;
+	private final BalanceCalculator balanceCalculator;
+	private final PostingEngine postingEngine;
+	private final IdempotencyRetention retention;
+	private final int maxItems;
+
+	public BulkPostingService(
+			WalletJpaRepository walletRepository,
+			TransactionJpaRepository transactionRepository,
+			PostingWriter postingWriter,
+			IdempotencyRecordJpaRepository idempotencyRepository,
+			IdempotencyLockManager idempotencyLocks,
+			WalletBalanceService walletBalanceService,
+			WalletLockManager walletLockManager,
+			BalanceCalculator balanceCalculator,
+			PostingEngine postingEngine,
+			IdempotencyRetention retention,
+			@Value("${fintech.ledger.bulk.max-items:500}") int maxItems
+	) {
+		this.walletRepository = walletRepository;
+		this.transactionRepository = transactionRepository;
+		this.postingWriter = postingWriter;
+		this.idempotencyRepository = idempotencyRepository;
+		this.idempotencyLocks = idempotencyLocks;
+		this.walletBalanceService = walletBalanceService;
+		this.walletLockManager = walletLockManager;
+		this.balanceCalculator = balanceCalculator;
+		this.postingEngine = postingEngine;
+		this.retention = retention;
+		this.maxItems = maxItems;
+	}
+
+	public BulkResult post(List<PostingItem> items, boolean atomic) {
+		Objects.requireNonNull(items, "items");
+		if (items.isEmpty() || items.size() > maxItems) {
+			throw new BulkLimitExceededException("Bulk posting must contain between 1 and " + maxItems + " items");
+		}
+		Set<UUID> walletIds = items.stream().map(PostingItem::walletId).collect(Collectors.toCollection(LinkedHashSet::new));
+		return postingEngine.execute(walletIds, () -> doPost(items, walletIds, atomic));
+	}
+
+	private BulkResult doPost(List<PostingItem> items, Set<UUID> walletIds, boolean atomic) {
+		List<UUID> keys = items.stream().map(item -> keyOrNew(item.idempotencyKey())).toList();
+		// Client key'leri wallet'lardan önce kilitlenir, tekil postinglerle aynı sırada; üretilen key'ler kilitlenmez
+		idempotencyLocks.lockAll(items.stream()
+				.filter(item -> item.idempotencyKey() != null)
+				.map(item -> new IdempotencyLockManager.Key(operation(item.type()), item.idempotencyKey()))
+				.toList());
+		Map<String, IdempotencyRecord> existing = loadIdempotencyRecords(keys);
+		Map<UUID, Transaction> replayed = loadReplayedTransactions(existing.values());
+
+		walletLockManager.lock(walletIds.toArray(UUID[]::new));
+		Map<UUID, Wallet> wallets = walletRepository.findAllById(walletIds).stream()
+				.collect(Collectors.toMap(Wallet::getId, Function.identity()));
+		Map<UUID, WalletBalance> balances = lockBalances(wallets);
+
+		ItemResult[] results = new ItemResult[items.size()];
+		Map<String, Integer> seenInBatch = new HashMap<>();
+		List<Transaction> postings = new ArrayList<>();
+		List<IdempotencyRecord> records = new ArrayList<>();
+
+		for (int i = 0; i < items.size(); i++) {
+			PostingItem item = items.get(i);
+			UUID key = keys.get(i);
+			String operation = operation(item.type());
+			String fingerprint = LedgerUseCaseService.fingerprintSingle(item.walletId(), item.amount().amount(), item.amount().currency());
+			String recordKey = operation + ":" + key;
+			try {
+				IdempotencyRecord record = existing.get(recordKey);
+				if (record != null) {
+					ensureSameRequest(operation, key, record.getRequestFingerprint(), fingerprint);
+					results[i] = replay(i, key, replayed.get(record.getTransactionId()));
+					continue;
+				}
+				Integer earlier = seenInBatch.putIfAbsent(recordKey, i);
+				if (earlier != null) {
+					ensureSameRequest(operation, key, fingerprintOf(items.get(earlier)), fingerprint);
+					ItemResult first = results[earlier];
+					results[i] = first.status() == ItemStatus.FAILED
+							? new ItemResult(i, key, ItemStatus.FAILED, null, first.errorCode(), first.message())
+							: replay(i, key, first.transaction());
+					continue;
+				}
+
+				Transaction tx = post(item, key, wallets.get(item.walletId()), balances.get(item.walletId()));
+				postings.add(tx);
+				records.add(new IdempotencyRecord(IdGenerator.newId(), operation, key, fingerprint, item.walletId(), tx.getId(), null));
+				results[i] = new ItemResult(i, key, ItemStatus.COMPLETED, tx, null, null);
+			} catch (DomainException e) {
+				if (atomic) {
+					throw e;
+				}
+				results[i] = new ItemResult(i, key, ItemStatus.FAILED, null, errorCode(e), e.getMessage());
+			}
+		}
+
+		postingWriter.write(postings);
+		idempotencyRepository.saveAll(records);
+		postings.forEach(balanceCalculator::recordPosting);
+
+		return new BulkResult(List.of(results), Instant.now());
+	}
+
+	private Transaction post(PostingItem item, UUID key, Wallet wallet, WalletBalance balance) {
+		if (wallet == null) {
+			throw new ResourceNotFoundException("Wallet not found: " + item.walletId());
+		}
+		ensureWalletOperational(wallet);
+		if (wallet.getBaseCurrency() != item.amount().currency()) {
+			throw new CurrencyMismatchException("Wallet currency mismatch: " + wallet.getBaseCurrency() + " vs " + item.amount().currency());
+		}
+
+		Transaction tx;
+		if (item.type() == PostingType.WITHDRAWAL) {
+			if (balance.getBalance().amount().compareTo(item.amount().amount()) < 0) {
+				throw new InsufficientBalanceException("Insufficient balance");
+			}
+			tx = Transaction.debit(wallet.getId(), item.amount(), TransactionGroupType.USER_ACTION, ReferenceType.WITHDRAWAL,
+					key, description(item, "withdraw"), Instant.now());
+		} else {
+			tx = Transaction.credit(wallet.getId(), item.amount(), TransactionGroupType.USER_ACTION, ReferenceType.DEPOSIT,
+					key, description(item, "deposit"), Instant.now());
+		}
+		// Bakiye satırı batch boyunca güncel kalır; sonraki item'lar bu bakiyeye göre kontrol edilir
+		balance.apply(tx);
+		return tx;
+	}
+
+	private Map<String, IdempotencyRecord> loadIdempotencyRecords(List<UUID> keys) {
+		return idempotencyRepository.findByOperationInAndIdempotencyKeyInAndCreatedAtAfter(
+						List.of(LedgerUseCaseService.OP_DEPOSIT, LedgerUseCaseService.OP_WITHDRAWAL), new LinkedHashSet<>(keys), retention.cutoff())
+				.stream()
+				.collect(Collectors.toMap(record -> record.getOperation() + ":" + record.getIdempotencyKey(), Function.identity()));
+	}
+
+	private Map<UUID, Transaction> loadReplayedTransactions(Collection<IdempotencyRecord> records) {
+		if (records.isEmpty()) {
+			return Map.of();
+		}
+		List<UUID> ids = records.stream().map(IdempotencyRecord::getTransactionId).filter(Objects::nonNull).toList();
+		return transactionRepository.findAllById(ids).stream()
+				.collect(Collectors.toMap(Transaction::getId, Function.identity()));
+	}
+
+	/**
+	 * Locks balance rows in wallet id order, the same order single postings use.
+	 */
+	private Map<UUID, WalletBalance> lockBalances(Map<UUID, Wallet> wallets) {
+		Map<UUID, WalletBalance> balances = new HashMap<>();
+		for (Wallet wallet : new TreeMap<>(wallets).values()) {
+			balances.put(wallet.getId(), walletBalanceService.lockForPosting(wallet));
+		}
+		return balances;
+	}
+
+	private static ItemResult replay(int index, UUID key, Transaction transaction) {
+		if (transaction == null) {
+			throw new ResourceNotFoundException("Transaction not found for idempotency key " + key);
+		}
+		return new ItemResult(index, key, ItemStatus.REPLAYED, transaction, null, null);
+	}
+
+	private static void ensureSameRequest(String operation, UUID key, String existingFingerprint, String incomingFingerprint) {
+		if (!Objects.equals(existingFingerprint, incomingFingerprint)) {
+			throw new IdempotencyConflictException(
+					"Idempotency key reuse with different payload for operation=" + operation + ", key=" + key
+			);
+		}
+	}
+
+	private static void ensureWalletOperational(Wallet wallet) {
+		if (wallet.getStatus() == WalletStatus.SUSPENDED) {
+			throw new WalletSuspendedException("Wallet is suspended");
+		}
+		if (wallet.getStatus() == WalletStatus.CLOSED) {
+			throw new WalletClosedException("Wallet is closed");
+		}
+	}
+
+	private static String fingerprintOf(PostingItem item) {
+		return LedgerUseCaseService.fingerprintSingle(item.walletId(), item.amount().amount(), item.amount().currency());
+	}
+
+	private static String operation(PostingType type) {
+		return type == PostingType.WITHDRAWAL ? LedgerUseCaseService.OP_WITHDRAWAL : LedgerUseCaseService.OP_DEPOSIT;
+	}
+
+	private static String description(PostingItem item, String fallback) {
+		return item.description() != null ? item.description() : fallback;
+	}
+
+	private static UUID keyOrNew(UUID idempotencyKey) {
+		return idempotencyKey != null ? idempotencyKey : IdGenerator.newId();
+	}
+
+	/**
+	 * Same error codes GlobalExceptionHandler uses for the single-item endpoints.
+	 */
+	private static String errorCode(DomainException e) {
+		if (e instanceof ResourceNotFoundException) {
+			return "RESOURCE_NOT_FOUND";
+		}
+		if (e instanceof InsufficientBalanceException) {
+			return "INSUFFICIENT_BALANCE";
+		}
+		if (e instanceof CurrencyMismatchException) {
+			return "CURRENCY_MISMATCH";
+		}
+		if (e instanceof IdempotencyConflictException) {
+			return "IDEMPOTENCY_CONFLICT";
+		}
+		if (e instanceof WalletSuspendedException) {
+			return "WALLET_SUSPENDED";
+		}
+		if (e instanceof WalletClosedException) {
+			return "WALLET_CLOSED";
+		}
+		return "DOMAIN_ERROR";
+	}
+}
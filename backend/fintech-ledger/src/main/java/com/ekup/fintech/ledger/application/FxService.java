@@ -2,19 +2,21 @@ package com.ekup.fintech.ledger.application;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.ekup.fintech.ledger.domain.ReferenceType;
 import com.ekup.fintech.ledger.domain.Transaction;
 import com.ekup.fintech.ledger.domain.TransactionGroupType;
 import com.ekup.fintech.ledger.domain.Wallet;
+import com.ekup.fintech.ledger.domain.WalletBalance;
 import com.ekup.fintech.ledger.domain.WalletStatus;
-import com.ekup.fintech.ledger.infrastructure.persistence.TransactionJpaRepository;
+import com.ekup.fintech.ledger.infrastructure.persistence.PostingWriter;
 import com.ekup.fintech.ledger.infrastructure.persistence.WalletJpaRepository;
 import com.ekup.fintech.shared.domain.Money;
+import com.ekup.fintech.shared.exception.CurrencyMismatchException;
 import com.ekup.fintech.shared.exception.InsufficientBalanceException;
 import com.ekup.fintech.shared.exception.ResourceNotFoundException;
 import com.ekup.fintech.shared.exception.WalletClosedException;
@@ -32,28 +34,40 @@ public class FxService {
 	}
 
 	private final WalletJpaRepository walletRepository;
-	private final TransactionJpaRepository transactionRepository;
+	private final PostingWriter postingWriter;
 	private final BalanceCalculator balanceCalculator;
 	private final FxRateProvider fxRateProvider;
+	private final WalletBalanceService walletBalanceService;
+	private final WalletLockManager walletLockManager;
+	private final PostingEngine postingEngine;
+	private final LedgerMetrics metrics;
 
 	public FxService(
 			WalletJpaRepository walletRepository,
-			TransactionJpaRepository transactionRepository,
+			PostingWriter postingWriter,
 			BalanceCalculator balanceCalculator,
-			FxRateProvider fxRateProvider
+			FxRateProvider fxRateProvider,
+			WalletBalanceService walletBalanceService,
+			WalletLockManager walletLockManager,
+			PostingEngine postingEngine,
+			LedgerMetrics metrics
 	) {
 		this.walletRepository = walletRepository;
-		this.transactionRepository = transactionRepository;
+		this.postingWriter = postingWriter;
 		this.balanceCalculator = balanceCalculator;
 		this.fxRateProvider = fxRateProvider;
+		this.walletBalanceService = walletBalanceService;
+		this.walletLockManager = walletLockManager;
+		this.postingEngine = postingEngine;
+		this.metrics = metrics;
 	}
 
 	/**
 	 * Convert currency within a single wallet's owner context.
 	 * Debits sourceAmount from source currency, credits converted amount to target currency.
 	 * Both wallets must belong to same owner.
+	 * Runs through the posting engine like a transfer, on the shards owning both wallets.
 	 */
-	@Transactional
 	public FxConversionResult convert(
 			UUID sourceWalletId,
 			UUID targetWalletId,
@@ -61,6 +75,18 @@ public class FxService {
 			UUID conversionId,
 			String description
 	) {
+		return metrics.time(LedgerMetrics.FX, () -> postingEngine.execute(sourceWalletId, targetWalletId,
+				() -> doConvert(sourceWalletId, targetWalletId, sourceAmount, conversionId, description)));
+	}
+
+	private FxConversionResult doConvert(
+			UUID sourceWalletId,
+			UUID targetWalletId,
+			Money sourceAmount,
+			UUID conversionId,
+			String description
+	) {
+		walletLockManager.lock(sourceWalletId, targetWalletId);
 		Wallet sourceWallet = getWalletRequired(sourceWalletId);
 		Wallet targetWallet = getWalletRequired(targetWalletId);
 
@@ -69,15 +95,25 @@ public class FxService {
 
 		// Validate source wallet currency matches source amount
 		if (sourceWallet.getBaseCurrency() != sourceAmount.currency()) {
-			throw new IllegalArgumentException("Source amount currency must match source wallet currency");
+			throw new CurrencyMismatchException("Source amount currency must match source wallet currency: "
+					+ sourceWallet.getBaseCurrency() + " vs " + sourceAmount.currency());
 		}
 
 		// Get exchange rate and calculate target amount
 		BigDecimal rate = fxRateProvider.getRate(sourceAmount.currency(), targetWallet.getBaseCurrency());
 		Money targetAmount = fxRateProvider.convert(sourceAmount, targetWallet.getBaseCurrency());
 
-		// Check sufficient balance in source wallet
-		ensureSufficientBalance(sourceWallet, sourceAmount);
+		// Lock balance rows in wallet id order, then check sufficient balance in source wallet
+		WalletBalance sourceBalance;
+		WalletBalance targetBalance;
+		if (sourceWallet.getId().compareTo(targetWallet.getId()) <= 0) {
+			sourceBalance = walletBalanceService.lockForPosting(sourceWallet);
+			targetBalance = walletBalanceService.lockForPosting(targetWallet);
+		} else {
+			targetBalance = walletBalanceService.lockForPosting(targetWallet);
+			sourceBalance = walletBalanceService.lockForPosting(sourceWallet);
+		}
+		ensureSufficientBalance(sourceBalance, sourceAmount);
 
 		Instant now = Instant.now();
 		String desc = description != null ? description : "FX conversion";
@@ -104,8 +140,14 @@ public class FxService {
 				now
 		);
 
-		Transaction savedDebit = transactionRepository.save(debit);
-		Transaction savedCredit = transactionRepository.save(credit);
+		sourceBalance.apply(debit);
+		targetBalance.apply(credit);
+		// Debit ve credit aynı saveAll ile yazılır (JDBC batch)
+		List<Transaction> legs = postingWriter.write(debit, credit);
+		Transaction savedDebit = legs.get(0);
+		Transaction savedCredit = legs.get(1);
+		balanceCalculator.recordPosting(savedDebit);
+		balanceCalculator.recordPosting(savedCredit);
 
 		return new FxConversionResult(savedDebit, savedCredit, rate, sourceAmount, targetAmount);
 	}
@@ -124,9 +166,8 @@ public class FxService {
 		}
 	}
 
-	private void ensureSufficientBalance(Wallet wallet, Money debitAmount) {
-		Money balance = balanceCalculator.calculateBalance(wallet.getId(), debitAmount.currency());
-		if (balance.amount().compareTo(debitAmount.amount()) < 0) {
+	private void ensureSufficientBalance(WalletBalance balance, Money debitAmount) {
+		if (balance.getBalance().amount().compareTo(debitAmount.amount()) < 0) {
 			throw new InsufficientBalanceException("Insufficient balance for FX conversion");
 		}
 	}
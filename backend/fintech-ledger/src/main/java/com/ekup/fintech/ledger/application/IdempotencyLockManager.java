@@ -0,0 +1,143 @@
+package com.ekup.fintech.ledger.application;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ekup.fintech.shared.exception.WalletLockTimeoutException;
+
+/**
+ * Serializes requests that share a client-supplied idempotency key for the lifetime of the
+ * surrounding transaction.
+ *
+ * Once idempotency_records is partitioned by created_at its unique key has to include created_at,
+ * so it no longer stops two requests with the same (operation, key) from both inserting. Postings
+ * therefore lock the key first and only then look it up and write the record; a concurrent request
+ * with the same key waits for the first one to commit and then replays its record.
+ *
+ * On PostgreSQL the lock is a transaction-scoped advisory lock on a 64-bit hash of operation and
+ * key: no table or index grows with the keys, nothing has to be cleaned up, and it holds across
+ * instances. A hash collision only makes two unrelated requests wait for each other. Other
+ * databases (H2 in tests) fall back to in-JVM lock stripes, which only serialize within one instance.
+ *
+ * Keys are locked in (operation, key) order and before any wallet lock. Requests without a client
+ * key get a fresh random key, cannot collide and are not locked.
+ */
+@Component
+public class IdempotencyLockManager {
+	private static final String ADVISORY_LOCK_SQL = "select pg_advisory_xact_lock(hashtextextended(?, 0))";
+	private static final int STRIPES = 1024;
+	private static final Comparator<Key> ORDER = Comparator
+			.comparing(Key::operation)
+			.thenComparing(Key::idempotencyKey);
+
+	public record Key(String operation, UUID idempotencyKey) {
+	}
+
+	private final JdbcTemplate jdbcTemplate;
+	private final long timeoutMillis;
+	private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+	private volatile Boolean advisoryLocks;
+
+	public IdempotencyLockManager(
+			JdbcTemplate jdbcTemplate,
+			@Value("${fintech.ledger.locking.timeout-ms:5000}") long timeoutMillis
+	) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.timeoutMillis = timeoutMillis;
+		for (int i = 0; i < STRIPES; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+	}
+
+	public void lock(String operation, UUID idempotencyKey) {
+		lockAll(List.of(new Key(operation, idempotencyKey)));
+	}
+
+	/**
+	 * Locks every key until the current transaction completes.
+	 * Must be called before the keys are looked up in idempotency_records.
+	 */
+	public void lockAll(Collection<Key> keys) {
+		List<Key> ordered = keys.stream().distinct().sorted(ORDER).toList();
+		if (ordered.isEmpty()) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+			throw new IllegalStateException("Idempotency keys can only be locked inside a transaction");
+		}
+		if (usesAdvisoryLocks()) {
+			for (Key key : ordered) {
+				jdbcTemplate.query(ADVISORY_LOCK_SQL, (ResultSetExtractor<Void>) rs -> null, key.operation() + ":" + key.idempotencyKey());
+			}
+		} else {
+			lockStripes(ordered);
+		}
+	}
+
+	private boolean usesAdvisoryLocks() {
+		Boolean advisory = advisoryLocks;
+		if (advisory == null) {
+			String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+			advisory = "PostgreSQL".equalsIgnoreCase(product);
+			advisoryLocks = advisory;
+		}
+		return advisory;
+	}
+
+	private void lockStripes(List<Key> ordered) {
+		HeldStripes held = currentHeldStripes();
+		int[] indexes = ordered.stream()
+				.mapToInt(key -> Math.floorMod(key.hashCode(), STRIPES))
+				.distinct()
+				.filter(index -> !held.indexes.contains(index))
+				.sorted()
+				.toArray();
+		for (int index : indexes) {
+			try {
+				if (!stripes[index].tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+					throw new WalletLockTimeoutException("Timed out waiting for idempotency key lock, please retry");
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new WalletLockTimeoutException("Interrupted while waiting for idempotency key lock");
+			}
+			held.indexes.add(index);
+		}
+	}
+
+	private HeldStripes currentHeldStripes() {
+		HeldStripes held = (HeldStripes) TransactionSynchronizationManager.getResource(this);
+		if (held == null) {
+			held = new HeldStripes();
+			TransactionSynchronizationManager.bindResource(this, held);
+			TransactionSynchronizationManager.registerSynchronization(held);
+		}
+		return held;
+	}
+
+	private final class HeldStripes implements TransactionSynchronization {
+		private final List<Integer> indexes = new ArrayList<>(1);
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(IdempotencyLockManager.this);
+			for (int i = indexes.size() - 1; i >= 0; i--) {
+				stripes[indexes.get(i)].unlock();
+			}
+			indexes.clear();
+		}
+	}
+}
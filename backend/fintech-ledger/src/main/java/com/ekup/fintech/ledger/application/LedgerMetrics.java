@@ -0,0 +1,154 @@
+package com.ekup.fintech.ledger.application;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.ekup.fintech.shared.exception.CurrencyMismatchException;
+import com.ekup.fintech.shared.exception.DomainException;
+import com.ekup.fintech.shared.exception.IdempotencyConflictException;
+import com.ekup.fintech.shared.exception.InsufficientBalanceException;
+import com.ekup.fintech.shared.exception.LedgerBusyException;
+import com.ekup.fintech.shared.exception.SameWalletTransferException;
+import com.ekup.fintech.shared.exception.WalletClosedException;
+import com.ekup.fintech.shared.exception.WalletLockTimeoutException;
+import com.ekup.fintech.shared.exception.WalletSuspendedException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters shared by the posting use cases.
+ *
+ * fintech.ledger.operation.duration: one timer per operation (deposit, withdrawal, transfer, fx)
+ * and outcome (success, rejected, error), with a percentile histogram for Prometheus.
+ * fintech.ledger.rejections: rejected operations per reason. fintech.ledger.idempotency.requests:
+ * how a request was answered (new, cache or store replay); the replay rate is the share of
+ * replays. Tag values are fixed sets, so the number of series stays bounded.
+ *
+ * Meters are registered once per tag combination on first use and kept here; a posting only
+ * records on them and does not go through the registry.
+ */
+@Component
+class LedgerMetrics {
+	static final String DEPOSIT = "deposit";
+	static final String WITHDRAWAL = "withdrawal";
+	static final String TRANSFER = "transfer";
+	static final String FX = "fx";
+
+	enum Replay {
+		NEW, CACHE, STORE
+	}
+
+	private final MeterRegistry meterRegistry;
+	private final Map<String, OperationMeters> operations = new ConcurrentHashMap<>();
+	private final Map<String, Counter[]> idempotencyRequests = new ConcurrentHashMap<>();
+
+	LedgerMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	<T> T time(String operation, Supplier<T> work) {
+		OperationMeters meters = operations.computeIfAbsent(operation, OperationMeters::new);
+		long start = System.nanoTime();
+		Timer timer = meters.error;
+		try {
+			T result = work.get();
+			timer = meters.success;
+			return result;
+		} catch (DomainException e) {
+			String reason = rejectionReason(e);
+			if (reason != null) {
+				timer = meters.rejected;
+				meters.rejection(reason).increment();
+			}
+			throw e;
+		} finally {
+			timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	void idempotency(String operation, Replay replay) {
+		idempotencyRequests.computeIfAbsent(operation, this::idempotencyCounters)[replay.ordinal()].increment();
+	}
+
+	private Counter[] idempotencyCounters(String operation) {
+		Replay[] replays = Replay.values();
+		Counter[] counters = new Counter[replays.length];
+		for (Replay replay : replays) {
+			counters[replay.ordinal()] = Counter.builder("fintech.ledger.idempotency.requests")
+					.tag("operation", operation.toLowerCase(Locale.ROOT))
+					.tag("result", replay.name().toLowerCase(Locale.ROOT))
+					.register(meterRegistry);
+		}
+		return counters;
+	}
+
+	/**
+	 * Reddedilen istek sayılan exception'lar: iş kuralı ihlalleri ile geçici kapasite redleri
+	 * (lock_timeout, busy). Geri kalanı (ör. not found) "error" olarak kalır
+	 */
+	static String rejectionReason(DomainException e) {
+		if (e instanceof InsufficientBalanceException) {
+			return "insufficient_balance";
+		}
+		if (e instanceof WalletSuspendedException) {
+			return "wallet_suspended";
+		}
+		if (e instanceof WalletClosedException) {
+			return "wallet_closed";
+		}
+		if (e instanceof CurrencyMismatchException) {
+			return "currency_mismatch";
+		}
+		if (e instanceof IdempotencyConflictException) {
+			return "idempotency_conflict";
+		}
+		if (e instanceof SameWalletTransferException) {
+			return "same_wallet";
+		}
+		if (e instanceof WalletLockTimeoutException) {
+			return "lock_timeout";
+		}
+		if (e instanceof LedgerBusyException) {
+			return "busy";
+		}
+		return null;
+	}
+
+	private final class OperationMeters {
+		private final String operation;
+		private final Timer success;
+		private final Timer rejected;
+		private final Timer error;
+		// Sebep başına sayaç ilk redde kaydedilir; hiç reddedilmeyen operasyon için seri oluşmaz
+		private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+		OperationMeters(String operation) {
+			this.operation = operation;
+			this.success = timer("success");
+			this.rejected = timer("rejected");
+			this.error = timer("error");
+		}
+
+		Counter rejection(String reason) {
+			return rejections.computeIfAbsent(reason, key -> Counter.builder("fintech.ledger.rejections")
+					.tag("operation", operation)
+					.tag("reason", key)
+					.register(meterRegistry));
+		}
+
+		private Timer timer(String outcome) {
+			return Timer.builder("fintech.ledger.operation.duration")
+					.tag("operation", operation)
+					.tag("outcome", outcome)
+					.publishPercentileHistogram()
+					.register(meterRegistry);
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package com.ekup.fintech.ledger.application;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -11,8 +12,9 @@ import com.ekup.fintech.ledger.domain.ReferenceType;
 import com.ekup.fintech.ledger.domain.Transaction;
 import com.ekup.fintech.ledger.domain.TransactionGroupType;
 import com.ekup.fintech.ledger.domain.Wallet;
+import com.ekup.fintech.ledger.domain.WalletBalance;
 import com.ekup.fintech.ledger.domain.WalletStatus;
-import com.ekup.fintech.ledger.infrastructure.persistence.TransactionJpaRepository;
+import com.ekup.fintech.ledger.infrastructure.persistence.PostingWriter;
 import com.ekup.fintech.ledger.infrastructure.persistence.WalletJpaRepository;
 import com.ekup.fintech.shared.domain.Money;
 import com.ekup.fintech.shared.exception.CurrencyMismatchException;
@@ -28,24 +30,32 @@ public class LedgerService {
 	}
 
 	private final WalletJpaRepository walletRepository;
-	private final TransactionJpaRepository transactionRepository;
+	private final PostingWriter postingWriter;
 	private final BalanceCalculator balanceCalculator;
+	private final WalletBalanceService walletBalanceService;
+	private final WalletLockManager walletLockManager;
 
 	public LedgerService(
 			WalletJpaRepository walletRepository,
-			TransactionJpaRepository transactionRepository,
-			BalanceCalculator balanceCalculator
+			PostingWriter postingWriter,
+			BalanceCalculator balanceCalculator,
+			WalletBalanceService walletBalanceService,
+			WalletLockManager walletLockManager
 	) {
 		this.walletRepository = walletRepository;
-		this.transactionRepository = transactionRepository;
+		this.postingWriter = postingWriter;
 		this.balanceCalculator = balanceCalculator;
+		this.walletBalanceService = walletBalanceService;
+		this.walletLockManager = walletLockManager;
 	}
 
 	@Transactional
 	public Transaction deposit(UUID walletId, Money amount, UUID depositId, String description) {
+		walletLockManager.lock(walletId);
 		Wallet wallet = getWalletRequired(walletId);
 		ensureWalletOperational(wallet);
 		requireWalletCurrency(wallet, amount);
+		WalletBalance balance = walletBalanceService.lockForPosting(wallet);
 
 		Transaction tx = Transaction.credit(
 				wallet.getId(),
@@ -56,20 +66,20 @@ public class LedgerService {
 				description,
 				Instant.now()
 		);
-		Transaction saved = transactionRepository.save(tx);
-		
-		// Snapshot kontrolü (async olarak yapılabilir)
-		balanceCalculator.checkAndCreateSnapshot(walletId);
-		
+		balance.apply(tx);
+		Transaction saved = postingWriter.write(tx);
+		balanceCalculator.recordPosting(saved);
 		return saved;
 	}
 
 	@Transactional
 	public Transaction withdraw(UUID walletId, Money amount, UUID withdrawalId, String description) {
+		walletLockManager.lock(walletId);
 		Wallet wallet = getWalletRequired(walletId);
 		ensureWalletOperational(wallet);
 		requireWalletCurrency(wallet, amount);
-		ensureSufficientBalance(wallet, amount);
+		WalletBalance balance = walletBalanceService.lockForPosting(wallet);
+		ensureSufficientBalance(balance, amount);
 
 		Transaction tx = Transaction.debit(
 				wallet.getId(),
@@ -80,11 +90,9 @@ public class LedgerService {
 				description,
 				Instant.now()
 		);
-		Transaction saved = transactionRepository.save(tx);
-		
-		// Snapshot kontrolü
-		balanceCalculator.checkAndCreateSnapshot(walletId);
-		
+		balance.apply(tx);
+		Transaction saved = postingWriter.write(tx);
+		balanceCalculator.recordPosting(saved);
 		return saved;
 	}
 
@@ -98,6 +106,8 @@ public class LedgerService {
 			throw new SameWalletTransferException("Cannot transfer to the same wallet");
 		}
 
+		// İki wallet da id sırasıyla kilitlenir, ters yönlü transferler deadlock'a girmez
+		walletLockManager.lock(sourceWalletId, targetWalletId);
 		Wallet source = getWalletRequired(sourceWalletId);
 		Wallet target = getWalletRequired(targetWalletId);
 
@@ -105,7 +115,18 @@ public class LedgerService {
 		ensureWalletOperational(target);
 		requireWalletCurrency(source, amount);
 		requireWalletCurrency(target, amount);
-		ensureSufficientBalance(source, amount);
+
+		// Bakiye satırları da aynı sırayla kilitlenir (locking.mode=none iken tek koruma budur)
+		WalletBalance sourceBalance;
+		WalletBalance targetBalance;
+		if (sourceWalletId.compareTo(targetWalletId) < 0) {
+			sourceBalance = walletBalanceService.lockForPosting(source);
+			targetBalance = walletBalanceService.lockForPosting(target);
+		} else {
+			targetBalance = walletBalanceService.lockForPosting(target);
+			sourceBalance = walletBalanceService.lockForPosting(source);
+		}
+		ensureSufficientBalance(sourceBalance, amount);
 
 		Transaction debit = Transaction.debit(
 				source.getId(),
@@ -126,13 +147,14 @@ public class LedgerService {
 				Instant.now()
 		);
 
-		Transaction savedDebit = transactionRepository.save(debit);
-		Transaction savedCredit = transactionRepository.save(credit);
-		
-		// Snapshot kontrolü (her iki wallet için)
-		balanceCalculator.checkAndCreateSnapshot(sourceWalletId);
-		balanceCalculator.checkAndCreateSnapshot(targetWalletId);
-		
+		sourceBalance.apply(debit);
+		targetBalance.apply(credit);
+		// İki bacak birlikte yazılır: flush'ta tek batch INSERT
+		List<Transaction> legs = postingWriter.write(debit, credit);
+		Transaction savedDebit = legs.get(0);
+		Transaction savedCredit = legs.get(1);
+		balanceCalculator.recordPosting(savedDebit);
+		balanceCalculator.recordPosting(savedCredit);
 		return new TransferResult(savedDebit, savedCredit);
 	}
 
@@ -156,9 +178,8 @@ public class LedgerService {
 		}
 	}
 
-	private void ensureSufficientBalance(Wallet wallet, Money debitAmount) {
-		Money balance = balanceCalculator.calculateBalance(wallet.getId(), debitAmount.currency());
-		if (balance.amount().compareTo(debitAmount.amount()) < 0) {
+	private void ensureSufficientBalance(WalletBalance balance, Money debitAmount) {
+		if (balance.getBalance().amount().compareTo(debitAmount.amount()) < 0) {
 			throw new InsufficientBalanceException("Insufficient balance");
 		}
 	}
@@ -4,13 +4,13 @@ import java.time.Instant;
 import java.util.Objects;
 import java.util.UUID;
 
-import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.ekup.fintech.ledger.domain.Transaction;
+import com.ekup.fintech.ledger.infrastructure.cache.IdempotencyCache;
 import com.ekup.fintech.ledger.infrastructure.persistence.IdempotencyRecord;
 import com.ekup.fintech.ledger.infrastructure.persistence.IdempotencyRecordJpaRepository;
+import com.ekup.fintech.ledger.infrastructure.persistence.IdempotencyRetention;
 import com.ekup.fintech.ledger.infrastructure.persistence.TransactionJpaRepository;
 import com.ekup.fintech.shared.domain.Currency;
 import com.ekup.fintech.shared.domain.Money;
@@ -26,38 +26,117 @@ public class LedgerUseCaseService {
 	public record TransferTransactionsResult(UUID requestId, Transaction sourceTransaction, Transaction targetTransaction, Instant processedAt) {
 	}
 
-	private static final String OP_DEPOSIT = "DEPOSIT";
-	private static final String OP_WITHDRAWAL = "WITHDRAWAL";
+	/**
+	 * A posting command's result and how it was answered; the replay metric is recorded by the
+	 * caller once the command has returned, so retried batches and rejected postings are not counted.
+	 */
+	private record Outcome<T>(T result, LedgerMetrics.Replay replay) {
+	}
+
+	static final String OP_DEPOSIT = "DEPOSIT";
+	static final String OP_WITHDRAWAL = "WITHDRAWAL";
 	private static final String OP_TRANSFER = "TRANSFER";
 
 	private final LedgerService ledgerService;
 	private final TransactionJpaRepository transactionRepository;
 	private final IdempotencyRecordJpaRepository idempotencyRepository;
+	private final IdempotencyLockManager idempotencyLocks;
+	private final PostingEngine postingEngine;
+	private final IdempotencyCache idempotencyCache;
+	private final IdempotencyRetention retention;
+	private final LedgerMetrics metrics;
 
 	public LedgerUseCaseService(
 			LedgerService ledgerService,
 			TransactionJpaRepository transactionRepository,
-			IdempotencyRecordJpaRepository idempotencyRepository
+			IdempotencyRecordJpaRepository idempotencyRepository,
+			IdempotencyLockManager idempotencyLocks,
+			PostingEngine postingEngine,
+			IdempotencyCache idempotencyCache,
+			IdempotencyRetention retention,
+			LedgerMetrics metrics
 	) {
 		this.ledgerService = ledgerService;
 		this.transactionRepository = transactionRepository;
 		this.idempotencyRepository = idempotencyRepository;
+		this.idempotencyLocks = idempotencyLocks;
+		this.postingEngine = postingEngine;
+		this.idempotencyCache = idempotencyCache;
+		this.retention = retention;
+		this.metrics = metrics;
 	}
 
-	@Transactional
+	/**
+	 * Retry'lar önce local cache'ten cevaplanır (transaction açılmaz). Miss olursa idempotency
+	 * kontrolü ve posting aynı transaction'da, wallet'ın sahibi olan shard üzerinde çalışır;
+	 * kontrol, key'in kilidi alındıktan sonra yapılır.
+	 */
 	public SingleTransactionResult deposit(UUID walletId, Money amount, UUID idempotencyKey, String description) {
+		return metrics.time(LedgerMetrics.DEPOSIT, () -> depositTimed(walletId, amount, idempotencyKey, description));
+	}
+
+	private SingleTransactionResult depositTimed(UUID walletId, Money amount, UUID idempotencyKey, String description) {
 		UUID key = keyOrNew(idempotencyKey);
 		String fingerprint = fingerprintSingle(walletId, amount.amount(), amount.currency());
+		SingleTransactionResult replay = replayFromCache(OP_DEPOSIT, key, fingerprint, SingleTransactionResult.class);
+		if (replay != null) {
+			return replay;
+		}
+		return recorded(OP_DEPOSIT, postingEngine.execute(walletId, () -> doDeposit(walletId, amount, key, idempotencyKey != null, fingerprint, description)));
+	}
+
+	public SingleTransactionResult withdraw(UUID walletId, Money amount, UUID idempotencyKey, String description) {
+		return metrics.time(LedgerMetrics.WITHDRAWAL, () -> withdrawTimed(walletId, amount, idempotencyKey, description));
+	}
+
+	private SingleTransactionResult withdrawTimed(UUID walletId, Money amount, UUID idempotencyKey, String description) {
+		UUID key = keyOrNew(idempotencyKey);
+		String fingerprint = fingerprintSingle(walletId, amount.amount(), amount.currency());
+		SingleTransactionResult replay = replayFromCache(OP_WITHDRAWAL, key, fingerprint, SingleTransactionResult.class);
+		if (replay != null) {
+			return replay;
+		}
+		return recorded(OP_WITHDRAWAL, postingEngine.execute(walletId, () -> doWithdraw(walletId, amount, key, idempotencyKey != null, fingerprint, description)));
+	}
+
+	public TransferTransactionsResult transfer(
+			UUID sourceWalletId,
+			UUID targetWalletId,
+			Money amount,
+			UUID idempotencyKey,
+			String description
+	) {
+		return metrics.time(LedgerMetrics.TRANSFER,
+				() -> transferTimed(sourceWalletId, targetWalletId, amount, idempotencyKey, description));
+	}
+
+	private TransferTransactionsResult transferTimed(
+			UUID sourceWalletId,
+			UUID targetWalletId,
+			Money amount,
+			UUID idempotencyKey,
+			String description
+	) {
+		UUID key = keyOrNew(idempotencyKey);
+		String fingerprint = fingerprintTransfer(sourceWalletId, targetWalletId, amount.amount(), amount.currency(), description);
+		TransferTransactionsResult replay = replayFromCache(OP_TRANSFER, key, fingerprint, TransferTransactionsResult.class);
+		if (replay != null) {
+			return replay;
+		}
+		return recorded(OP_TRANSFER, postingEngine.execute(sourceWalletId, targetWalletId,
+				() -> doTransfer(sourceWalletId, targetWalletId, amount, key, idempotencyKey != null, fingerprint, description)));
+	}
 
-		IdempotencyRecord cached = idempotencyRepository.findByOperationAndIdempotencyKey(OP_DEPOSIT, key).orElse(null);
+	private Outcome<SingleTransactionResult> doDeposit(UUID walletId, Money amount, UUID key, boolean clientKey, String fingerprint, String description) {
+		IdempotencyRecord cached = findRecord(OP_DEPOSIT, key, clientKey);
 		if (cached != null) {
 			ensureSameRequest(OP_DEPOSIT, key, cached.getRequestFingerprint(), fingerprint);
 			Transaction tx = getTransactionRequired(cached.getTransactionId());
-			return new SingleTransactionResult(key, tx, cached.getCreatedAt());
+			return stored(OP_DEPOSIT, key, fingerprint, new SingleTransactionResult(key, tx, cached.getCreatedAt()));
 		}
 
 		Transaction created = ledgerService.deposit(walletId, amount, key, description);
-		trySaveIdempotency(new IdempotencyRecord(
+		idempotencyRepository.save(new IdempotencyRecord(
 				IdGenerator.newId(),
 				OP_DEPOSIT,
 				key,
@@ -66,23 +145,19 @@ public class LedgerUseCaseService {
 				created.getId(),
 				null
 		));
-		return new SingleTransactionResult(key, created, Instant.now());
+		return posted(OP_DEPOSIT, key, fingerprint, new SingleTransactionResult(key, created, Instant.now()));
 	}
 
-	@Transactional
-	public SingleTransactionResult withdraw(UUID walletId, Money amount, UUID idempotencyKey, String description) {
-		UUID key = keyOrNew(idempotencyKey);
-		String fingerprint = fingerprintSingle(walletId, amount.amount(), amount.currency());
-
-		IdempotencyRecord cached = idempotencyRepository.findByOperationAndIdempotencyKey(OP_WITHDRAWAL, key).orElse(null);
+	private Outcome<SingleTransactionResult> doWithdraw(UUID walletId, Money amount, UUID key, boolean clientKey, String fingerprint, String description) {
+		IdempotencyRecord cached = findRecord(OP_WITHDRAWAL, key, clientKey);
 		if (cached != null) {
 			ensureSameRequest(OP_WITHDRAWAL, key, cached.getRequestFingerprint(), fingerprint);
 			Transaction tx = getTransactionRequired(cached.getTransactionId());
-			return new SingleTransactionResult(key, tx, cached.getCreatedAt());
+			return stored(OP_WITHDRAWAL, key, fingerprint, new SingleTransactionResult(key, tx, cached.getCreatedAt()));
 		}
 
 		Transaction created = ledgerService.withdraw(walletId, amount, key, description);
-		trySaveIdempotency(new IdempotencyRecord(
+		idempotencyRepository.save(new IdempotencyRecord(
 				IdGenerator.newId(),
 				OP_WITHDRAWAL,
 				key,
@@ -91,30 +166,28 @@ public class LedgerUseCaseService {
 				created.getId(),
 				null
 		));
-		return new SingleTransactionResult(key, created, Instant.now());
+		return posted(OP_WITHDRAWAL, key, fingerprint, new SingleTransactionResult(key, created, Instant.now()));
 	}
 
-	@Transactional
-	public TransferTransactionsResult transfer(
+	private Outcome<TransferTransactionsResult> doTransfer(
 			UUID sourceWalletId,
 			UUID targetWalletId,
 			Money amount,
-			UUID idempotencyKey,
+			UUID key,
+			boolean clientKey,
+			String fingerprint,
 			String description
 	) {
-		UUID key = keyOrNew(idempotencyKey);
-		String fingerprint = fingerprintTransfer(sourceWalletId, targetWalletId, amount.amount(), amount.currency(), description);
-
-		IdempotencyRecord cached = idempotencyRepository.findByOperationAndIdempotencyKey(OP_TRANSFER, key).orElse(null);
+		IdempotencyRecord cached = findRecord(OP_TRANSFER, key, clientKey);
 		if (cached != null) {
 			ensureSameRequest(OP_TRANSFER, key, cached.getRequestFingerprint(), fingerprint);
 			Transaction sourceTx = getTransactionRequired(cached.getTransactionId());
 			Transaction targetTx = getTransactionRequired(cached.getTransactionId2());
-			return new TransferTransactionsResult(key, sourceTx, targetTx, cached.getCreatedAt());
+			return stored(OP_TRANSFER, key, fingerprint, new TransferTransactionsResult(key, sourceTx, targetTx, cached.getCreatedAt()));
 		}
 
 		LedgerService.TransferResult result = ledgerService.transfer(sourceWalletId, targetWalletId, amount, key, description);
-		trySaveIdempotency(new IdempotencyRecord(
+		idempotencyRepository.save(new IdempotencyRecord(
 				IdGenerator.newId(),
 				OP_TRANSFER,
 				key,
@@ -124,7 +197,47 @@ public class LedgerUseCaseService {
 				result.targetTransaction().getId()
 		));
 
-		return new TransferTransactionsResult(key, result.sourceTransaction(), result.targetTransaction(), Instant.now());
+		return posted(OP_TRANSFER, key, fingerprint,
+				new TransferTransactionsResult(key, result.sourceTransaction(), result.targetTransaction(), Instant.now()));
+	}
+
+	private <T> T replayFromCache(String operation, UUID key, String fingerprint, Class<T> resultType) {
+		IdempotencyCache.Hit hit = idempotencyCache.get(operation, key);
+		if (hit == null || !resultType.isInstance(hit.response())) {
+			return null;
+		}
+		ensureSameRequest(operation, key, hit.fingerprint(), fingerprint);
+		metrics.idempotency(operation, LedgerMetrics.Replay.CACHE);
+		return resultType.cast(hit.response());
+	}
+
+	private <T> Outcome<T> posted(String operation, UUID key, String fingerprint, T result) {
+		idempotencyCache.putAfterCommit(operation, key, fingerprint, result);
+		return new Outcome<>(result, LedgerMetrics.Replay.NEW);
+	}
+
+	private <T> Outcome<T> stored(String operation, UUID key, String fingerprint, T result) {
+		idempotencyCache.putAfterCommit(operation, key, fingerprint, result);
+		return new Outcome<>(result, LedgerMetrics.Replay.STORE);
+	}
+
+	private <T> T recorded(String operation, Outcome<T> outcome) {
+		metrics.idempotency(operation, outcome.replay());
+		return outcome.result();
+	}
+
+	/**
+	 * Locks the key first so a concurrent request with the same key cannot pass the lookup before
+	 * this one has written its record. A generated key is new by construction and is neither locked
+	 * nor looked up.
+	 */
+	private IdempotencyRecord findRecord(String operation, UUID key, boolean clientKey) {
+		if (!clientKey) {
+			return null;
+		}
+		idempotencyLocks.lock(operation, key);
+		return idempotencyRepository.findByOperationAndIdempotencyKeyAndCreatedAtAfter(operation, key, retention.cutoff())
+				.orElse(null);
 	}
 
 	private Transaction getTransactionRequired(UUID id) {
@@ -143,21 +256,11 @@ public class LedgerUseCaseService {
 		}
 	}
 
-	private void trySaveIdempotency(IdempotencyRecord record) {
-		try {
-			idempotencyRepository.save(record);
-		} catch (DataIntegrityViolationException e) {
-			// Another request with same (operation,key) won the race. OK: we will serve cached next time.
-			idempotencyRepository.findByOperationAndIdempotencyKey(record.getOperation(), record.getIdempotencyKey())
-					.ifPresent(existing -> ensureSameRequest(record.getOperation(), record.getIdempotencyKey(), existing.getRequestFingerprint(), record.getRequestFingerprint()));
-		}
-	}
-
 	private static UUID keyOrNew(UUID idempotencyKey) {
 		return idempotencyKey != null ? idempotencyKey : IdGenerator.newId();
 	}
 
-	private static String fingerprintSingle(UUID walletId, java.math.BigDecimal amount, Currency currency) {
+	static String fingerprintSingle(UUID walletId, java.math.BigDecimal amount, Currency currency) {
 		return "walletId=" + walletId + "|amount=" + amount + "|currency=" + currency;
 	}
 
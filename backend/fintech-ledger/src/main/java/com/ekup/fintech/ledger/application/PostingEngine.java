@@ -0,0 +1,371 @@
+package com.ekup.fintech.ledger.application;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ekup.fintech.shared.exception.LedgerBusyException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs posting commands either inline ({@code direct}) or on single-writer shards ({@code sharded}).
+ *
+ * In sharded mode every wallet is owned by exactly one shard thread, chosen by a hash of the
+ * wallet id. A shard drains its queue and writes consecutive commands in one transaction
+ * (micro-batch); if any command in the batch fails, the batch is rolled back and every command
+ * is replayed in its own transaction so one bad request cannot fail its neighbours.
+ *
+ * A command touching wallets on several shards (a transfer, a bulk posting) uses a hand-off: the
+ * lowest shard runs it while the other shards are parked at a barrier, so all of its postings
+ * commit atomically. A parked shard has committed its pending batch and holds no row locks, so
+ * the command never waits on a batch of another shard. Cross-shard commands are enqueued under a
+ * single lock, which gives every queue the same relative order of barriers and rules out
+ * deadlocks between shards. Nothing waits for queue space under that lock: if any shard is full
+ * the hand-off is rejected with {@link LedgerBusyException} straight away, so one saturated shard
+ * cannot stall hand-offs between the others.
+ *
+ * Balance checks read the wallet_balances row locked in the batch transaction, so the database
+ * stays the source of truth; {@code WalletBalanceCache} only serves balance reads.
+ */
+@Component
+public class PostingEngine implements DisposableBean {
+	private static final Logger log = LoggerFactory.getLogger(PostingEngine.class);
+	private static final ThreadLocal<Shard> CURRENT_SHARD = new ThreadLocal<>();
+
+	public enum Mode {
+		DIRECT, SHARDED
+	}
+
+	private final Mode mode;
+	private final TransactionTemplate transactionTemplate;
+	private final Shard[] shards;
+	private final int batchSize;
+	private final long submitTimeoutMillis;
+	private final long handoffTimeoutMillis;
+	// ReentrantLock, not a monitor: contended callers park on it and must not pin a virtual thread
+	private final ReentrantLock handoffOrder = new ReentrantLock();
+	private final DistributionSummary batchSizes;
+	private final Counter batchFallbacks;
+	private final Counter handoffs;
+	private final Counter rejected;
+
+	public PostingEngine(
+			PlatformTransactionManager transactionManager,
+			MeterRegistry meterRegistry,
+			@Value("${fintech.ledger.engine.mode:direct}") String mode,
+			@Value("${fintech.ledger.engine.shards:0}") int shardCount,
+			@Value("${fintech.ledger.engine.queue-capacity:10000}") int queueCapacity,
+			@Value("${fintech.ledger.engine.batch-size:64}") int batchSize,
+			@Value("${fintech.ledger.engine.submit-timeout-ms:1000}") long submitTimeoutMillis,
+			@Value("${fintech.ledger.engine.handoff-timeout-ms:5000}") long handoffTimeoutMillis
+	) {
+		this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.batchSize = Math.max(1, batchSize);
+		this.submitTimeoutMillis = submitTimeoutMillis;
+		this.handoffTimeoutMillis = handoffTimeoutMillis;
+		this.batchSizes = DistributionSummary.builder("fintech.ledger.engine.batch.size").register(meterRegistry);
+		this.batchFallbacks = Counter.builder("fintech.ledger.engine.batch.fallbacks")
+				.description("Batches rolled back and replayed command by command")
+				.register(meterRegistry);
+		this.handoffs = Counter.builder("fintech.ledger.engine.handoffs").register(meterRegistry);
+		this.rejected = Counter.builder("fintech.ledger.engine.rejected").register(meterRegistry);
+
+		if (this.mode == Mode.SHARDED) {
+			int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+			this.shards = new Shard[count];
+			for (int i = 0; i < count; i++) {
+				Shard shard = new Shard(i, queueCapacity);
+				shards[i] = shard;
+				Gauge.builder("fintech.ledger.engine.queue.depth", shard.queue, BlockingQueue::size)
+						.tag("shard", String.valueOf(i))
+						.register(meterRegistry);
+				shard.thread.start();
+			}
+			log.info("Sharded posting engine started with {} shards (batch size {})", count, this.batchSize);
+		} else {
+			this.shards = new Shard[0];
+		}
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * True on a shard thread. Wallets are already owned exclusively there, so per-wallet JVM locks are redundant.
+	 */
+	public static boolean isShardThread() {
+		return CURRENT_SHARD.get() != null;
+	}
+
+	/**
+	 * Runs a posting command that only touches {@code walletId}.
+	 */
+	public <T> T execute(UUID walletId, Supplier<T> command) {
+		return execute(walletId, walletId, command);
+	}
+
+	/**
+	 * Runs a posting command that touches both wallets atomically.
+	 */
+	public <T> T execute(UUID firstWalletId, UUID secondWalletId, Supplier<T> command) {
+		return execute(List.of(firstWalletId, secondWalletId), command);
+	}
+
+	/**
+	 * Runs a posting command that touches all given wallets atomically (bulk postings).
+	 */
+	public <T> T execute(Collection<UUID> walletIds, Supplier<T> command) {
+		// Zaten bir transaction içindeysek (ya da shard thread'indeysek) başka thread'e devretmek atomikliği bozar
+		if (mode == Mode.DIRECT || isShardThread() || TransactionSynchronizationManager.isActualTransactionActive()) {
+			return transactionTemplate.execute(status -> command.get());
+		}
+
+		List<Shard> owners = walletIds.stream()
+				.map(this::shardFor)
+				.distinct()
+				.sorted(Comparator.comparingInt(shard -> shard.index))
+				.toList();
+		CompletableFuture<T> result = new CompletableFuture<>();
+		if (owners.size() == 1) {
+			enqueue(owners.get(0), new Posting<>(command, result));
+		} else {
+			submitHandoff(owners.get(0), owners.subList(1, owners.size()), command, result);
+		}
+		return await(result);
+	}
+
+	private <T> void submitHandoff(Shard primary, List<Shard> secondaries, Supplier<T> command, CompletableFuture<T> result) {
+		Barrier barrier = new Barrier(secondaries.size());
+		Shard saturated = null;
+		handoffOrder.lock();
+		try {
+			// Kilit altında kuyruk beklenmez; dolu shard varsa hand-off hemen reddedilir
+			for (Shard secondary : secondaries) {
+				if (!secondary.queue.offer(barrier)) {
+					saturated = secondary;
+					break;
+				}
+			}
+			if (saturated == null && !primary.queue.offer(new HandoffPosting<>(command, result, barrier))) {
+				saturated = primary;
+			}
+		} finally {
+			handoffOrder.unlock();
+		}
+		if (saturated != null) {
+			// Kuyruğa girmiş barrier'lar varsa secondary shard'lar onları beklemeden geçer
+			barrier.release();
+			throw saturated(saturated);
+		}
+		handoffs.increment();
+	}
+
+	private void enqueue(Shard shard, Task task) {
+		try {
+			if (!shard.queue.offer(task, submitTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				throw saturated(shard);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new LedgerBusyException("Interrupted while submitting posting");
+		}
+	}
+
+	private LedgerBusyException saturated(Shard shard) {
+		rejected.increment();
+		return new LedgerBusyException("Ledger shard " + shard.index + " is saturated, please retry");
+	}
+
+	private static <T> T await(CompletableFuture<T> result) {
+		try {
+			return result.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+	}
+
+	private Shard shardFor(UUID walletId) {
+		return shards[Math.floorMod(walletId.hashCode(), shards.length)];
+	}
+
+	@Override
+	public void destroy() {
+		for (Shard shard : shards) {
+			shard.thread.interrupt();
+		}
+	}
+
+	private sealed interface Task permits Posting, HandoffPosting, Barrier {
+	}
+
+	private record Posting<T>(Supplier<T> command, CompletableFuture<T> result) implements Task {
+	}
+
+	private record HandoffPosting<T>(Supplier<T> command, CompletableFuture<T> result, Barrier barrier) implements Task {
+	}
+
+	/**
+	 * Parks the secondary shards until the primary shard has committed the cross-shard command.
+	 * The same barrier is queued on every secondary shard; each counts {@code parked} down once.
+	 */
+	private static final class Barrier implements Task {
+		private final CountDownLatch parked;
+		private final CountDownLatch released = new CountDownLatch(1);
+
+		Barrier(int secondaries) {
+			this.parked = new CountDownLatch(secondaries);
+		}
+
+		void release() {
+			released.countDown();
+		}
+	}
+
+	private final class Shard implements Runnable {
+		private final int index;
+		private final BlockingQueue<Task> queue;
+		private final Thread thread;
+
+		Shard(int index, int capacity) {
+			this.index = index;
+			this.queue = new ArrayBlockingQueue<>(capacity);
+			this.thread = Thread.ofPlatform().name("ledger-shard-" + index).daemon(true).unstarted(this);
+		}
+
+		@Override
+		public void run() {
+			CURRENT_SHARD.set(this);
+			List<Task> drained = new ArrayList<>(batchSize);
+			try {
+				while (!Thread.currentThread().isInterrupted()) {
+					drained.add(queue.take());
+					queue.drainTo(drained, batchSize - 1);
+					process(drained);
+					drained.clear();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				drained.addAll(queue);
+				drained.forEach(this::abandon);
+				CURRENT_SHARD.remove();
+			}
+		}
+
+		private void process(List<Task> tasks) throws InterruptedException {
+			List<Posting<?>> batch = new ArrayList<>(tasks.size());
+			for (Task task : tasks) {
+				if (task instanceof Posting<?> posting) {
+					batch.add(posting);
+					continue;
+				}
+				// Barrier'dan önce bekleyen batch commit edilir; park eden shard açık transaction tutmaz
+				flush(batch);
+				batch.clear();
+				if (task instanceof Barrier barrier) {
+					barrier.parked.countDown();
+					barrier.released.await();
+				} else if (task instanceof HandoffPosting<?> handoff) {
+					runHandoff(handoff);
+				}
+			}
+			flush(batch);
+		}
+
+		private void flush(List<Posting<?>> batch) {
+			if (batch.isEmpty()) {
+				return;
+			}
+			batchSizes.record(batch.size());
+			if (batch.size() == 1) {
+				runAlone(batch.get(0));
+				return;
+			}
+			List<Object> results = new ArrayList<>(batch.size());
+			try {
+				transactionTemplate.executeWithoutResult(status -> {
+					for (Posting<?> posting : batch) {
+						results.add(posting.command().get());
+					}
+				});
+			} catch (RuntimeException e) {
+				// Batch geri alındı: komutları tek tek tekrar çalıştır, sadece hatalı olan başarısız olsun
+				batchFallbacks.increment();
+				log.debug("Posting batch of {} on shard {} rolled back, replaying individually: {}", batch.size(), index, e.getMessage());
+				batch.forEach(this::runAlone);
+				return;
+			}
+			for (int i = 0; i < batch.size(); i++) {
+				complete(batch.get(i), results.get(i));
+			}
+		}
+
+		private <T> void runAlone(Posting<T> posting) {
+			try {
+				posting.result().complete(transactionTemplate.execute(status -> posting.command().get()));
+			} catch (RuntimeException e) {
+				posting.result().completeExceptionally(e);
+			}
+		}
+
+		private <T> void runHandoff(HandoffPosting<T> handoff) throws InterruptedException {
+			try {
+				if (!handoff.barrier().parked.await(handoffTimeoutMillis, TimeUnit.MILLISECONDS)) {
+					handoff.result().completeExceptionally(new LedgerBusyException("Timed out waiting for cross-shard hand-off"));
+					return;
+				}
+				handoff.result().complete(transactionTemplate.execute(status -> handoff.command().get()));
+			} catch (RuntimeException e) {
+				handoff.result().completeExceptionally(e);
+			} finally {
+				handoff.barrier().release();
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private <T> void complete(Posting<T> posting, Object result) {
+			posting.result().complete((T) result);
+		}
+
+		private void abandon(Task task) {
+			LedgerBusyException shutdown = new LedgerBusyException("Ledger shard " + index + " is shutting down");
+			if (task instanceof Posting<?> posting) {
+				posting.result().completeExceptionally(shutdown);
+			} else if (task instanceof HandoffPosting<?> handoff) {
+				handoff.result().completeExceptionally(shutdown);
+				handoff.barrier().release();
+			} else if (task instanceof Barrier barrier) {
+				barrier.parked.countDown();
+			}
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.ekup.fintech.ledger.application;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ekup.fintech.ledger.domain.ReferenceType;
+import com.ekup.fintech.ledger.domain.Transaction;
+import com.ekup.fintech.ledger.domain.TransactionDirection;
+import com.ekup.fintech.ledger.domain.TransactionGroupType;
+import com.ekup.fintech.ledger.infrastructure.persistence.TransactionJpaRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Feeds a wallet's filtered history, oldest first, to a sink one posting at a time.
+ *
+ * Rows come from a forward-only JDBC cursor (fetch size 500) and are detached once handed over,
+ * so memory stays flat regardless of history length. If the sink throws (e.g. the client went
+ * away), the cursor is closed and the read-only transaction ends right there.
+ */
+@Service
+public class TransactionExportService {
+	private final TransactionJpaRepository transactionRepository;
+	private final EntityManager entityManager;
+
+	public TransactionExportService(TransactionJpaRepository transactionRepository, EntityManager entityManager) {
+		this.transactionRepository = transactionRepository;
+		this.entityManager = entityManager;
+	}
+
+	@Transactional(readOnly = true)
+	public long export(
+			UUID walletId,
+			TransactionDirection direction,
+			TransactionGroupType groupType,
+			ReferenceType referenceType,
+			Instant from,
+			Instant to,
+			Consumer<Transaction> sink
+	) {
+		long rows = 0;
+		try (Stream<Transaction> postings = transactionRepository.streamByWalletId(walletId, direction, groupType, referenceType,
+				from != null ? from : TransactionJpaRepository.OCCURRED_MIN,
+				to != null ? to : TransactionJpaRepository.OCCURRED_MAX)) {
+			for (Transaction posting : (Iterable<Transaction>) postings::iterator) {
+				sink.accept(posting);
+				// Persistence context büyümesin: yazılan satır unutulur
+				entityManager.detach(posting);
+				rows++;
+			}
+		}
+		return rows;
+	}
+}
@@ -0,0 +1,106 @@
+package com.ekup.fintech.ledger.application;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ekup.fintech.ledger.domain.Wallet;
+import com.ekup.fintech.ledger.domain.WalletBalance;
+import com.ekup.fintech.ledger.infrastructure.persistence.TransactionJpaRepository;
+import com.ekup.fintech.ledger.infrastructure.persistence.WalletBalanceJpaRepository;
+import com.ekup.fintech.shared.domain.Currency;
+import com.ekup.fintech.shared.domain.Money;
+import com.ekup.fintech.shared.exception.ResourceNotFoundException;
+
+/**
+ * Maintains the materialized wallet_balances rows.
+ *
+ * Postings lock the row (SELECT ... FOR UPDATE), validate against it and apply the new
+ * transaction before commit. Reads are a single primary-key lookup; SUM over transactions
+ * is only used to backfill legacy wallets and to reconcile.
+ */
+@Service
+public class WalletBalanceService {
+	private static final Logger log = LoggerFactory.getLogger(WalletBalanceService.class);
+
+	public record ReconciliationResult(
+			UUID walletId,
+			Money materializedBalance,
+			Money ledgerBalance,
+			long lastSequence,
+			boolean consistent
+	) {
+	}
+
+	private final WalletBalanceJpaRepository walletBalanceRepository;
+	private final TransactionJpaRepository transactionRepository;
+
+	public WalletBalanceService(
+			WalletBalanceJpaRepository walletBalanceRepository,
+			TransactionJpaRepository transactionRepository
+	) {
+		this.walletBalanceRepository = walletBalanceRepository;
+		this.transactionRepository = transactionRepository;
+	}
+
+	@Transactional
+	public WalletBalance open(Wallet wallet) {
+		return walletBalanceRepository.save(WalletBalance.open(wallet.getId(), wallet.getBaseCurrency()));
+	}
+
+	/**
+	 * Locks the wallet's balance row for the rest of the current transaction.
+	 * Wallets created before wallet_balances existed are backfilled from the ledger.
+	 */
+	@Transactional
+	public WalletBalance lockForPosting(Wallet wallet) {
+		return walletBalanceRepository.findForUpdate(wallet.getId())
+				.orElseGet(() -> backfill(wallet));
+	}
+
+	@Transactional(readOnly = true)
+	public Optional<Money> findBalance(UUID walletId, Currency currency) {
+		return walletBalanceRepository.findById(walletId)
+				.map(balance -> balance.getCurrency() == currency ? balance.getBalance() : Money.zero(currency));
+	}
+
+	/**
+	 * Compares the materialized balance with SUM(transactions).
+	 */
+	@Transactional(readOnly = true)
+	public ReconciliationResult reconcile(UUID walletId) {
+		WalletBalance balance = walletBalanceRepository.findById(walletId)
+				.orElseThrow(() -> new ResourceNotFoundException("Wallet balance not found: " + walletId));
+		BigDecimal sum = transactionRepository.sumSignedAmount(walletId, balance.getCurrency());
+		Money ledgerBalance = Money.of(sum, balance.getCurrency());
+		boolean consistent = ledgerBalance.equals(balance.getBalance());
+		if (!consistent) {
+			log.warn("Wallet balance drift for wallet {}: materialized={}, ledger={}",
+					walletId, balance.getBalance(), ledgerBalance);
+		}
+		return new ReconciliationResult(walletId, balance.getBalance(), ledgerBalance, balance.getLastSequence(), consistent);
+	}
+
+	private WalletBalance backfill(Wallet wallet) {
+		BigDecimal sum = transactionRepository.sumSignedAmount(wallet.getId(), wallet.getBaseCurrency());
+		long postedCount = transactionRepository.countByWalletId(wallet.getId());
+		log.info("Backfilling wallet balance for wallet {} from {} transactions", wallet.getId(), postedCount);
+		WalletBalance seed = WalletBalance.backfill(wallet.getId(), Money.of(sum, wallet.getBaseCurrency()), postedCount);
+		// Without a wallet lock two first postings can race here; the loser's insert is a no-op
+		// (it waits for the winner's commit) and both continue on the same locked row.
+		walletBalanceRepository.insertIfAbsent(
+				seed.getWalletId(),
+				seed.getBalance().amount(),
+				seed.getCurrency().name(),
+				seed.getLastSequence(),
+				seed.getUpdatedAt()
+		);
+		return walletBalanceRepository.findForUpdate(wallet.getId())
+				.orElseThrow(() -> new IllegalStateException("Wallet balance not seeded: " + wallet.getId()));
+	}
+}
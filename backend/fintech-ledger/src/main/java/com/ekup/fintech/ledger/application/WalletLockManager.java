@@ -0,0 +1,192 @@
+package com.ekup.fintech.ledger.application;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ekup.fintech.ledger.infrastructure.persistence.WalletJpaRepository;
+import com.ekup.fintech.shared.exception.WalletLockTimeoutException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Serializes postings per wallet for the lifetime of the surrounding transaction.
+ *
+ * Locks are always acquired in ascending wallet id order, so a transfer A→B and a
+ * transfer B→A can never deadlock. Two modes are supported:
+ * <ul>
+ *   <li>{@code striped}: in-JVM {@link ReentrantLock} stripes, released after commit/rollback.
+ *   Cheap, but only serializes postings within one instance.</li>
+ *   <li>{@code database}: {@code SELECT ... FOR UPDATE} on the wallet rows. Works across instances.</li>
+ * </ul>
+ * {@code none} disables this layer; the wallet_balances row lock still guards against overdrafts.
+ */
+@Component
+public class WalletLockManager {
+	public enum Mode {
+		STRIPED, DATABASE, NONE
+	}
+
+	private final WalletJpaRepository walletRepository;
+	private final Mode mode;
+	private final ReentrantLock[] stripes;
+	private final long timeoutMillis;
+	private final Counter acquisitions;
+	private final Counter contended;
+	private final Counter timeouts;
+	private final Timer waitTimer;
+
+	public WalletLockManager(
+			WalletJpaRepository walletRepository,
+			MeterRegistry meterRegistry,
+			@Value("${fintech.ledger.locking.mode:striped}") String mode,
+			@Value("${fintech.ledger.locking.stripes:1024}") int stripeCount,
+			@Value("${fintech.ledger.locking.timeout-ms:5000}") long timeoutMillis
+	) {
+		if (stripeCount <= 0) {
+			throw new IllegalArgumentException("fintech.ledger.locking.stripes must be positive");
+		}
+		this.walletRepository = walletRepository;
+		this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+		this.timeoutMillis = timeoutMillis;
+		this.stripes = new ReentrantLock[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+
+		String modeTag = this.mode.name().toLowerCase(Locale.ROOT);
+		this.acquisitions = Counter.builder("fintech.ledger.lock.acquisitions").tag("mode", modeTag).register(meterRegistry);
+		this.contended = Counter.builder("fintech.ledger.lock.contended")
+				.description("Lock requests that found the stripe already held")
+				.tag("mode", modeTag)
+				.register(meterRegistry);
+		this.timeouts = Counter.builder("fintech.ledger.lock.timeouts").tag("mode", modeTag).register(meterRegistry);
+		this.waitTimer = Timer.builder("fintech.ledger.lock.wait").tag("mode", modeTag).register(meterRegistry);
+		Gauge.builder("fintech.ledger.lock.stripes", stripes, s -> s.length).register(meterRegistry);
+		Gauge.builder("fintech.ledger.lock.held", this, WalletLockManager::heldStripeCount).register(meterRegistry);
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Locks the given wallets until the current transaction completes.
+	 * Must be called before any balance is read for the posting.
+	 */
+	public void lock(UUID... walletIds) {
+		List<UUID> ordered = Arrays.stream(walletIds)
+				.filter(Objects::nonNull)
+				.distinct()
+				.sorted()
+				.toList();
+		// Shard thread'lerinde wallet zaten tek yazara ait (PostingEngine sharded modu)
+		if (ordered.isEmpty() || PostingEngine.isShardThread()) {
+			return;
+		}
+		switch (mode) {
+			case STRIPED -> lockStripes(ordered);
+			case DATABASE -> lockRows(ordered);
+			case NONE -> {
+			}
+		}
+	}
+
+	private void lockRows(List<UUID> ordered) {
+		long start = System.nanoTime();
+		// Bulunamayan wallet'ı burada atlıyoruz; servis zaten ResourceNotFoundException fırlatır
+		for (UUID walletId : ordered) {
+			walletRepository.findForUpdate(walletId);
+		}
+		acquisitions.increment(ordered.size());
+		waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+	}
+
+	private void lockStripes(List<UUID> ordered) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			throw new IllegalStateException("Wallet locks can only be taken inside a transaction");
+		}
+		HeldStripes held = currentHeldStripes();
+		int[] indexes = ordered.stream()
+				.mapToInt(this::stripe)
+				.distinct()
+				.filter(index -> !held.indexes.contains(index))
+				.sorted()
+				.toArray();
+
+		for (int index : indexes) {
+			ReentrantLock lock = stripes[index];
+			acquisitions.increment();
+			if (!lock.tryLock()) {
+				contended.increment();
+				awaitStripe(lock, index);
+			}
+			held.indexes.add(index);
+		}
+	}
+
+	private void awaitStripe(ReentrantLock lock, int index) {
+		long start = System.nanoTime();
+		try {
+			if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+				timeouts.increment();
+				throw new WalletLockTimeoutException("Timed out waiting for wallet lock, please retry");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new WalletLockTimeoutException("Interrupted while waiting for wallet lock");
+		} finally {
+			waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private HeldStripes currentHeldStripes() {
+		HeldStripes held = (HeldStripes) TransactionSynchronizationManager.getResource(this);
+		if (held == null) {
+			held = new HeldStripes();
+			TransactionSynchronizationManager.bindResource(this, held);
+			TransactionSynchronizationManager.registerSynchronization(held);
+		}
+		return held;
+	}
+
+	private int stripe(UUID walletId) {
+		return Math.floorMod(walletId.hashCode(), stripes.length);
+	}
+
+	private int heldStripeCount() {
+		int count = 0;
+		for (ReentrantLock lock : stripes) {
+			if (lock.isLocked()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private final class HeldStripes implements TransactionSynchronization {
+		private final List<Integer> indexes = new ArrayList<>(2);
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(WalletLockManager.this);
+			for (int i = indexes.size() - 1; i >= 0; i--) {
+				stripes[indexes.get(i)].unlock();
+			}
+			indexes.clear();
+		}
+	}
+}
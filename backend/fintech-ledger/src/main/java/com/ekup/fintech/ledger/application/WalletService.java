@@ -17,9 +17,11 @@ import com.ekup.fintech.shared.exception.ResourceNotFoundException;
 @Service
 public class WalletService {
 	private final WalletJpaRepository walletRepository;
+	private final WalletBalanceService walletBalanceService;
 
-	public WalletService(WalletJpaRepository walletRepository) {
+	public WalletService(WalletJpaRepository walletRepository, WalletBalanceService walletBalanceService) {
 		this.walletRepository = walletRepository;
+		this.walletBalanceService = walletBalanceService;
 	}
 
 	@Transactional
@@ -27,7 +29,9 @@ public class WalletService {
 		if (walletRepository.existsByOwnerAndBaseCurrency(owner, baseCurrency)) {
 			throw new DuplicateWalletException("You already have a wallet for currency " + baseCurrency);
 		}
-		return walletRepository.save(Wallet.create(owner, baseCurrency));
+		Wallet wallet = walletRepository.save(Wallet.create(owner, baseCurrency));
+		walletBalanceService.open(wallet);
+		return wallet;
 	}
 
 	@Transactional(readOnly = true)
@@ -1,6 +1,7 @@
 package com.ekup.fintech.ledger.domain;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Objects;
 import java.util.UUID;
@@ -53,11 +54,21 @@ public class BalanceSnapshot {
     @Column(name = "last_transaction_id")
     private UUID lastTransactionId;
 
+    /**
+     * Upper bound on how long a posting can be in flight: its occurred_at is taken before the wallet
+     * lock, so a posting that commits after a snapshot can carry a slightly earlier timestamp.
+     */
+    public static final Duration IN_FLIGHT_WINDOW = Duration.ofHours(1);
+
+    // Snapshot'ın kapsadığı son wallet sequence'i; null ise eski (zaman tabanlı) snapshot
+    @Column(name = "last_sequence")
+    private Long lastSequence;
+
     protected BalanceSnapshot() {
     }
 
     private BalanceSnapshot(UUID id, UUID walletId, BigDecimal balance, Currency currency, 
-                            Instant snapshotAt, Long transactionCount, UUID lastTransactionId) {
+                            Instant snapshotAt, Long transactionCount, UUID lastTransactionId, Long lastSequence) {
         this.id = Objects.requireNonNull(id, "id");
         this.walletId = Objects.requireNonNull(walletId, "walletId");
         this.balance = Objects.requireNonNull(balance, "balance");
@@ -65,9 +76,13 @@ public class BalanceSnapshot {
         this.snapshotAt = Objects.requireNonNull(snapshotAt, "snapshotAt");
         this.transactionCount = Objects.requireNonNull(transactionCount, "transactionCount");
         this.lastTransactionId = lastTransactionId; // can be null if no transactions
+        this.lastSequence = Objects.requireNonNull(lastSequence, "lastSequence");
     }
 
-    public static BalanceSnapshot create(UUID walletId, Money balance, Long transactionCount, UUID lastTransactionId) {
+    /**
+     * Snapshot covering exactly the wallet's postings with sequence {@code <= lastSequence}.
+     */
+    public static BalanceSnapshot create(UUID walletId, Money balance, Long transactionCount, UUID lastTransactionId, long lastSequence) {
         return new BalanceSnapshot(
             IdGenerator.newId(),
             walletId,
@@ -75,7 +90,8 @@ public class BalanceSnapshot {
             balance.currency(),
             Instant.now(),
             transactionCount,
-            lastTransactionId
+            lastTransactionId,
+            lastSequence
         );
     }
 
@@ -106,4 +122,16 @@ public class BalanceSnapshot {
     public UUID getLastTransactionId() {
         return lastTransactionId;
     }
+
+    public Long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Postings after this snapshot's sequence occurred no earlier than this; lets the delta queries
+     * prune old partitions of the transactions table.
+     */
+    public Instant laterPostingsNotBefore() {
+        return snapshotAt.minus(IN_FLIGHT_WINDOW);
+    }
 }
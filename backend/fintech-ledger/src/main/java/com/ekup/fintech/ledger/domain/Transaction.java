@@ -6,6 +6,7 @@ import java.util.Objects;
 import java.util.UUID;
 
 import org.hibernate.annotations.Immutable;
+import org.springframework.data.domain.Persistable;
 
 import com.ekup.fintech.shared.domain.Currency;
 import com.ekup.fintech.shared.domain.Money;
@@ -17,12 +18,23 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 @Entity
 @Immutable
-@Table(name = "transactions")
-public class Transaction {
+@Table(
+		name = "transactions",
+		indexes = {
+				@Index(name = "ux_transactions_wallet_seq", columnList = "wallet_id, seq", unique = true),
+				// Covering index for per-wallet history and time-based SUM/COUNT: answered from the index alone
+				@Index(name = "idx_transactions_wallet_occurred", columnList = "wallet_id, occurred_at, currency, direction, amount")
+		}
+)
+public class Transaction implements Persistable<UUID> {
 	@Id
 	@Column(nullable = false)
 	private UUID id;
@@ -58,6 +70,16 @@ public class Transaction {
 	@Column(name = "occurred_at", nullable = false)
 	private Instant occurredAt;
 
+	/**
+	 * Per-wallet, gap-free posting sequence (1, 2, 3...). Allocated from the wallet's
+	 * balance row under its lock; null only for rows written before sequencing existed.
+	 */
+	@Column(name = "seq")
+	private Long sequence;
+
+	@Transient
+	private boolean persisted;
+
 	protected Transaction() {
 	}
 
@@ -140,10 +162,26 @@ public class Transaction {
 		);
 	}
 
+	@Override
 	public UUID getId() {
 		return id;
 	}
 
+	/**
+	 * Ids are assigned by {@link IdGenerator}, so Spring Data cannot tell a new row from its id.
+	 * Without this, save()/saveAll() would merge (SELECT + INSERT) and inserts could not be batched.
+	 */
+	@Override
+	public boolean isNew() {
+		return !persisted;
+	}
+
+	@PostPersist
+	@PostLoad
+	void markPersisted() {
+		this.persisted = true;
+	}
+
 	public UUID getWalletId() {
 		return walletId;
 	}
@@ -152,6 +190,14 @@ public class Transaction {
 		return Money.of(amount, currency);
 	}
 
+	/**
+	 * Amount with the sign applied: positive for credits, negative for debits.
+	 */
+	public Money getSignedMoney() {
+		Money money = getMoney();
+		return direction == TransactionDirection.CREDIT ? money : money.negate();
+	}
+
 	public TransactionDirection getDirection() {
 		return direction;
 	}
@@ -175,4 +221,21 @@ public class Transaction {
 	public Instant getOccurredAt() {
 		return occurredAt;
 	}
+
+	public Long getSequence() {
+		return sequence;
+	}
+
+	/**
+	 * Stamps the wallet sequence before the row is inserted. A transaction is sequenced exactly once.
+	 */
+	public void assignSequence(long sequence) {
+		if (this.sequence != null) {
+			throw new IllegalStateException("Transaction " + id + " already has sequence " + this.sequence);
+		}
+		if (sequence <= 0) {
+			throw new IllegalArgumentException("sequence must be positive");
+		}
+		this.sequence = sequence;
+	}
 }
@@ -0,0 +1,110 @@
+package com.ekup.fintech.ledger.domain;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+import com.ekup.fintech.shared.domain.Currency;
+import com.ekup.fintech.shared.domain.Money;
+import com.ekup.fintech.shared.exception.CurrencyMismatchException;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+
+/**
+ * Materialized current balance of a wallet, updated in the same transaction as every posting.
+ * The transactions table stays the source of truth; this row is what the hot path reads.
+ */
+@Entity
+@Table(name = "wallet_balances")
+public class WalletBalance {
+	@Id
+	@Column(name = "wallet_id", nullable = false)
+	private UUID walletId;
+
+	@Column(nullable = false, precision = 19, scale = Money.SCALE)
+	private BigDecimal balance;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 3)
+	private Currency currency;
+
+	@Column(name = "last_sequence", nullable = false)
+	private long lastSequence;
+
+	@Column(name = "updated_at", nullable = false)
+	private Instant updatedAt;
+
+	@Version
+	private Long version;
+
+	protected WalletBalance() {
+	}
+
+	private WalletBalance(UUID walletId, Money balance, long lastSequence, Instant updatedAt) {
+		this.walletId = Objects.requireNonNull(walletId, "walletId");
+		this.balance = Objects.requireNonNull(balance, "balance").amount();
+		this.currency = balance.currency();
+		this.lastSequence = lastSequence;
+		this.updatedAt = Objects.requireNonNull(updatedAt, "updatedAt");
+	}
+
+	public static WalletBalance open(UUID walletId, Currency currency) {
+		return new WalletBalance(walletId, Money.zero(currency), 0L, Instant.now());
+	}
+
+	/**
+	 * Seeds the row for a wallet that already has history (e.g. created before this table existed).
+	 */
+	public static WalletBalance backfill(UUID walletId, Money balance, long postedCount) {
+		return new WalletBalance(walletId, balance, postedCount, Instant.now());
+	}
+
+	/**
+	 * Assigns the next wallet sequence to a not-yet-persisted transaction and adds it to the balance.
+	 */
+	public void apply(Transaction transaction) {
+		Objects.requireNonNull(transaction, "transaction");
+		if (!walletId.equals(transaction.getWalletId())) {
+			throw new IllegalArgumentException("Transaction " + transaction.getId() + " does not belong to wallet " + walletId);
+		}
+		Money signed = transaction.getSignedMoney();
+		if (signed.currency() != currency) {
+			throw new CurrencyMismatchException("Wallet balance currency mismatch: " + currency + " vs " + signed.currency());
+		}
+		transaction.assignSequence(lastSequence + 1);
+		this.balance = getBalance().add(signed).amount();
+		this.lastSequence = transaction.getSequence();
+		this.updatedAt = transaction.getOccurredAt();
+	}
+
+	public UUID getWalletId() {
+		return walletId;
+	}
+
+	public Money getBalance() {
+		return Money.of(balance, currency);
+	}
+
+	public Currency getCurrency() {
+		return currency;
+	}
+
+	public long getLastSequence() {
+		return lastSequence;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+}
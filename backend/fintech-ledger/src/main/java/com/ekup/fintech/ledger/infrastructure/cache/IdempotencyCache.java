@@ -0,0 +1,147 @@
+package com.ekup.fintech.ledger.infrastructure.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ekup.fintech.ledger.infrastructure.persistence.IdempotencyRetention;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * First tier of the idempotency lookup: a bounded, TTL-limited in-process map of
+ * (operation, key) → fingerprint + response.
+ *
+ * A replay that hits here is answered without opening a transaction. Misses fall through
+ * to idempotency_records, which stays the source of truth. Fresh results are only added
+ * after their posting commits, so a rolled-back posting is never replayed from memory.
+ * The TTL may not exceed the retention window, otherwise an expired key could still be
+ * replayed from memory after the database has forgotten it.
+ */
+@Component
+public class IdempotencyCache {
+	public record Hit(String fingerprint, Object response) {
+	}
+
+	private record CacheKey(String operation, UUID idempotencyKey) {
+	}
+
+	private record Entry(String fingerprint, Object response, long expiresAtNanos) {
+	}
+
+	private final boolean enabled;
+	private final long ttlNanos;
+	private final Map<CacheKey, Entry> entries;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Counter hits;
+	private final Counter misses;
+
+	public IdempotencyCache(
+			@Value("${fintech.idempotency.cache.enabled:true}") boolean enabled,
+			@Value("${fintech.idempotency.cache.max-entries:50000}") int maxEntries,
+			@Value("${fintech.idempotency.cache.ttl:PT10M}") Duration ttl,
+			IdempotencyRetention retention,
+			MeterRegistry meterRegistry
+	) {
+		if (ttl.compareTo(retention.getRetention()) > 0) {
+			throw new IllegalArgumentException("fintech.idempotency.cache.ttl (" + ttl
+					+ ") must not exceed fintech.idempotency.retention (" + retention.getRetention() + ")");
+		}
+		this.enabled = enabled;
+		this.ttlNanos = ttl.toNanos();
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<CacheKey, Entry> eldest) {
+				return size() > maxEntries;
+			}
+		};
+		this.hits = Counter.builder("fintech.idempotency.cache.requests").tag("result", "hit").register(meterRegistry);
+		this.misses = Counter.builder("fintech.idempotency.cache.requests").tag("result", "miss").register(meterRegistry);
+		Gauge.builder("fintech.idempotency.cache.size", this, IdempotencyCache::size).register(meterRegistry);
+	}
+
+	/**
+	 * Returns the cached fingerprint and response, or null on a miss or an expired entry.
+	 */
+	public Hit get(String operation, UUID idempotencyKey) {
+		if (!enabled) {
+			return null;
+		}
+		CacheKey cacheKey = new CacheKey(operation, idempotencyKey);
+		Entry entry;
+		lock.lock();
+		try {
+			entry = entries.get(cacheKey);
+			if (entry != null && entry.expiresAtNanos() - System.nanoTime() <= 0) {
+				entries.remove(cacheKey);
+				entry = null;
+			}
+		} finally {
+			lock.unlock();
+		}
+		if (entry == null) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return new Hit(entry.fingerprint(), entry.response());
+	}
+
+	/**
+	 * Caches an already committed result (e.g. one just read back from idempotency_records).
+	 */
+	public void put(String operation, UUID idempotencyKey, String fingerprint, Object response) {
+		if (!enabled) {
+			return;
+		}
+		Entry entry = new Entry(fingerprint, response, System.nanoTime() + ttlNanos);
+		lock.lock();
+		try {
+			entries.put(new CacheKey(operation, idempotencyKey), entry);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Caches a result once the surrounding transaction commits; nothing is cached on rollback.
+	 */
+	public void putAfterCommit(String operation, UUID idempotencyKey, String fingerprint, Object response) {
+		if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				put(operation, idempotencyKey, fingerprint, response);
+			}
+		});
+	}
+
+	public void clear() {
+		lock.lock();
+		try {
+			entries.clear();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int size() {
+		lock.lock();
+		try {
+			return entries.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+}
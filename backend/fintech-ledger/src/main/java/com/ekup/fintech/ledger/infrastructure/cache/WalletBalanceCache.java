@@ -0,0 +1,265 @@
+package com.ekup.fintech.ledger.infrastructure.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ekup.fintech.shared.domain.Currency;
+import com.ekup.fintech.shared.domain.Money;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded, write-through in-process cache of wallet balances for balance reads
+ * ({@code BalanceCalculator.calculateBalance}); postings check against the locked
+ * wallet_balances row and never read from here.
+ *
+ * Entries are only mutated after the posting transaction commits; a rollback evicts
+ * the wallet instead. Postings made through another instance are not seen here, so every
+ * entry expires after {@code fintech.balance.cache.ttl}, which bounds how stale a balance
+ * read can be across instances. A wallet with an in-flight posting is read from the
+ * database, and a load that races with a posting on its segment is returned to the caller
+ * but not cached, so a stale read can never overwrite a newer balance.
+ *
+ * Wallets are spread over segments, each an LRU map with its own lock, so reads of
+ * different wallets rarely contend. Disable with {@code fintech.balance.cache.enabled=false}
+ * to fall back to the materialized row / snapshot / SUM path on every call.
+ */
+@Component
+public class WalletBalanceCache {
+	private static final int MAX_SEGMENTS = 64;
+	private static final int MIN_SEGMENT_ENTRIES = 1024;
+
+	private record Entry(Money balance, long expiresAtNanos) {
+	}
+
+	private final boolean enabled;
+	private final long ttlNanos;
+	private final Segment[] segments;
+	private final Counter hits;
+	private final Counter misses;
+	private final Counter evictions;
+
+	public WalletBalanceCache(
+			@Value("${fintech.balance.cache.enabled:true}") boolean enabled,
+			@Value("${fintech.balance.cache.max-entries:100000}") int maxEntries,
+			@Value("${fintech.balance.cache.ttl:PT5S}") Duration ttl,
+			MeterRegistry meterRegistry
+	) {
+		this.enabled = enabled;
+		this.ttlNanos = ttl.toNanos();
+		this.hits = Counter.builder("fintech.balance.cache.requests").tag("result", "hit").register(meterRegistry);
+		this.misses = Counter.builder("fintech.balance.cache.requests").tag("result", "miss").register(meterRegistry);
+		this.evictions = Counter.builder("fintech.balance.cache.evictions").register(meterRegistry);
+		// Küçük cache'lerde tek segment: LRU sırası tam kalır
+		int segmentCount = Math.max(1, Math.min(MAX_SEGMENTS, maxEntries / MIN_SEGMENT_ENTRIES));
+		this.segments = new Segment[segmentCount];
+		for (int i = 0; i < segmentCount; i++) {
+			segments[i] = new Segment(Math.max(1, maxEntries / segmentCount));
+		}
+		Gauge.builder("fintech.balance.cache.size", this, WalletBalanceCache::size).register(meterRegistry);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Returns the cached balance, or invokes the loader on a miss.
+	 * Wallets with uncommitted postings in the current transaction always bypass the cache.
+	 */
+	public Money get(UUID walletId, Currency currency, Supplier<Money> loader) {
+		if (!enabled || hasPendingPostings(walletId)) {
+			return loader.get();
+		}
+
+		Segment segment = segment(walletId);
+		Money cached = null;
+		long generation;
+		segment.lock.lock();
+		try {
+			Entry entry = segment.entries.get(walletId);
+			if (entry != null && entry.expiresAtNanos() - System.nanoTime() <= 0) {
+				segment.entries.remove(walletId);
+				entry = null;
+			}
+			// Commit olmuş ama delta'sı henüz uygulanmamış bir posting olabilir
+			if (entry != null && !segment.inFlight.containsKey(walletId)) {
+				cached = entry.balance();
+			}
+			generation = segment.generation;
+		} finally {
+			segment.lock.unlock();
+		}
+		if (cached != null && cached.currency() == currency) {
+			hits.increment();
+			return cached;
+		}
+		misses.increment();
+
+		Money loaded = loader.get();
+		if (cached == null || cached.currency() == loaded.currency()) {
+			segment.lock.lock();
+			try {
+				if (segment.generation == generation && !segment.inFlight.containsKey(walletId)) {
+					segment.entries.put(walletId, new Entry(loaded, System.nanoTime() + ttlNanos));
+				}
+			} finally {
+				segment.lock.unlock();
+			}
+		}
+		return loaded;
+	}
+
+	/**
+	 * Registers a signed balance change to be applied once the surrounding transaction commits.
+	 */
+	public void applyAfterCommit(UUID walletId, Money signedDelta) {
+		if (!enabled) {
+			return;
+		}
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			evict(walletId);
+			return;
+		}
+		PendingPostings pending = currentPendingPostings(true);
+		if (pending.add(walletId, signedDelta)) {
+			Segment segment = segment(walletId);
+			segment.lock.lock();
+			try {
+				segment.inFlight.merge(walletId, 1, Integer::sum);
+			} finally {
+				segment.lock.unlock();
+			}
+		}
+	}
+
+	public void evict(UUID walletId) {
+		Segment segment = segment(walletId);
+		segment.lock.lock();
+		try {
+			segment.generation++;
+			segment.entries.remove(walletId);
+		} finally {
+			segment.lock.unlock();
+		}
+	}
+
+	public void clear() {
+		for (Segment segment : segments) {
+			segment.lock.lock();
+			try {
+				segment.generation++;
+				segment.entries.clear();
+			} finally {
+				segment.lock.unlock();
+			}
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			segment.lock.lock();
+			try {
+				size += segment.entries.size();
+			} finally {
+				segment.lock.unlock();
+			}
+		}
+		return size;
+	}
+
+	private boolean hasPendingPostings(UUID walletId) {
+		PendingPostings pending = currentPendingPostings(false);
+		return pending != null && pending.deltas.containsKey(walletId);
+	}
+
+	private PendingPostings currentPendingPostings(boolean create) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return null;
+		}
+		PendingPostings pending = (PendingPostings) TransactionSynchronizationManager.getResource(this);
+		if (pending == null && create) {
+			pending = new PendingPostings();
+			TransactionSynchronizationManager.bindResource(this, pending);
+			TransactionSynchronizationManager.registerSynchronization(pending);
+		}
+		return pending;
+	}
+
+	private void complete(Map<UUID, Money> deltas, boolean committed) {
+		deltas.forEach((walletId, delta) -> {
+			Segment segment = segment(walletId);
+			segment.lock.lock();
+			try {
+				Entry current = segment.entries.get(walletId);
+				if (committed && current != null && current.balance().currency() == delta.currency()) {
+					// TTL yenilenmez: diğer instance'lardaki posting'ler yine en geç TTL sonunda görülür
+					segment.entries.put(walletId, new Entry(current.balance().add(delta), current.expiresAtNanos()));
+				} else {
+					segment.entries.remove(walletId);
+				}
+				segment.generation++;
+				segment.inFlight.computeIfPresent(walletId, (id, count) -> count > 1 ? count - 1 : null);
+			} finally {
+				segment.lock.unlock();
+			}
+		});
+	}
+
+	private Segment segment(UUID walletId) {
+		return segments[Math.floorMod(walletId.hashCode(), segments.length)];
+	}
+
+	private final class Segment {
+		// Guards all fields; a lock rather than a monitor so waiting virtual threads are not pinned
+		private final ReentrantLock lock = new ReentrantLock();
+		private final Map<UUID, Entry> entries;
+		private final Map<UUID, Integer> inFlight = new HashMap<>();
+		private long generation;
+
+		Segment(int maxEntries) {
+			this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+					if (size() > maxEntries) {
+						evictions.increment();
+						return true;
+					}
+					return false;
+				}
+			};
+		}
+	}
+
+	private final class PendingPostings implements TransactionSynchronization {
+		private final Map<UUID, Money> deltas = new HashMap<>();
+
+		boolean add(UUID walletId, Money delta) {
+			Money previous = deltas.putIfAbsent(walletId, delta);
+			if (previous != null) {
+				deltas.put(walletId, previous.add(delta));
+				return false;
+			}
+			return true;
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(WalletBalanceCache.this);
+			complete(deltas, status == STATUS_COMMITTED);
+		}
+	}
+}
@@ -3,26 +3,36 @@ package com.ekup.fintech.ledger.infrastructure.config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import com.ekup.fintech.ledger.application.BalanceSnapshotBatchJob;
 import com.ekup.fintech.ledger.application.BalanceSnapshotService;
+import com.ekup.fintech.ledger.application.BalanceSnapshotService.VerificationReport;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * Scheduled job for periodic balance snapshot creation.
- * Runs every hour to ensure all wallets have up-to-date snapshots.
+ * Runs every hour to ensure all wallets have up-to-date snapshots, and periodically
+ * verifies the latest snapshots against a full SUM since snapshots are built incrementally.
  */
 @Component
-@EnableScheduling
 @ConditionalOnProperty(name = "fintech.balance.use-snapshot", havingValue = "true", matchIfMissing = true)
 public class BalanceSnapshotScheduler {
     private static final Logger log = LoggerFactory.getLogger(BalanceSnapshotScheduler.class);
     
     private final BalanceSnapshotService snapshotService;
+    private final BalanceSnapshotBatchJob batchJob;
+    private final Counter drifts;
     
-    public BalanceSnapshotScheduler(BalanceSnapshotService snapshotService) {
+    public BalanceSnapshotScheduler(BalanceSnapshotService snapshotService, BalanceSnapshotBatchJob batchJob, MeterRegistry meterRegistry) {
         this.snapshotService = snapshotService;
+        this.batchJob = batchJob;
+        this.drifts = Counter.builder("fintech.balance.snapshot.drift")
+            .description("Snapshots that did not match a full recomputation")
+            .register(meterRegistry);
     }
     
     /**
@@ -33,10 +43,31 @@ public class BalanceSnapshotScheduler {
     public void hourlySnapshotJob() {
         log.info("Starting hourly balance snapshot job");
         try {
-            snapshotService.createSnapshotsForAllWallets();
-            log.info("Hourly balance snapshot job completed successfully");
+            if (batchJob.run()) {
+                log.info("Hourly balance snapshot job completed: {}", batchJob.getProgress());
+            }
         } catch (Exception e) {
             log.error("Hourly balance snapshot job failed", e);
         }
     }
+    
+    /**
+     * Tam doğrulama: varsayılan olarak her gün 03:30 UTC (cron "-" ile kapatılabilir)
+     */
+    @Scheduled(cron = "${fintech.balance.snapshot-verification.cron:0 30 3 * * *}", zone = "UTC")
+    public void snapshotVerificationJob() {
+        log.info("Starting balance snapshot verification job");
+        try {
+            VerificationReport report = snapshotService.verifyAllSnapshots();
+            drifts.increment(report.drifts().size());
+            if (report.drifts().isEmpty()) {
+                log.info("Snapshot verification passed for {} wallets", report.walletsChecked());
+            } else {
+                log.error("Snapshot verification found {} drifted snapshots out of {} wallets; repaired with full snapshots",
+                    report.drifts().size(), report.walletsChecked());
+            }
+        } catch (Exception e) {
+            log.error("Balance snapshot verification job failed", e);
+        }
+    }
 }
@@ -0,0 +1,144 @@
+package com.ekup.fintech.ledger.infrastructure.config;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ekup.fintech.ledger.infrastructure.persistence.IdempotencyRetention;
+
+/**
+ * Keeps idempotency_records inside the retention window.
+ *
+ * On PostgreSQL, when the table is range-partitioned by created_at (see
+ * db/idempotency_records_partitioned.sql), upcoming daily partitions are created ahead of time
+ * and partitions that fall entirely before the cutoff are dropped, so no rows are deleted one by
+ * one. On a plain table (H2, or before the conversion) expired rows are deleted instead.
+ */
+@Component
+@ConditionalOnProperty(name = "fintech.idempotency.maintenance.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyPartitionMaintenance {
+	private static final Logger log = LoggerFactory.getLogger(IdempotencyPartitionMaintenance.class);
+
+	static final String TABLE = "idempotency_records";
+	private static final String PARTITION_PREFIX = TABLE + "_p";
+	private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final IdempotencyRetention retention;
+	private final int premakeDays;
+
+	public IdempotencyPartitionMaintenance(
+			JdbcTemplate jdbcTemplate,
+			IdempotencyRetention retention,
+			@Value("${fintech.idempotency.maintenance.premake-days:3}") int premakeDays
+	) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.retention = retention;
+		this.premakeDays = premakeDays;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onStartup() {
+		runMaintenance();
+	}
+
+	/**
+	 * Her gün 00:05 UTC: yeni partition'ları hazırla, süresi dolanları düşür
+	 */
+	@Scheduled(cron = "${fintech.idempotency.maintenance.cron:0 5 0 * * *}", zone = "UTC")
+	public void runMaintenance() {
+		try {
+			if (isPartitioned()) {
+				createUpcomingPartitions();
+				int dropped = dropExpiredPartitions();
+				log.info("Idempotency partition maintenance done, dropped {} partitions", dropped);
+			} else {
+				int deleted = deleteExpiredRows();
+				log.info("Idempotency retention cleanup deleted {} records", deleted);
+			}
+		} catch (Exception e) {
+			log.error("Idempotency retention maintenance failed", e);
+		}
+	}
+
+	int deleteExpiredRows() {
+		return jdbcTemplate.update("delete from " + TABLE + " where created_at < ?", retention.cutoff());
+	}
+
+	private void createUpcomingPartitions() {
+		LocalDate today = LocalDate.now(ZoneOffset.UTC);
+		for (int i = 0; i <= premakeDays; i++) {
+			LocalDate day = today.plusDays(i);
+			jdbcTemplate.execute("create table if not exists " + partitionName(day)
+					+ " partition of " + TABLE
+					+ " for values from ('" + day.atStartOfDay(ZoneOffset.UTC).toInstant() + "')"
+					+ " to ('" + day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant() + "')");
+		}
+	}
+
+	private int dropExpiredPartitions() {
+		Instant cutoff = retention.cutoff();
+		List<String> partitions = jdbcTemplate.queryForList("""
+				select c.relname
+				from pg_inherits i
+				join pg_class c on c.oid = i.inhrelid
+				join pg_class p on p.oid = i.inhparent
+				where p.relname = ?
+				""", String.class, TABLE);
+
+		int dropped = 0;
+		for (String partition : partitions) {
+			LocalDate day = partitionDay(partition);
+			// Partition'ın üst sınırı cutoff'tan önceyse içindeki tüm kayıtlar pencere dışında
+			if (day != null && !day.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().isAfter(cutoff)) {
+				jdbcTemplate.execute("drop table if exists " + partition);
+				dropped++;
+			}
+		}
+		return dropped;
+	}
+
+	private boolean isPartitioned() {
+		String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+		if (!"PostgreSQL".equalsIgnoreCase(product)) {
+			return false;
+		}
+		Boolean partitioned = jdbcTemplate.queryForObject("""
+				select exists (
+					select 1 from pg_partitioned_table pt
+					join pg_class c on c.oid = pt.partrelid
+					where c.relname = ?
+				)
+				""", Boolean.class, TABLE);
+		return Boolean.TRUE.equals(partitioned);
+	}
+
+	static String partitionName(LocalDate day) {
+		return PARTITION_PREFIX + SUFFIX.format(day);
+	}
+
+	static LocalDate partitionDay(String partitionName) {
+		if (!partitionName.startsWith(PARTITION_PREFIX)) {
+			return null;
+		}
+		try {
+			return LocalDate.parse(partitionName.substring(PARTITION_PREFIX.length()), SUFFIX);
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+}
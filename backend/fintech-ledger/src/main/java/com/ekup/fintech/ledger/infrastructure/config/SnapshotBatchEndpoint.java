@@ -0,0 +1,33 @@
+package com.ekup.fintech.ledger.infrastructure.config;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import com.ekup.fintech.ledger.application.BalanceSnapshotBatchJob;
+
+/**
+ * /actuator/snapshotbatch: progress, throughput and failures of the batch snapshot job;
+ * POST starts a run if none is active.
+ */
+@Component
+@Endpoint(id = "snapshotbatch")
+public class SnapshotBatchEndpoint {
+	private final BalanceSnapshotBatchJob batchJob;
+
+	public SnapshotBatchEndpoint(BalanceSnapshotBatchJob batchJob) {
+		this.batchJob = batchJob;
+	}
+
+	@ReadOperation
+	public BalanceSnapshotBatchJob.Progress progress() {
+		return batchJob.getProgress();
+	}
+
+	@WriteOperation
+	public BalanceSnapshotBatchJob.Progress start() {
+		batchJob.start();
+		return batchJob.getProgress();
+	}
+}
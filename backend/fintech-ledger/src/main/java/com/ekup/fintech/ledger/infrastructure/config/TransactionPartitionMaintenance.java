@@ -0,0 +1,206 @@
+package com.ekup.fintech.ledger.infrastructure.config;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.ekup.fintech.ledger.application.BalanceSnapshotService;
+
+/**
+ * Keeps the monthly partitions of transactions ahead of time and moves old ones out of the table.
+ *
+ * Only active on PostgreSQL once the table is range-partitioned by occurred_at (see
+ * db/transactions_partitioned.sql). Upcoming months are created ahead of time. When
+ * fintech.ledger.partitions.detach-after-months is set, partitions older than that are detached,
+ * oldest first: every wallet in the partition first gets a snapshot past its postings there, the
+ * per-wallet totals are written to archived_transaction_totals, and the partition is detached
+ * CONCURRENTLY. The detached table keeps its name and can then be exported and dropped; postings
+ * and balance reads never touch it again.
+ */
+@Component
+@ConditionalOnProperty(name = "fintech.ledger.partitions.maintenance.enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionPartitionMaintenance {
+	private static final Logger log = LoggerFactory.getLogger(TransactionPartitionMaintenance.class);
+
+	static final String TABLE = "transactions";
+	private static final String PARTITION_PREFIX = TABLE + "_p";
+	private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+	private final JdbcTemplate jdbcTemplate;
+	private final BalanceSnapshotService snapshotService;
+	private final int premakeMonths;
+	private final int detachAfterMonths;
+
+	public TransactionPartitionMaintenance(
+			JdbcTemplate jdbcTemplate,
+			BalanceSnapshotService snapshotService,
+			@Value("${fintech.ledger.partitions.premake-months:3}") int premakeMonths,
+			@Value("${fintech.ledger.partitions.detach-after-months:0}") int detachAfterMonths
+	) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.snapshotService = snapshotService;
+		this.premakeMonths = premakeMonths;
+		this.detachAfterMonths = detachAfterMonths;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onStartup() {
+		runMaintenance();
+	}
+
+	/**
+	 * Her gün 00:10 UTC: gelecek ayların partition'larını hazırla, gerekiyorsa eskileri ayır
+	 */
+	@Scheduled(cron = "${fintech.ledger.partitions.maintenance.cron:0 10 0 * * *}", zone = "UTC")
+	public void runMaintenance() {
+		try {
+			if (!isPartitioned()) {
+				return;
+			}
+			createUpcomingPartitions();
+			if (detachAfterMonths > 0) {
+				int detached = detachOldPartitions();
+				log.info("Transaction partition maintenance done, detached {} partitions", detached);
+			}
+		} catch (Exception e) {
+			log.error("Transaction partition maintenance failed", e);
+		}
+	}
+
+	private void createUpcomingPartitions() {
+		YearMonth current = YearMonth.now(ZoneOffset.UTC);
+		for (int i = 0; i <= premakeMonths; i++) {
+			YearMonth month = current.plusMonths(i);
+			jdbcTemplate.execute("create table if not exists " + partitionName(month)
+					+ " partition of " + TABLE
+					+ " for values from ('" + monthStart(month) + "')"
+					+ " to ('" + monthStart(month.plusMonths(1)) + "')");
+		}
+	}
+
+	private int detachOldPartitions() {
+		YearMonth cutoff = YearMonth.now(ZoneOffset.UTC).minusMonths(detachAfterMonths);
+		List<YearMonth> months = jdbcTemplate.queryForList("""
+				select c.relname
+				from pg_inherits i
+				join pg_class c on c.oid = i.inhrelid
+				join pg_class p on p.oid = i.inhparent
+				where p.relname = ?
+				""", String.class, TABLE).stream()
+				.map(TransactionPartitionMaintenance::partitionMonth)
+				.filter(Objects::nonNull)
+				.filter(month -> month.isBefore(cutoff))
+				.sorted(Comparator.naturalOrder())
+				.toList();
+
+		// En eskiden başlanır: arşiv sınırı (max range_end) her zaman kesintisiz ilerler
+		for (YearMonth month : months) {
+			detach(month);
+		}
+		return months.size();
+	}
+
+	private void detach(YearMonth month) {
+		String partition = partitionName(month);
+		Instant rangeEnd = monthStart(month.plusMonths(1));
+
+		int refreshed = refreshSnapshotsCovering(partition);
+		Boolean recorded = jdbcTemplate.queryForObject(
+				"select exists (select 1 from archived_transaction_totals where partition_name = ?)", Boolean.class, partition);
+		int wallets = Boolean.TRUE.equals(recorded) ? 0 : recordTotals(partition, rangeEnd);
+
+		// CONCURRENTLY: posting'ler parent tabloda beklemez (PostgreSQL 14+, transaction dışında çalışmalı)
+		jdbcTemplate.execute("alter table " + TABLE + " detach partition " + partition + " concurrently");
+		log.info("Detached {} ({} wallet totals archived, {} snapshots refreshed); export and drop it when archived",
+				partition, wallets, refreshed);
+	}
+
+	/**
+	 * Snapshot deltas only read postings after the snapshot's sequence; make sure none of them
+	 * fall into the partition that is about to go away.
+	 */
+	private int refreshSnapshotsCovering(String partition) {
+		List<UUID> stale = jdbcTemplate.queryForList("""
+				select p.wallet_id
+				from (select wallet_id, max(seq) as max_seq from %s group by wallet_id) p
+				where p.max_seq is not null
+				and not exists (
+					select 1 from balance_snapshots s
+					where s.wallet_id = p.wallet_id and s.last_sequence >= p.max_seq
+				)
+				""".formatted(partition), UUID.class);
+		for (UUID walletId : stale) {
+			snapshotService.createSnapshot(walletId);
+		}
+		return stale.size();
+	}
+
+	/**
+	 * Tek statement: toplamlar ve yeni arşiv sınırı aynı anda görünür olur, böylece SUM sorguları
+	 * partition ayrılmadan önce de sonra da aynı sonucu verir
+	 */
+	private int recordTotals(String partition, Instant rangeEnd) {
+		return jdbcTemplate.update("""
+				insert into archived_transaction_totals
+					(id, partition_name, wallet_id, currency, balance, transaction_count, max_sequence, range_end, archived_at)
+				select gen_random_uuid(), ?, wallet_id, currency,
+					sum(case when direction = 'CREDIT' then amount else -amount end), count(*), max(seq), ?, now()
+				from transactions
+				where occurred_at < ?
+				and occurred_at >= coalesce((select max(range_end) from archived_transaction_totals), '-infinity'::timestamptz)
+				group by wallet_id, currency
+				""", partition, Timestamp.from(rangeEnd), Timestamp.from(rangeEnd));
+	}
+
+	private boolean isPartitioned() {
+		String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+		if (!"PostgreSQL".equalsIgnoreCase(product)) {
+			return false;
+		}
+		Boolean partitioned = jdbcTemplate.queryForObject("""
+				select exists (
+					select 1 from pg_partitioned_table pt
+					join pg_class c on c.oid = pt.partrelid
+					where c.relname = ?
+				)
+				""", Boolean.class, TABLE);
+		return Boolean.TRUE.equals(partitioned);
+	}
+
+	private static Instant monthStart(YearMonth month) {
+		return month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+	}
+
+	static String partitionName(YearMonth month) {
+		return PARTITION_PREFIX + SUFFIX.format(month);
+	}
+
+	static YearMonth partitionMonth(String partitionName) {
+		if (!partitionName.startsWith(PARTITION_PREFIX)) {
+			return null;
+		}
+		try {
+			return YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), SUFFIX);
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+}
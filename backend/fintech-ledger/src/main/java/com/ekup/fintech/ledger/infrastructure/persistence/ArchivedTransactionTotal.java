@@ -0,0 +1,106 @@
+package com.ekup.fintech.ledger.infrastructure.persistence;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.hibernate.annotations.Immutable;
+
+import com.ekup.fintech.shared.domain.Currency;
+import com.ekup.fintech.shared.domain.Money;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Per-wallet totals of a transactions partition that was detached to cold storage.
+ *
+ * Rows are written by TransactionPartitionMaintenance right before the partition is detached.
+ * Full SUM/COUNT queries add these totals and ignore live rows with occurred_at below the
+ * highest archived range_end, so balances stay the same whether the partition is still
+ * attached or not.
+ */
+@Entity
+@Immutable
+@Table(
+		name = "archived_transaction_totals",
+		indexes = {
+				@Index(name = "idx_archived_totals_wallet", columnList = "wallet_id, currency"),
+				@Index(name = "idx_archived_totals_range_end", columnList = "range_end")
+		}
+)
+public class ArchivedTransactionTotal {
+	@Id
+	@Column(nullable = false)
+	private UUID id;
+
+	@Column(name = "partition_name", nullable = false, length = 63)
+	private String partitionName;
+
+	@Column(name = "wallet_id", nullable = false)
+	private UUID walletId;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 3)
+	private Currency currency;
+
+	// Signed (credit - debit) sum of the archived postings
+	@Column(nullable = false, precision = 19, scale = Money.SCALE)
+	private BigDecimal balance;
+
+	@Column(name = "transaction_count", nullable = false)
+	private long transactionCount;
+
+	@Column(name = "max_sequence")
+	private Long maxSequence;
+
+	@Column(name = "range_end", nullable = false)
+	private Instant rangeEnd;
+
+	@Column(name = "archived_at", nullable = false)
+	private Instant archivedAt;
+
+	protected ArchivedTransactionTotal() {
+	}
+
+	public UUID getId() {
+		return id;
+	}
+
+	public String getPartitionName() {
+		return partitionName;
+	}
+
+	public UUID getWalletId() {
+		return walletId;
+	}
+
+	public Currency getCurrency() {
+		return currency;
+	}
+
+	public BigDecimal getBalance() {
+		return balance;
+	}
+
+	public long getTransactionCount() {
+		return transactionCount;
+	}
+
+	public Long getMaxSequence() {
+		return maxSequence;
+	}
+
+	public Instant getRangeEnd() {
+		return rangeEnd;
+	}
+
+	public Instant getArchivedAt() {
+		return archivedAt;
+	}
+}
@@ -2,6 +2,7 @@ package com.ekup.fintech.ledger.infrastructure.persistence;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -20,7 +21,110 @@ public interface BalanceSnapshotJpaRepository extends JpaRepository<BalanceSnaps
     Optional<BalanceSnapshot> findTopByWalletIdOrderBySnapshotAtDesc(UUID walletId);
     
     /**
-     * Belirli bir tarihten sonraki işlemlerin signed toplamını hesapla
+     * Belirli bir sequence'ten sonraki işlemlerin signed toplamı: (wallet_id, seq) üzerinde range seek.
+     * notBefore ({@link BalanceSnapshot#laterPostingsNotBefore()}) eski partition'ları budar.
+     */
+    @Query(
+        "SELECT COALESCE(SUM(CASE WHEN t.direction = com.ekup.fintech.ledger.domain.TransactionDirection.CREDIT THEN t.amount ELSE -t.amount END), 0) " +
+        "FROM Transaction t " +
+        "WHERE t.walletId = :walletId AND t.currency = :currency AND t.sequence > :afterSequence " +
+        "AND t.occurredAt >= :notBefore"
+    )
+    BigDecimal sumSignedAmountAfterSequence(
+        @Param("walletId") UUID walletId,
+        @Param("currency") Currency currency,
+        @Param("afterSequence") long afterSequence,
+        @Param("notBefore") Instant notBefore
+    );
+
+    /**
+     * Belirli bir sequence'e kadar (dahil) işlemlerin signed toplamı; sequence'siz eski kayıtlar ve
+     * arşivlenmiş partition toplamları da dahildir
+     */
+    @Query(
+        "SELECT COALESCE(SUM(CASE WHEN t.direction = com.ekup.fintech.ledger.domain.TransactionDirection.CREDIT THEN t.amount ELSE -t.amount END), 0) " +
+        "+ COALESCE((SELECT SUM(a.balance) FROM ArchivedTransactionTotal a WHERE a.walletId = :walletId AND a.currency = :currency), 0) " +
+        "FROM Transaction t " +
+        "WHERE t.walletId = :walletId AND t.currency = :currency AND (t.sequence IS NULL OR t.sequence <= :upToSequence) " +
+        "AND t.occurredAt >= COALESCE((SELECT MAX(a.rangeEnd) FROM ArchivedTransactionTotal a), t.occurredAt)"
+    )
+    BigDecimal sumSignedAmountUpToSequence(
+        @Param("walletId") UUID walletId,
+        @Param("currency") Currency currency,
+        @Param("upToSequence") long upToSequence
+    );
+
+    /**
+     * (afterSequence, upToSequence] aralığındaki işlemlerin signed toplamı: artımlı snapshot için
+     */
+    @Query(
+        "SELECT COALESCE(SUM(CASE WHEN t.direction = com.ekup.fintech.ledger.domain.TransactionDirection.CREDIT THEN t.amount ELSE -t.amount END), 0) " +
+        "FROM Transaction t " +
+        "WHERE t.walletId = :walletId AND t.currency = :currency AND t.sequence > :afterSequence AND t.sequence <= :upToSequence " +
+        "AND t.occurredAt >= :notBefore"
+    )
+    BigDecimal sumSignedAmountBetweenSequences(
+        @Param("walletId") UUID walletId,
+        @Param("currency") Currency currency,
+        @Param("afterSequence") long afterSequence,
+        @Param("upToSequence") long upToSequence,
+        @Param("notBefore") Instant notBefore
+    );
+
+    /**
+     * (afterSequence, upToSequence] aralığındaki işlem sayısı
+     */
+    @Query(
+        "SELECT COUNT(t) FROM Transaction t " +
+        "WHERE t.walletId = :walletId AND t.sequence > :afterSequence AND t.sequence <= :upToSequence " +
+        "AND t.occurredAt >= :notBefore"
+    )
+    Long countTransactionsBetweenSequences(
+        @Param("walletId") UUID walletId,
+        @Param("afterSequence") long afterSequence,
+        @Param("upToSequence") long upToSequence,
+        @Param("notBefore") Instant notBefore
+    );
+
+    /**
+     * Belirli bir sequence'ten sonraki işlem sayısı
+     */
+    @Query(
+        "SELECT COUNT(t) FROM Transaction t " +
+        "WHERE t.walletId = :walletId AND t.sequence > :afterSequence " +
+        "AND t.occurredAt >= :notBefore"
+    )
+    Long countTransactionsAfterSequence(
+        @Param("walletId") UUID walletId,
+        @Param("afterSequence") long afterSequence,
+        @Param("notBefore") Instant notBefore
+    );
+
+    /**
+     * Belirli bir sequence'e kadar (dahil) işlem sayısı
+     */
+    @Query(
+        "SELECT COUNT(t) + COALESCE((SELECT SUM(a.transactionCount) FROM ArchivedTransactionTotal a WHERE a.walletId = :walletId), 0) " +
+        "FROM Transaction t " +
+        "WHERE t.walletId = :walletId AND (t.sequence IS NULL OR t.sequence <= :upToSequence) " +
+        "AND t.occurredAt >= COALESCE((SELECT MAX(a.rangeEnd) FROM ArchivedTransactionTotal a), t.occurredAt)"
+    )
+    Long countTransactionsUpToSequence(@Param("walletId") UUID walletId, @Param("upToSequence") long upToSequence);
+
+    /**
+     * Wallet'ın commit edilmiş en yüksek sequence'i (hiç yoksa 0)
+     */
+    @Query("SELECT COALESCE(MAX(t.sequence), 0) FROM Transaction t WHERE t.walletId = :walletId")
+    Long findMaxSequence(@Param("walletId") UUID walletId);
+
+    /**
+     * Verilen sequence'e sahip işlemin ID'si
+     */
+    @Query("SELECT t.id FROM Transaction t WHERE t.walletId = :walletId AND t.sequence = :sequence")
+    Optional<UUID> findTransactionIdBySequence(@Param("walletId") UUID walletId, @Param("sequence") long sequence);
+
+    /**
+     * Belirli bir tarihten sonraki işlemlerin signed toplamını hesapla (last_sequence'i olmayan eski snapshot'lar için)
      */
     @Query(
         "SELECT COALESCE(SUM(CASE WHEN t.direction = com.ekup.fintech.ledger.domain.TransactionDirection.CREDIT THEN t.amount ELSE -t.amount END), 0) " +
@@ -34,7 +138,7 @@ public interface BalanceSnapshotJpaRepository extends JpaRepository<BalanceSnaps
     );
     
     /**
-     * Belirli bir tarihten sonraki işlem sayısını getir
+     * Belirli bir tarihten sonraki işlem sayısını getir (last_sequence'i olmayan eski snapshot'lar için)
      */
     @Query(
         "SELECT COUNT(t) FROM Transaction t " +
@@ -43,9 +147,14 @@ public interface BalanceSnapshotJpaRepository extends JpaRepository<BalanceSnaps
     Long countTransactionsAfter(@Param("walletId") UUID walletId, @Param("after") Instant after);
     
     /**
-     * Wallet için toplam işlem sayısı
+     * Wallet için toplam işlem sayısı (arşivlenmiş partition'lar dahil)
      */
-    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.walletId = :walletId")
+    @Query(
+        "SELECT COUNT(t) + COALESCE((SELECT SUM(a.transactionCount) FROM ArchivedTransactionTotal a WHERE a.walletId = :walletId), 0) " +
+        "FROM Transaction t " +
+        "WHERE t.walletId = :walletId " +
+        "AND t.occurredAt >= COALESCE((SELECT MAX(a.rangeEnd) FROM ArchivedTransactionTotal a), t.occurredAt)"
+    )
     Long countTransactionsByWalletId(@Param("walletId") UUID walletId);
     
     /**
@@ -59,6 +168,38 @@ public interface BalanceSnapshotJpaRepository extends JpaRepository<BalanceSnaps
     )
     Optional<UUID> findLastTransactionId(@Param("walletId") UUID walletId);
     
+    /**
+     * Son snapshot'ından beri en az minPostings işlem almış wallet'lar, wallet_id'ye göre keyset sayfalı.
+     * wallet_balances.last_sequence sayesinde transactions tablosu taranmaz.
+     */
+    @Query(
+        "SELECT b.walletId FROM WalletBalance b " +
+        "WHERE b.walletId > :afterWalletId " +
+        "AND b.lastSequence - COALESCE(" +
+        "  (SELECT MAX(s.lastSequence) FROM BalanceSnapshot s WHERE s.walletId = b.walletId), 0) >= :minPostings " +
+        "ORDER BY b.walletId " +
+        "LIMIT :limit"
+    )
+    List<UUID> findWalletsDueForSnapshot(
+        @Param("afterWalletId") UUID afterWalletId,
+        @Param("minPostings") long minPostings,
+        @Param("limit") int limit
+    );
+    
+    /**
+     * Snapshot'ı olan wallet'lar, wallet_id'ye göre keyset sayfalı (periyodik doğrulama için).
+     */
+    @Query(
+        "SELECT DISTINCT s.walletId FROM BalanceSnapshot s " +
+        "WHERE s.walletId > :afterWalletId " +
+        "ORDER BY s.walletId " +
+        "LIMIT :limit"
+    )
+    List<UUID> findWalletsWithSnapshots(
+        @Param("afterWalletId") UUID afterWalletId,
+        @Param("limit") int limit
+    );
+    
     /**
      * Eski snapshot'ları temizle (son N tane hariç)
      */
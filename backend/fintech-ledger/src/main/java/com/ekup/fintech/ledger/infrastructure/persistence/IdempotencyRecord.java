@@ -4,11 +4,16 @@ import java.time.Instant;
 import java.util.Objects;
 import java.util.UUID;
 
+import org.springframework.data.domain.Persistable;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.persistence.UniqueConstraint;
 
 @Entity
@@ -19,7 +24,7 @@ import jakarta.persistence.UniqueConstraint;
 				columnNames = { "operation", "idempotency_key" }
 		)
 )
-public class IdempotencyRecord {
+public class IdempotencyRecord implements Persistable<UUID> {
 	@Id
 	@Column(nullable = false)
 	private UUID id;
@@ -45,6 +50,9 @@ public class IdempotencyRecord {
 	@Column(name = "created_at", nullable = false, updatable = false)
 	private Instant createdAt;
 
+	@Transient
+	private boolean persisted;
+
 	protected IdempotencyRecord() {
 	}
 
@@ -73,10 +81,25 @@ public class IdempotencyRecord {
 		}
 	}
 
+	@PostPersist
+	@PostLoad
+	void markPersisted() {
+		this.persisted = true;
+	}
+
+	@Override
 	public UUID getId() {
 		return id;
 	}
 
+	/**
+	 * Assigned id: persist instead of merge so the insert needs no SELECT and can be batched.
+	 */
+	@Override
+	public boolean isNew() {
+		return !persisted;
+	}
+
 	public String getOperation() {
 		return operation;
 	}
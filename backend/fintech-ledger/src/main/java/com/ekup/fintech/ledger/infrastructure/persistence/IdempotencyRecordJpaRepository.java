@@ -1,10 +1,19 @@
 package com.ekup.fintech.ledger.infrastructure.persistence;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface IdempotencyRecordJpaRepository extends JpaRepository<IdempotencyRecord, UUID> {
-	Optional<IdempotencyRecord> findByOperationAndIdempotencyKey(String operation, UUID idempotencyKey);
+	/**
+	 * Only records created after {@code cutoff} (the retention window) are considered.
+	 */
+	Optional<IdempotencyRecord> findByOperationAndIdempotencyKeyAndCreatedAtAfter(String operation, UUID idempotencyKey, Instant cutoff);
+
+	List<IdempotencyRecord> findByOperationInAndIdempotencyKeyInAndCreatedAtAfter(
+			Collection<String> operations, Collection<UUID> idempotencyKeys, Instant cutoff);
 }
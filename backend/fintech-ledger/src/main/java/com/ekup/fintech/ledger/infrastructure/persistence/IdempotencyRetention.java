@@ -0,0 +1,34 @@
+package com.ekup.fintech.ledger.infrastructure.persistence;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Retention window for idempotency records. Keys older than the window are no longer
+ * replayed, and lookups filter on created_at so a partitioned table only scans live partitions.
+ */
+@Component
+public class IdempotencyRetention {
+	private final Duration retention;
+
+	public IdempotencyRetention(@Value("${fintech.idempotency.retention:P7D}") Duration retention) {
+		if (retention.isNegative() || retention.isZero()) {
+			throw new IllegalArgumentException("fintech.idempotency.retention must be positive");
+		}
+		this.retention = retention;
+	}
+
+	public Duration getRetention() {
+		return retention;
+	}
+
+	/**
+	 * Oldest created_at that is still inside the window.
+	 */
+	public Instant cutoff() {
+		return Instant.now().minus(retention);
+	}
+}
@@ -0,0 +1,42 @@
+package com.ekup.fintech.ledger.infrastructure.persistence;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.ekup.fintech.ledger.domain.Transaction;
+
+/**
+ * Single write path for ledger postings.
+ *
+ * All legs of a posting are handed to Hibernate together via saveAll. With
+ * {@code hibernate.jdbc.batch_size} and {@code order_inserts} set, the legs reach the
+ * database as one batched INSERT at flush time instead of one round trip per leg.
+ */
+@Component
+public class PostingWriter {
+	private final TransactionJpaRepository transactionRepository;
+
+	public PostingWriter(TransactionJpaRepository transactionRepository) {
+		this.transactionRepository = transactionRepository;
+	}
+
+	public Transaction write(Transaction posting) {
+		return transactionRepository.save(posting);
+	}
+
+	/**
+	 * Writes every leg of a multi-leg posting; the result keeps the argument order.
+	 */
+	public List<Transaction> write(Transaction... legs) {
+		return write(Arrays.asList(legs));
+	}
+
+	public List<Transaction> write(List<Transaction> postings) {
+		if (postings.isEmpty()) {
+			return List.of();
+		}
+		return transactionRepository.saveAll(postings);
+	}
+}
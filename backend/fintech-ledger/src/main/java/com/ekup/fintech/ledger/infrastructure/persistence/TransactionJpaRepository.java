@@ -2,12 +2,16 @@ package com.ekup.fintech.ledger.infrastructure.persistence;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import com.ekup.fintech.ledger.domain.ReferenceType;
@@ -16,19 +20,49 @@ import com.ekup.fintech.ledger.domain.TransactionDirection;
 import com.ekup.fintech.ledger.domain.TransactionGroupType;
 import com.ekup.fintech.shared.domain.Currency;
 
+import jakarta.persistence.QueryHint;
+
 public interface TransactionJpaRepository extends JpaRepository<Transaction, UUID> {
 	Page<Transaction> findByWalletId(UUID walletId, Pageable pageable);
 
+	// Open ends of an occurred_at range; bound instead of "is null or ..." so partitions can be pruned
+	Instant OCCURRED_MIN = Instant.EPOCH;
+	Instant OCCURRED_MAX = Instant.parse("9999-12-31T23:59:59Z");
+
+	/**
+	 * Number of postings of the wallet, including the ones in archived (detached) partitions.
+	 */
+	@Query(
+			"select count(t) + coalesce((select sum(a.transactionCount) from ArchivedTransactionTotal a where a.walletId = :walletId), 0) " +
+			"from Transaction t " +
+			"where t.walletId = :walletId " +
+			"and t.occurredAt >= coalesce((select max(a.rangeEnd) from ArchivedTransactionTotal a), t.occurredAt)"
+	)
+	long countByWalletId(@Param("walletId") UUID walletId);
+
+	default Page<Transaction> searchByWalletId(
+			UUID walletId,
+			TransactionDirection direction,
+			TransactionGroupType groupType,
+			ReferenceType referenceType,
+			Instant from,
+			Instant to,
+			Pageable pageable
+	) {
+		return searchByWalletIdBetween(walletId, direction, groupType, referenceType,
+				from != null ? from : OCCURRED_MIN, to != null ? to : OCCURRED_MAX, pageable);
+	}
+
 	@Query(
 			"select t from Transaction t " +
 			"where t.walletId = :walletId " +
 			"and (:direction is null or t.direction = :direction) " +
 			"and (:groupType is null or t.groupType = :groupType) " +
 			"and (:referenceType is null or t.referenceType = :referenceType) " +
-			"and (cast(:from as timestamp) is null or t.occurredAt >= :from) " +
-			"and (cast(:to as timestamp) is null or t.occurredAt <= :to)"
+			"and t.occurredAt >= :from " +
+			"and t.occurredAt <= :to"
 	)
-	Page<Transaction> searchByWalletId(
+	Page<Transaction> searchByWalletIdBetween(
 			@Param("walletId") UUID walletId,
 			@Param("direction") TransactionDirection direction,
 			@Param("groupType") TransactionGroupType groupType,
@@ -38,10 +72,71 @@ public interface TransactionJpaRepository extends JpaRepository<Transaction, UUI
 			Pageable pageable
 	);
 
+	/**
+	 * Whole filtered history oldest first, read through a forward-only cursor in fetch-size chunks.
+	 * Must be consumed (and closed) inside a read-only transaction.
+	 */
+	@QueryHints({
+			@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+	})
+	@Query(
+			"select t from Transaction t " +
+			"where t.walletId = :walletId " +
+			"and (:direction is null or t.direction = :direction) " +
+			"and (:groupType is null or t.groupType = :groupType) " +
+			"and (:referenceType is null or t.referenceType = :referenceType) " +
+			"and t.occurredAt >= :from " +
+			"and t.occurredAt <= :to " +
+			"order by t.occurredAt, t.id"
+	)
+	Stream<Transaction> streamByWalletId(
+			@Param("walletId") UUID walletId,
+			@Param("direction") TransactionDirection direction,
+			@Param("groupType") TransactionGroupType groupType,
+			@Param("referenceType") ReferenceType referenceType,
+			@Param("from") Instant from,
+			@Param("to") Instant to
+	);
+
+	/**
+	 * Keyset page of the wallet's history, newest first: rows strictly before (beforeOccurredAt, beforeId).
+	 * No COUNT and no OFFSET, so every page costs the same; callers fetch one extra row to detect more.
+	 */
+	@Query(
+			"select t from Transaction t " +
+			"where t.walletId = :walletId " +
+			"and (:direction is null or t.direction = :direction) " +
+			"and (:groupType is null or t.groupType = :groupType) " +
+			"and (:referenceType is null or t.referenceType = :referenceType) " +
+			"and t.occurredAt >= :from " +
+			"and t.occurredAt <= :to " +
+			"and t.occurredAt <= :beforeOccurredAt " +
+			"and (t.occurredAt < :beforeOccurredAt or t.id < :beforeId) " +
+			"order by t.occurredAt desc, t.id desc " +
+			"limit :limit"
+	)
+	List<Transaction> findPageBefore(
+			@Param("walletId") UUID walletId,
+			@Param("direction") TransactionDirection direction,
+			@Param("groupType") TransactionGroupType groupType,
+			@Param("referenceType") ReferenceType referenceType,
+			@Param("from") Instant from,
+			@Param("to") Instant to,
+			@Param("beforeOccurredAt") Instant beforeOccurredAt,
+			@Param("beforeId") UUID beforeId,
+			@Param("limit") int limit
+	);
+
+	/**
+	 * Signed SUM over the wallet's whole history: live postings plus the totals of archived partitions.
+	 */
 	@Query(
 			"select coalesce(sum(case when t.direction = com.ekup.fintech.ledger.domain.TransactionDirection.CREDIT then t.amount else -t.amount end), 0) " +
+			"+ coalesce((select sum(a.balance) from ArchivedTransactionTotal a where a.walletId = :walletId and a.currency = :currency), 0) " +
 			"from Transaction t " +
-			"where t.walletId = :walletId and t.currency = :currency"
+			"where t.walletId = :walletId and t.currency = :currency " +
+			"and t.occurredAt >= coalesce((select max(a.rangeEnd) from ArchivedTransactionTotal a), t.occurredAt)"
 	)
 	BigDecimal sumSignedAmount(@Param("walletId") UUID walletId, @Param("currency") Currency currency);
 }
@@ -0,0 +1,39 @@
+package com.ekup.fintech.ledger.infrastructure.persistence;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.ekup.fintech.ledger.domain.WalletBalance;
+
+import jakarta.persistence.LockModeType;
+
+public interface WalletBalanceJpaRepository extends JpaRepository<WalletBalance, UUID> {
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select b from WalletBalance b where b.walletId = :walletId")
+	Optional<WalletBalance> findForUpdate(@Param("walletId") UUID walletId);
+
+	/**
+	 * Seeds a balance row unless one already exists; returns 0 when a concurrent posting got there first.
+	 */
+	@Modifying
+	@Query(value = """
+			insert into wallet_balances (wallet_id, balance, currency, last_sequence, updated_at, version)
+			values (:walletId, :balance, :currency, :lastSequence, :updatedAt, 0)
+			on conflict do nothing
+			""", nativeQuery = true)
+	int insertIfAbsent(
+			@Param("walletId") UUID walletId,
+			@Param("balance") BigDecimal balance,
+			@Param("currency") String currency,
+			@Param("lastSequence") long lastSequence,
+			@Param("updatedAt") Instant updatedAt
+	);
+}
@@ -5,15 +5,24 @@ import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.ekup.fintech.auth.domain.User;
 import com.ekup.fintech.ledger.domain.Wallet;
 import com.ekup.fintech.shared.domain.Currency;
 
+import jakarta.persistence.LockModeType;
+
 public interface WalletJpaRepository extends JpaRepository<Wallet, UUID> {
 	boolean existsByOwnerAndBaseCurrency(User owner, Currency baseCurrency);
 
 	Optional<Wallet> findByOwnerAndBaseCurrency(User owner, Currency baseCurrency);
 
 	List<Wallet> findByOwner(User owner);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select w from Wallet w where w.id = :id")
+	Optional<Wallet> findForUpdate(@Param("id") UUID id);
 }
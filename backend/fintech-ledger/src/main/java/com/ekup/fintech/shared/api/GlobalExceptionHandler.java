@@ -7,14 +7,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import com.ekup.fintech.shared.exception.AccessDeniedException;
+import com.ekup.fintech.shared.exception.AuthenticationBusyException;
 import com.ekup.fintech.shared.exception.CurrencyMismatchException;
 import com.ekup.fintech.shared.exception.DomainException;
 import com.ekup.fintech.shared.exception.DuplicateResourceException;
@@ -23,9 +26,13 @@ import com.ekup.fintech.shared.exception.IdempotencyConflictException;
 import com.ekup.fintech.shared.exception.InsufficientBalanceException;
 import com.ekup.fintech.shared.exception.InvalidAmountException;
 import com.ekup.fintech.shared.exception.InvalidCredentialsException;
+import com.ekup.fintech.shared.exception.InvalidCursorException;
+import com.ekup.fintech.shared.exception.LedgerBusyException;
 import com.ekup.fintech.shared.exception.ResourceNotFoundException;
 import com.ekup.fintech.shared.exception.SameWalletTransferException;
+import com.ekup.fintech.shared.exception.UnsupportedExportFormatException;
 import com.ekup.fintech.shared.exception.WalletClosedException;
+import com.ekup.fintech.shared.exception.WalletLockTimeoutException;
 import com.ekup.fintech.shared.exception.WalletSuspendedException;
 
 /**
@@ -62,6 +69,18 @@ public class GlobalExceptionHandler {
 		return createProblemDetail(HttpStatus.BAD_REQUEST, ex.getMessage(), "SAME_WALLET_TRANSFER");
 	}
 
+	@ExceptionHandler(InvalidCursorException.class)
+	public ProblemDetail handleInvalidCursor(InvalidCursorException ex) {
+		log.warn("Invalid cursor: {}", ex.getMessage());
+		return createProblemDetail(HttpStatus.BAD_REQUEST, ex.getMessage(), "INVALID_CURSOR");
+	}
+
+	@ExceptionHandler(UnsupportedExportFormatException.class)
+	public ProblemDetail handleUnsupportedExportFormat(UnsupportedExportFormatException ex) {
+		log.warn("Unsupported export format: {}", ex.getMessage());
+		return createProblemDetail(HttpStatus.BAD_REQUEST, ex.getMessage(), "UNSUPPORTED_FORMAT");
+	}
+
 	// ==================== 409 CONFLICT ====================
 	@ExceptionHandler(DuplicateWalletException.class)
 	public ProblemDetail handleDuplicateWallet(DuplicateWalletException ex) {
@@ -81,6 +100,12 @@ public class GlobalExceptionHandler {
 		return createProblemDetail(HttpStatus.CONFLICT, ex.getMessage(), "DUPLICATE_RESOURCE");
 	}
 
+	@ExceptionHandler(WalletLockTimeoutException.class)
+	public ProblemDetail handleWalletLockTimeout(WalletLockTimeoutException ex) {
+		log.warn("Wallet lock timeout: {}", ex.getMessage());
+		return createProblemDetail(HttpStatus.CONFLICT, ex.getMessage(), "WALLET_LOCK_TIMEOUT");
+	}
+
 	// ==================== 401 UNAUTHORIZED ====================
 	@ExceptionHandler(InvalidCredentialsException.class)
 	public ProblemDetail handleInvalidCredentials(InvalidCredentialsException ex) {
@@ -114,6 +139,22 @@ public class GlobalExceptionHandler {
 		return createProblemDetail(HttpStatus.FORBIDDEN, ex.getMessage(), "WALLET_CLOSED");
 	}
 
+	// ==================== 429 TOO MANY REQUESTS ====================
+	@ExceptionHandler(AuthenticationBusyException.class)
+	public ResponseEntity<ProblemDetail> handleAuthenticationBusy(AuthenticationBusyException ex) {
+		log.warn("Authentication busy: {}", ex.getMessage());
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+				.header(HttpHeaders.RETRY_AFTER, "1")
+				.body(createProblemDetail(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), "AUTH_BUSY"));
+	}
+
+	// ==================== 503 SERVICE UNAVAILABLE ====================
+	@ExceptionHandler(LedgerBusyException.class)
+	public ProblemDetail handleLedgerBusy(LedgerBusyException ex) {
+		log.warn("Ledger busy: {}", ex.getMessage());
+		return createProblemDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), "LEDGER_BUSY");
+	}
+
 	// ==================== General Domain Exception ====================
 	@ExceptionHandler(DomainException.class)
 	public ProblemDetail handleDomainException(DomainException ex) {
@@ -0,0 +1,11 @@
+package com.ekup.fintech.shared.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class AuthenticationBusyException extends DomainException {
+	public AuthenticationBusyException(String message) {
+		super(message);
+	}
+}
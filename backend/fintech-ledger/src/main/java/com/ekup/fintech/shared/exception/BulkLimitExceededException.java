@@ -0,0 +1,11 @@
+package com.ekup.fintech.shared.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BulkLimitExceededException extends DomainException {
+	public BulkLimitExceededException(String message) {
+		super(message);
+	}
+}
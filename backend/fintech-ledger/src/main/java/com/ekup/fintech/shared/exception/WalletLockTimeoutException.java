@@ -0,0 +1,11 @@
+package com.ekup.fintech.shared.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class WalletLockTimeoutException extends DomainException {
+	public WalletLockTimeoutException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,13 @@
+package com.ekup.fintech.shared.infrastructure.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} for every module in one place, independent of which jobs are
+ * switched on. Scheduled components must not declare {@code @EnableScheduling} themselves.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,70 @@
+package com.ekup.fintech.shared.infrastructure.config;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.ekup.fintech.shared.infrastructure.persistence.ConnectionLimitingDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Virtual-thread mode ({@code spring.threads.virtual.enabled=true}).
+ *
+ * Spring Boot then serves Tomcat requests, {@code @Scheduled} jobs (balance snapshots,
+ * idempotency maintenance) and the application task executor on virtual threads. Request
+ * concurrency is no longer bounded by the Tomcat pool, so this config puts a
+ * {@link ConnectionLimitingDataSource} in front of HikariCP: callers queue on a fair semaphore
+ * instead of exhausting the pool.
+ *
+ * Pinning: ledger hot-path locks are {@code ReentrantLock}s and no JDBC call is made while a
+ * monitor is held. Run with {@code -Djdk.tracePinnedThreads=short} to verify after changes.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+	private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+	@Bean
+	public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+			@Value("${fintech.datasource.max-concurrent-connections:0}") int maxConcurrent,
+			@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+			@Value("${fintech.datasource.acquire-timeout-ms:5000}") long acquireTimeoutMillis
+	) {
+		// 0 -> Hikari havuz boyutu kadar eşzamanlı bağlantı
+		int permits = maxConcurrent > 0 ? maxConcurrent : poolSize;
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+					log.info("Limiting DataSource '{}' to {} concurrent connections for virtual threads", beanName, permits);
+					return new ConnectionLimitingDataSource(dataSource, permits, acquireTimeoutMillis);
+				}
+				return bean;
+			}
+		};
+	}
+
+	@Bean
+	public MeterBinder connectionLimiterMetrics(DataSource dataSource) {
+		return registry -> {
+			try {
+				ConnectionLimitingDataSource limiter = dataSource.unwrap(ConnectionLimitingDataSource.class);
+				Gauge.builder("fintech.datasource.limiter.active", limiter, ConnectionLimitingDataSource::getActive).register(registry);
+				Gauge.builder("fintech.datasource.limiter.waiting", limiter, ConnectionLimitingDataSource::getWaiting).register(registry);
+				Gauge.builder("fintech.datasource.limiter.max", limiter, ConnectionLimitingDataSource::getMaxConcurrent).register(registry);
+			} catch (SQLException e) {
+				log.warn("DataSource is not connection-limited; limiter metrics disabled");
+			}
+		};
+	}
+}
@@ -0,0 +1,50 @@
+-- Converts idempotency_records into a table range-partitioned by created_at (one partition per UTC day).
+-- PostgreSQL 12+. Run once during a maintenance window; IdempotencyPartitionMaintenance then
+-- pre-creates upcoming partitions and drops the ones older than fintech.idempotency.retention.
+--
+-- PostgreSQL requires the partition key in every unique index, so uniqueness becomes
+-- (operation, idempotency_key, created_at) and no longer rejects a second record for the same key.
+-- Duplicates are prevented by IdempotencyLockManager: every posting with a client key takes a
+-- transaction-scoped advisory lock on (operation, idempotency_key) before it looks the key up and
+-- inserts the record.
+
+BEGIN;
+
+ALTER TABLE idempotency_records RENAME TO idempotency_records_legacy;
+ALTER TABLE idempotency_records_legacy RENAME CONSTRAINT ux_idem_operation_key TO ux_idem_operation_key_legacy;
+
+CREATE TABLE idempotency_records (
+    id                  uuid                        NOT NULL,
+    operation           varchar(30)                 NOT NULL,
+    idempotency_key     uuid                        NOT NULL,
+    request_fingerprint varchar(300)                NOT NULL,
+    wallet_id           uuid,
+    transaction_id      uuid,
+    transaction_id_2    uuid,
+    created_at          timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (id, created_at),
+    CONSTRAINT ux_idem_operation_key UNIQUE (operation, idempotency_key, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Partitions for the last 7 days (default retention) plus the next 3, by UTC day like
+-- IdempotencyPartitionMaintenance; current_date would follow the session time zone
+DO $$
+DECLARE
+    today date := (now() AT TIME ZONE 'UTC')::date;
+    d date;
+BEGIN
+    FOR d IN SELECT generate_series(today - 7, today + 3, interval '1 day')::date LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS idempotency_records_p%s PARTITION OF idempotency_records FOR VALUES FROM (%L) TO (%L)',
+            to_char(d, 'YYYYMMDD'), d::timestamp AT TIME ZONE 'UTC', (d + 1)::timestamp AT TIME ZONE 'UTC');
+    END LOOP;
+END $$;
+
+INSERT INTO idempotency_records
+SELECT id, operation, idempotency_key, request_fingerprint, wallet_id, transaction_id, transaction_id_2, created_at
+FROM idempotency_records_legacy
+WHERE created_at >= ((now() AT TIME ZONE 'UTC')::date - 7)::timestamp AT TIME ZONE 'UTC';
+
+DROP TABLE idempotency_records_legacy;
+
+COMMIT;
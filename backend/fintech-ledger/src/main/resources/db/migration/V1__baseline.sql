@@ -0,0 +1,77 @@
+-- Baseline schema: matches what Hibernate generated with ddl-auto=update before migrations were introduced.
+-- Databases created that way are baselined at version 1 (spring.flyway.baseline-on-migrate) and skip this script,
+-- so everything added since goes into V2+ and this file must not change. Constraint names on such databases are
+-- Hibernate-generated; later migrations must not refer to the names used here.
+-- Idempotency partitioning stays a maintenance-window step: see db/idempotency_records_partitioned.sql.
+
+CREATE TABLE users (
+    id            uuid                        NOT NULL,
+    email         varchar(255)                NOT NULL,
+    password      varchar(255)                NOT NULL,
+    full_name     varchar(255),
+    enabled       boolean                     NOT NULL,
+    last_login_at timestamp(6) with time zone,
+    created_at    timestamp(6) with time zone NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT ux_users_email UNIQUE (email)
+);
+
+CREATE TABLE user_roles (
+    user_id uuid        NOT NULL,
+    role    varchar(20) NOT NULL,
+    CONSTRAINT pk_user_roles PRIMARY KEY (user_id, role),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT ck_user_roles_role CHECK (role IN ('USER', 'ADMIN'))
+);
+
+CREATE TABLE wallets (
+    id            uuid                        NOT NULL,
+    owner_id      uuid                        NOT NULL,
+    base_currency varchar(3)                  NOT NULL,
+    status        varchar(20)                 NOT NULL,
+    version       bigint,
+    created_at    timestamp(6) with time zone NOT NULL,
+    CONSTRAINT pk_wallets PRIMARY KEY (id),
+    CONSTRAINT ux_wallet_owner_currency UNIQUE (owner_id, base_currency),
+    CONSTRAINT fk_wallets_owner FOREIGN KEY (owner_id) REFERENCES users (id)
+);
+
+CREATE TABLE transactions (
+    id             uuid                        NOT NULL,
+    wallet_id      uuid                        NOT NULL,
+    amount         numeric(19, 4)              NOT NULL,
+    currency       varchar(3)                  NOT NULL,
+    direction      varchar(10)                 NOT NULL,
+    group_type     varchar(30)                 NOT NULL,
+    reference_type varchar(30)                 NOT NULL,
+    reference_id   uuid,
+    description    text,
+    occurred_at    timestamp(6) with time zone NOT NULL,
+    CONSTRAINT pk_transactions PRIMARY KEY (id)
+);
+
+CREATE TABLE balance_snapshots (
+    id                  uuid                        NOT NULL,
+    wallet_id           uuid                        NOT NULL,
+    balance             numeric(19, 4)              NOT NULL,
+    currency            varchar(3)                  NOT NULL,
+    snapshot_at         timestamp(6) with time zone NOT NULL,
+    transaction_count   bigint                      NOT NULL,
+    last_transaction_id uuid,
+    CONSTRAINT pk_balance_snapshots PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_snapshot_wallet_timestamp ON balance_snapshots (wallet_id, snapshot_at DESC);
+
+CREATE TABLE idempotency_records (
+    id                  uuid                        NOT NULL,
+    operation           varchar(30)                 NOT NULL,
+    idempotency_key     uuid                        NOT NULL,
+    request_fingerprint varchar(300)                NOT NULL,
+    wallet_id           uuid,
+    transaction_id      uuid,
+    transaction_id_2    uuid,
+    created_at          timestamp(6) with time zone NOT NULL,
+    CONSTRAINT pk_idempotency_records PRIMARY KEY (id),
+    CONSTRAINT ux_idem_operation_key UNIQUE (operation, idempotency_key)
+);
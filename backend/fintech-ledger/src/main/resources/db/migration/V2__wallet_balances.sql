@@ -0,0 +1,12 @@
+-- Materialized per-wallet balance, updated under a row lock with every posting.
+-- Wallets posted before this table existed get their row backfilled from the ledger on first use.
+
+CREATE TABLE wallet_balances (
+    wallet_id     uuid                        NOT NULL,
+    balance       numeric(19, 4)              NOT NULL,
+    currency      varchar(3)                  NOT NULL,
+    last_sequence bigint                      NOT NULL,
+    updated_at    timestamp(6) with time zone NOT NULL,
+    version       bigint,
+    CONSTRAINT pk_wallet_balances PRIMARY KEY (wallet_id)
+);
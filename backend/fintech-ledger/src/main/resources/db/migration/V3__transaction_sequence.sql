@@ -0,0 +1,8 @@
+-- Per-wallet posting sequence; snapshots are cut at a sequence instead of a timestamp.
+-- Rows posted before sequencing keep seq NULL, which the unique index allows more than once.
+
+ALTER TABLE transactions ADD COLUMN seq bigint;
+
+CREATE UNIQUE INDEX ux_transactions_wallet_seq ON transactions (wallet_id, seq);
+
+ALTER TABLE balance_snapshots ADD COLUMN last_sequence bigint;
@@ -0,0 +1,3 @@
+-- Covering index for per-wallet history and balance aggregation (index-only scans on PostgreSQL).
+
+CREATE INDEX idx_transactions_wallet_occurred ON transactions (wallet_id, occurred_at, currency, direction, amount);
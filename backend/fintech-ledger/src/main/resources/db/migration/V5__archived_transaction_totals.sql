@@ -0,0 +1,18 @@
+-- Per-wallet totals of transactions partitions detached to cold storage (see TransactionPartitionMaintenance).
+-- Full SUM/COUNT queries add these and skip live rows with occurred_at below the highest range_end.
+
+CREATE TABLE archived_transaction_totals (
+    id                uuid                        NOT NULL,
+    partition_name    varchar(63)                 NOT NULL,
+    wallet_id         uuid                        NOT NULL,
+    currency          varchar(3)                  NOT NULL,
+    balance           numeric(19, 4)              NOT NULL,
+    transaction_count bigint                      NOT NULL,
+    max_sequence      bigint,
+    range_end         timestamp(6) with time zone NOT NULL,
+    archived_at       timestamp(6) with time zone NOT NULL,
+    CONSTRAINT pk_archived_transaction_totals PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_archived_totals_wallet ON archived_transaction_totals (wallet_id, currency);
+CREATE INDEX idx_archived_totals_range_end ON archived_transaction_totals (range_end);
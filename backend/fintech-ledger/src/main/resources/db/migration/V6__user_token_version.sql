@@ -0,0 +1,6 @@
+-- JWTs carry the token_version they were issued with; bumping it (disable, revoke) invalidates them.
+-- tokens_revoked_at lets instances poll recent revocations instead of loading the user per request.
+ALTER TABLE users ADD COLUMN token_version bigint NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN tokens_revoked_at timestamp(6) with time zone;
+
+CREATE INDEX idx_users_tokens_revoked_at ON users (tokens_revoked_at);
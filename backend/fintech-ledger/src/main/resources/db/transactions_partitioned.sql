@@ -0,0 +1,57 @@
+-- Converts transactions into a table range-partitioned by occurred_at (one partition per UTC month).
+-- PostgreSQL 14+. Run once during a maintenance window, after the Flyway migrations; from then on
+-- TransactionPartitionMaintenance pre-creates upcoming months and can detach old ones
+-- (fintech.ledger.partitions.detach-after-months).
+--
+-- PostgreSQL requires the partition key in every unique index, so the primary key becomes
+-- (id, occurred_at) and the per-wallet sequence index becomes (wallet_id, seq, occurred_at).
+-- Sequences stay unique per wallet because they are assigned from wallet_balances.last_sequence
+-- under the wallet lock. There is deliberately no DEFAULT partition: it would block
+-- DETACH PARTITION ... CONCURRENTLY.
+
+BEGIN;
+
+ALTER TABLE transactions RENAME TO transactions_legacy;
+ALTER INDEX ux_transactions_wallet_seq RENAME TO ux_transactions_wallet_seq_legacy;
+ALTER INDEX idx_transactions_wallet_occurred RENAME TO idx_transactions_wallet_occurred_legacy;
+
+CREATE TABLE transactions (
+    id             uuid                        NOT NULL,
+    wallet_id      uuid                        NOT NULL,
+    amount         numeric(19, 4)              NOT NULL,
+    currency       varchar(3)                  NOT NULL,
+    direction      varchar(10)                 NOT NULL,
+    group_type     varchar(30)                 NOT NULL,
+    reference_type varchar(30)                 NOT NULL,
+    reference_id   uuid,
+    description    text,
+    occurred_at    timestamp(6) with time zone NOT NULL,
+    seq            bigint,
+    PRIMARY KEY (id, occurred_at)
+) PARTITION BY RANGE (occurred_at);
+
+CREATE UNIQUE INDEX ux_transactions_wallet_seq ON transactions (wallet_id, seq, occurred_at);
+CREATE INDEX idx_transactions_wallet_occurred ON transactions (wallet_id, occurred_at, currency, direction, amount);
+
+-- One partition per month from the oldest posting up to three months ahead
+DO $$
+DECLARE
+    m date;
+BEGIN
+    FOR m IN SELECT generate_series(
+            date_trunc('month', coalesce((SELECT min(occurred_at) FROM transactions_legacy), now()) AT TIME ZONE 'UTC'),
+            date_trunc('month', now() AT TIME ZONE 'UTC') + interval '3 months',
+            interval '1 month')::date LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS transactions_p%s PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+            to_char(m, 'YYYYMM'), m::timestamp AT TIME ZONE 'UTC', (m + interval '1 month')::timestamp AT TIME ZONE 'UTC');
+    END LOOP;
+END $$;
+
+INSERT INTO transactions
+SELECT id, wallet_id, amount, currency, direction, group_type, reference_type, reference_id, description, occurred_at, seq
+FROM transactions_legacy;
+
+DROP TABLE transactions_legacy;
+
+COMMIT;
@@ -0,0 +1,383 @@
+package com.ekup.fintech;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.ekup.fintech.shared.domain.Currency;
+
+/**
+ * Offline load test for the posting APIs: boots the whole application on a random port against
+ * the H2 (PostgreSQL mode) test database, registers users, creates a USD and an EUR wallet for
+ * each, funds them and then drives a weighted mix of deposits, withdrawals, transfers and FX
+ * conversions from virtual threads over real HTTP with JWT authentication.
+ *
+ * Prints throughput, p50/p99/p999 latency and response status counts per operation, then checks
+ * the ledger invariants directly in the database. Disabled unless explicitly requested:
+ *
+ * ./mvnw test -Dtest=PostingLoadTest -Dfintech.loadtest.enabled=true
+ *
+ * Tunables (system properties): fintech.loadtest.users (50), fintech.loadtest.concurrency (200),
+ * fintech.loadtest.operations (20000), fintech.loadtest.mix (deposit:30,withdrawal:20,transfer:40,fx:10).
+ * Application settings can be overridden the same way, e.g. -Dfintech.ledger.engine.mode=sharded.
+ */
+@SpringBootTest(
+		webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "fintech.security.jwt.enabled=true"
+)
+@EnabledIfSystemProperty(named = "fintech.loadtest.enabled", matches = "true")
+class PostingLoadTest {
+	private static final Logger log = LoggerFactory.getLogger(PostingLoadTest.class);
+
+	private static final Pattern ACCESS_TOKEN = Pattern.compile("\"accessToken\"\\s*:\\s*\"([^\"]+)\"");
+	private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*\"([^\"]+)\"");
+	private static final BigDecimal INITIAL_FUNDING = new BigDecimal("1000.00");
+
+	enum Operation {
+		DEPOSIT, WITHDRAWAL, TRANSFER, FX
+	}
+
+	private record Account(String token, UUID usdWallet, UUID eurWallet) {
+		UUID wallet(Currency currency) {
+			return currency == Currency.USD ? usdWallet : eurWallet;
+		}
+	}
+
+	@Value("${local.server.port}")
+	int port;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	private final int users = Integer.getInteger("fintech.loadtest.users", 50);
+	private final int concurrency = Integer.getInteger("fintech.loadtest.concurrency", 200);
+	private final int operations = Integer.getInteger("fintech.loadtest.operations", 20000);
+	private final Map<Operation, Integer> mix = parseMix(
+			System.getProperty("fintech.loadtest.mix", "deposit:30,withdrawal:20,transfer:40,fx:10"));
+
+	private final Map<Operation, ConcurrentLinkedQueue<Long>> latencies = new EnumMap<>(Operation.class);
+	private final Map<Operation, Map<Integer, LongAdder>> statuses = new EnumMap<>(Operation.class);
+
+	private HttpClient httpClient;
+
+	@Test
+	void postingMixKeepsLedgerConsistent() throws Exception {
+		for (Operation operation : Operation.values()) {
+			latencies.put(operation, new ConcurrentLinkedQueue<>());
+			statuses.put(operation, new ConcurrentHashMap<>());
+		}
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			httpClient = HttpClient.newBuilder()
+					.executor(executor)
+					.connectTimeout(Duration.ofSeconds(10))
+					.build();
+
+			List<Account> accounts = setUpAccounts(executor);
+			log.info("Load test: {} users, {} wallets funded; running {} operations with concurrency {} and mix {}",
+					users, accounts.size() * 2, operations, concurrency, mix);
+
+			AtomicInteger remaining = new AtomicInteger(operations);
+			long started = System.nanoTime();
+			List<Future<?>> workers = new ArrayList<>();
+			for (int i = 0; i < concurrency; i++) {
+				workers.add(executor.submit(() -> {
+					while (remaining.getAndDecrement() > 0) {
+						runOne(accounts);
+					}
+					return null;
+				}));
+			}
+			for (Future<?> worker : workers) {
+				worker.get();
+			}
+			Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+			report(elapsed);
+		}
+
+		List<String> violations = checkInvariants();
+		violations.forEach(v -> log.error("Invariant violation: {}", v));
+		assertThat(violations).isEmpty();
+		for (Operation operation : Operation.values()) {
+			// 503 LEDGER_BUSY is deliberate load shedding; any other 5xx or transport failure is a bug
+			assertThat(statuses.get(operation).keySet())
+					.as("unexpected statuses for %s", operation)
+					.allMatch(status -> status > 0 && (status < 500 || status == 503));
+		}
+	}
+
+	private List<Account> setUpAccounts(ExecutorService executor) throws Exception {
+		String runId = Long.toString(System.currentTimeMillis(), 36);
+		List<Future<Account>> futures = new ArrayList<>();
+		for (int i = 0; i < users; i++) {
+			int index = i;
+			futures.add(executor.submit(() -> {
+				String registered = call("POST", "/api/v1/auth/register", null, """
+						{"email":"load-%d-%s@example.com","password":"password123","fullName":"Load User %d"}
+						""".formatted(index, runId, index), 200, 201);
+				String token = extract(ACCESS_TOKEN, registered);
+				UUID usd = createWallet(token, Currency.USD);
+				UUID eur = createWallet(token, Currency.EUR);
+				for (UUID wallet : List.of(usd, eur)) {
+					call("POST", "/api/v1/deposits", token, depositBody(wallet, INITIAL_FUNDING,
+							wallet.equals(usd) ? Currency.USD : Currency.EUR), 200);
+				}
+				return new Account(token, usd, eur);
+			}));
+		}
+		List<Account> accounts = new ArrayList<>();
+		for (Future<Account> future : futures) {
+			accounts.add(future.get());
+		}
+		return accounts;
+	}
+
+	private UUID createWallet(String token, Currency currency) throws Exception {
+		String body = call("POST", "/api/v1/wallets", token, """
+				{"baseCurrency":"%s"}
+				""".formatted(currency), 201);
+		return UUID.fromString(extract(ID, body));
+	}
+
+	private void runOne(List<Account> accounts) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Operation operation = pick(random.nextInt(100));
+		Account account = accounts.get(random.nextInt(accounts.size()));
+		Currency currency = random.nextBoolean() ? Currency.USD : Currency.EUR;
+		String path;
+		String body;
+		switch (operation) {
+			case DEPOSIT -> {
+				path = "/api/v1/deposits";
+				body = depositBody(account.wallet(currency), amount(random, 10, 500), currency);
+			}
+			case WITHDRAWAL -> {
+				path = "/api/v1/withdrawals";
+				body = """
+						{"walletId":"%s","amount":%s,"currency":"%s","idempotencyKey":"%s"}
+						""".formatted(account.wallet(currency), amount(random, 10, 300), currency, UUID.randomUUID());
+			}
+			case TRANSFER -> {
+				Account target = accounts.get(random.nextInt(accounts.size()));
+				if (target == account) {
+					target = accounts.get((accounts.indexOf(account) + 1) % accounts.size());
+				}
+				path = "/api/v1/transfers";
+				body = """
+						{"sourceWalletId":"%s","targetWalletId":"%s","amount":%s,"currency":"%s","idempotencyKey":"%s"}
+						""".formatted(account.wallet(currency), target.wallet(currency), amount(random, 1, 200),
+						currency, UUID.randomUUID());
+			}
+			default -> {
+				Currency other = currency == Currency.USD ? Currency.EUR : Currency.USD;
+				path = "/api/v1/fx/convert";
+				body = """
+						{"sourceWalletId":"%s","targetWalletId":"%s","amount":%s,"sourceCurrency":"%s","idempotencyKey":"%s"}
+						""".formatted(account.wallet(currency), account.wallet(other), amount(random, 1, 100),
+						currency, UUID.randomUUID());
+			}
+		}
+
+		long start = System.nanoTime();
+		int status;
+		try {
+			status = send("POST", path, account.token(), body).statusCode();
+		} catch (Exception e) {
+			status = -1;
+		}
+		latencies.get(operation).add(System.nanoTime() - start);
+		statuses.get(operation).computeIfAbsent(status, s -> new LongAdder()).increment();
+	}
+
+	private void report(Duration elapsed) {
+		double seconds = elapsed.toNanos() / 1_000_000_000.0;
+		long total = latencies.values().stream().mapToLong(ConcurrentLinkedQueue::size).sum();
+		StringBuilder report = new StringBuilder()
+				.append(String.format("%n=== Posting load test: %d requests in %.2fs, %.1f req/s ===%n", total, seconds, total / seconds))
+				.append(String.format("%-10s %8s %10s %9s %9s %9s %9s  %s%n",
+						"operation", "count", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "statuses"));
+		for (Operation operation : Operation.values()) {
+			long[] sorted = latencies.get(operation).stream().mapToLong(Long::longValue).sorted().toArray();
+			if (sorted.length == 0) {
+				continue;
+			}
+			Map<Integer, Long> byStatus = new TreeMap<>();
+			statuses.get(operation).forEach((status, count) -> byStatus.put(status, count.sum()));
+			report.append(String.format("%-10s %8d %10.1f %9.2f %9.2f %9.2f %9.2f  %s%n",
+					operation, sorted.length, sorted.length / seconds,
+					millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+					millis(percentile(sorted, 0.999)), millis(sorted[sorted.length - 1]), byStatus));
+		}
+		log.info(report.toString());
+	}
+
+	/**
+	 * Ledger kuralları: bakiye negatif olamaz, wallet_balances ve snapshot'lar transactions toplamıyla
+	 * tutmalı, transfer/FX bacakları eksiksiz olmalı ve başarılı istek sayıları yazılan kayıtlarla eşleşmeli.
+	 */
+	private List<String> checkInvariants() {
+		List<String> violations = new ArrayList<>();
+		String signedAmount = "case when direction = 'CREDIT' then amount else -amount end";
+
+		jdbcTemplate.query("select wallet_id, sum(" + signedAmount + ") as total from transactions group by wallet_id having sum("
+				+ signedAmount + ") < 0", rs -> {
+			violations.add("negative balance " + rs.getBigDecimal("total") + " on wallet " + rs.getString("wallet_id"));
+		});
+
+		jdbcTemplate.query("""
+				select b.wallet_id, b.balance, coalesce(t.total, 0) as total
+				from wallet_balances b
+				left join (select wallet_id, sum(%s) as total from transactions group by wallet_id) t on t.wallet_id = b.wallet_id
+				where b.balance <> coalesce(t.total, 0)
+				""".formatted(signedAmount), rs -> {
+			violations.add("wallet_balances " + rs.getBigDecimal("balance") + " != SUM " + rs.getBigDecimal("total")
+					+ " on wallet " + rs.getString("wallet_id"));
+		});
+
+		jdbcTemplate.query("""
+				select s.wallet_id, s.balance, s.last_sequence,
+					(select coalesce(sum(%s), 0) from transactions t where t.wallet_id = s.wallet_id and t.seq <= s.last_sequence) as total
+				from balance_snapshots s
+				where s.last_sequence is not null
+				""".formatted(signedAmount), rs -> {
+			if (rs.getBigDecimal("balance").compareTo(rs.getBigDecimal("total")) != 0) {
+				violations.add("snapshot " + rs.getBigDecimal("balance") + " != SUM " + rs.getBigDecimal("total")
+						+ " up to seq " + rs.getLong("last_sequence") + " on wallet " + rs.getString("wallet_id"));
+			}
+		});
+
+		jdbcTemplate.query("""
+				select reference_type, reference_id, count(*) as legs
+				from transactions
+				where reference_type in ('TRANSFER', 'FX_EXCHANGE')
+				group by reference_type, reference_id
+				having count(*) <> 2
+				""", rs -> {
+			violations.add(rs.getString("reference_type") + " " + rs.getString("reference_id") + " has " + rs.getInt("legs") + " legs");
+		});
+
+		jdbcTemplate.query("""
+				select reference_id, sum(%s) as total
+				from transactions
+				where reference_type = 'TRANSFER'
+				group by reference_id
+				having sum(%s) <> 0
+				""".formatted(signedAmount, signedAmount), rs -> {
+			violations.add("transfer " + rs.getString("reference_id") + " does not net to zero: " + rs.getBigDecimal("total"));
+		});
+
+		reconcile(violations, Operation.DEPOSIT, "DEPOSIT", 1, users * 2L);
+		reconcile(violations, Operation.WITHDRAWAL, "WITHDRAWAL", 1, 0);
+		reconcile(violations, Operation.TRANSFER, "TRANSFER", 2, 0);
+		reconcile(violations, Operation.FX, "FX_EXCHANGE", 2, 0);
+		return violations;
+	}
+
+	private void reconcile(List<String> violations, Operation operation, String referenceType, int legs, long setUpPostings) {
+		LongAdder ok = statuses.get(operation).get(200);
+		long expected = (ok != null ? ok.sum() : 0) * legs + setUpPostings * legs;
+		Long actual = jdbcTemplate.queryForObject(
+				"select count(*) from transactions where reference_type = ?", Long.class, referenceType);
+		if (actual == null || actual != expected) {
+			violations.add(operation + ": expected " + expected + " ledger rows from successful requests, found " + actual);
+		}
+	}
+
+	private Operation pick(int roll) {
+		int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+		int scaled = roll * total / 100;
+		for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+			scaled -= entry.getValue();
+			if (scaled < 0) {
+				return entry.getKey();
+			}
+		}
+		return Operation.DEPOSIT;
+	}
+
+	private String call(String method, String path, String token, String body, int... expected) throws Exception {
+		HttpResponse<String> response = send(method, path, token, body);
+		if (Arrays.stream(expected).noneMatch(status -> status == response.statusCode())) {
+			throw new IllegalStateException(method + " " + path + " returned " + response.statusCode() + ": " + response.body());
+		}
+		return response.body();
+	}
+
+	private HttpResponse<String> send(String method, String path, String token, String body) throws Exception {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.timeout(Duration.ofSeconds(30))
+				.header("Content-Type", "application/json")
+				.method(method, HttpRequest.BodyPublishers.ofString(body));
+		if (token != null) {
+			request.header("Authorization", "Bearer " + token);
+		}
+		return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+	}
+
+	private static String depositBody(UUID walletId, BigDecimal amount, Currency currency) {
+		return """
+				{"walletId":"%s","amount":%s,"currency":"%s","idempotencyKey":"%s"}
+				""".formatted(walletId, amount.toPlainString(), currency, UUID.randomUUID());
+	}
+
+	private static BigDecimal amount(ThreadLocalRandom random, int min, int max) {
+		return BigDecimal.valueOf(random.nextLong(min * 100L, max * 100L + 1), 2);
+	}
+
+	private static String extract(Pattern pattern, String body) {
+		Matcher matcher = pattern.matcher(body);
+		if (!matcher.find()) {
+			throw new IllegalStateException("Unexpected response: " + body);
+		}
+		return matcher.group(1);
+	}
+
+	private static long percentile(long[] sorted, double quantile) {
+		int index = (int) Math.ceil(quantile * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1_000_000.0;
+	}
+
+	private static Map<Operation, Integer> parseMix(String spec) {
+		Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+		for (String part : spec.split(",")) {
+			String[] pair = part.trim().split(":");
+			weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+		}
+		return weights;
+	}
+}
@@ -11,7 +11,9 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.Mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -25,7 +27,9 @@ import com.ekup.fintech.auth.api.dto.AuthResponse;
 import com.ekup.fintech.auth.api.dto.RegisterRequest;
 import com.ekup.fintech.auth.domain.Role;
 import com.ekup.fintech.auth.domain.User;
+import com.ekup.fintech.auth.infrastructure.LastLoginBuffer;
 import com.ekup.fintech.auth.infrastructure.UserRepository;
+import com.ekup.fintech.shared.exception.AuthenticationBusyException;
 import com.ekup.fintech.shared.exception.DuplicateResourceException;
 import com.ekup.fintech.shared.exception.InvalidCredentialsException;
 
@@ -44,11 +48,14 @@ class AuthServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private LastLoginBuffer lastLoginBuffer;
+
     private AuthService authService;
 
     @BeforeEach
     void setUp() {
-        authService = new AuthService(userRepository, passwordEncoder, jwtService, authenticationManager);
+        authService = new AuthService(userRepository, passwordEncoder, jwtService, authenticationManager, lastLoginBuffer);
     }
 
     @Nested
@@ -107,7 +114,6 @@ class AuthServiceTest {
             when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
             when(userRepository.findByEmail(request.email())).thenReturn(Optional.of(user));
-            when(userRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
             when(jwtService.generateToken(any())).thenReturn("access-token");
             when(jwtService.generateRefreshToken(any())).thenReturn("refresh-token");
 
@@ -118,7 +124,8 @@ class AuthServiceTest {
             assertThat(response.accessToken()).isEqualTo("access-token");
             assertThat(response.email()).isEqualTo(request.email());
             
-            verify(userRepository).save(any(User.class)); // recordLogin
+            verify(lastLoginBuffer).record(eq(user.getId()), any());
+            verify(userRepository, never()).save(any(User.class));
         }
 
         @Test
@@ -135,6 +142,20 @@ class AuthServiceTest {
                 .isInstanceOf(InvalidCredentialsException.class)
                 .hasMessageContaining("Invalid email or password");
         }
+
+        @Test
+        @DisplayName("should not turn a saturated hashing pool into invalid credentials")
+        void shouldPropagateHashingBusy() {
+            // Given
+            AuthRequest request = new AuthRequest("test@example.com", "password");
+            
+            when(authenticationManager.authenticate(any()))
+                .thenThrow(new AuthenticationBusyException("Too many authentication requests in progress, please retry"));
+
+            // When/Then
+            assertThatThrownBy(() -> authService.authenticate(request))
+                .isInstanceOf(AuthenticationBusyException.class);
+        }
     }
 
     @Nested
@@ -14,6 +14,9 @@ import org.springframework.test.context.TestPropertySource;
 
 import com.ekup.fintech.auth.domain.Role;
 import com.ekup.fintech.auth.domain.User;
+import com.ekup.fintech.auth.infrastructure.VerifiedTokenCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @SpringBootTest
 @TestPropertySource(properties = {
@@ -26,10 +29,14 @@ class JwtServiceTest {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
     private User testUser;
 
     @BeforeEach
     void setUp() {
+        tokenCache.clear();
         testUser = User.create("test@example.com", "encoded-password", "Test User", Set.of(Role.USER));
     }
 
@@ -122,4 +129,96 @@ class JwtServiceTest {
                 .isInstanceOf(Exception.class);
         }
     }
+
+    @Nested
+    @DisplayName("verify")
+    class VerifyTests {
+
+        @Test
+        @DisplayName("should verify a token once and serve later calls from the cache")
+        void shouldCacheVerifiedToken() {
+            // Given
+            String token = jwtService.generateToken(testUser);
+
+            // When
+            JwtService.VerifiedToken first = jwtService.verify(token);
+            JwtService.VerifiedToken second = jwtService.verify(token);
+
+            // Then
+            assertThat(second).isSameAs(first);
+            assertThat(first.subject()).isEqualTo(testUser.getEmail());
+            assertThat(first.isValidFor(testUser)).isTrue();
+            assertThat(tokenCache.size()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should reject a tampered token even after the original was cached")
+        void shouldRejectTamperedToken() {
+            // Given
+            String token = jwtService.generateToken(testUser);
+            jwtService.verify(token);
+            int signature = token.lastIndexOf('.') + 1;
+            char replaced = token.charAt(signature) == 'A' ? 'B' : 'A';
+            String tampered = token.substring(0, signature) + replaced + token.substring(signature + 1);
+
+            // When/Then
+            assertThatThrownBy(() -> jwtService.verify(tampered))
+                .isInstanceOf(Exception.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("stateless principal")
+    class StatelessPrincipalTests {
+
+        private final JwtService statelessJwtService = new JwtService(
+            "dGhpc2lzYXRlc3RzZWNyZXRrZXl0aGF0aXNsb25nZW5vdWdoZm9ydGVzdGluZw==", 3600000, 86400000, true,
+            new VerifiedTokenCache(true, 100, new SimpleMeterRegistry()));
+
+        @Test
+        @DisplayName("should rebuild the principal from token claims")
+        void shouldRebuildPrincipalFromClaims() {
+            // Given
+            String token = statelessJwtService.generateToken(testUser);
+
+            // When
+            JwtService.VerifiedToken verified = statelessJwtService.verify(token);
+            User principal = verified.toPrincipal();
+
+            // Then
+            assertThat(verified.hasPrincipal()).isTrue();
+            assertThat(principal.getId()).isEqualTo(testUser.getId());
+            assertThat(principal.getUsername()).isEqualTo(testUser.getEmail());
+            assertThat(principal.getAuthorities()).isEqualTo(testUser.getAuthorities());
+            assertThat(verified.isValidFor(principal)).isTrue();
+        }
+
+        @Test
+        @DisplayName("should invalidate tokens of revoked or disabled users")
+        void shouldInvalidateRevokedTokens() {
+            // Given
+            String token = statelessJwtService.generateToken(testUser);
+            User disabledUser = User.create("disabled@example.com", "password", "Disabled", Set.of(Role.USER));
+            String disabledToken = statelessJwtService.generateToken(disabledUser);
+
+            // When
+            testUser.revokeTokens();
+            disabledUser.setEnabled(false);
+
+            // Then
+            assertThat(statelessJwtService.isTokenValid(token, testUser)).isFalse();
+            assertThat(statelessJwtService.isTokenValid(statelessJwtService.generateToken(testUser), testUser)).isTrue();
+            assertThat(statelessJwtService.isTokenValid(disabledToken, disabledUser)).isFalse();
+        }
+
+        @Test
+        @DisplayName("should not embed principal claims unless enabled")
+        void shouldNotEmbedClaimsByDefault() {
+            // Given
+            String token = jwtService.generateToken(testUser);
+
+            // When/Then
+            assertThat(jwtService.verify(token).hasPrincipal()).isFalse();
+        }
+    }
 }
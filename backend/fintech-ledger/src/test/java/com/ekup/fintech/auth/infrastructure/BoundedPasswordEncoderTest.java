@@ -0,0 +1,95 @@
+package com.ekup.fintech.auth.infrastructure;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.ekup.fintech.shared.exception.AuthenticationBusyException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("hashes on the pool and reports the cost")
+    void hashesAndReportsCost() throws Exception {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 4, 1, 4, meterRegistry);
+        try {
+            String hash = encoder.encode("secret");
+
+            assertThat(encoder.matches("secret", hash)).isTrue();
+            assertThat(encoder.matches("wrong", hash)).isFalse();
+            assertThat(meterRegistry.get("fintech.auth.password.hash.cost").gauge().value()).isEqualTo(4.0);
+            assertThat(meterRegistry.get("fintech.auth.password.hash.duration")
+                .tag("operation", "matches").tag("cost", "04").timer().count()).isEqualTo(2);
+        } finally {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("hashes below the configured cost are flagged for upgrade")
+    void upgradesWeakerHashes() throws Exception {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 5, 1, 4, meterRegistry);
+        try {
+            assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret"))).isTrue();
+            assertThat(encoder.upgradeEncoding(encoder.encode("secret"))).isFalse();
+            assertThat(meterRegistry.get("fintech.auth.password.hash.upgrades").counter().count()).isEqualTo(1.0);
+        } finally {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    @DisplayName("rejects at once when the pool and its queue are full")
+    void rejectsWhenSaturated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BlockingEncoder(started, release), 10, 1, 1, meterRegistry);
+        try {
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+            while (meterRegistry.get("fintech.auth.password.hash.queue.depth").gauge().value() < 1) {
+                Thread.onSpinWait();
+            }
+
+            assertThatThrownBy(() -> encoder.encode("third")).isInstanceOf(AuthenticationBusyException.class);
+            assertThat(meterRegistry.get("fintech.auth.password.hash.rejected").counter().count()).isEqualTo(1.0);
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:first");
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:second");
+        } finally {
+            release.countDown();
+            encoder.destroy();
+        }
+    }
+
+    private record BlockingEncoder(CountDownLatch started, CountDownLatch release) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
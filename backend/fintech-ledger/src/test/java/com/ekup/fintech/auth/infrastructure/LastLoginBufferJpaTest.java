@@ -0,0 +1,64 @@
+package com.ekup.fintech.auth.infrastructure;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ekup.fintech.auth.domain.Role;
+import com.ekup.fintech.auth.domain.User;
+
+// Zamanlanmış flush testin kendi flush'ıyla yarışmasın
+@SpringBootTest(properties = "fintech.auth.last-login.flush-ms=3600000")
+@Transactional
+class LastLoginBufferJpaTest {
+
+    @Autowired
+    private LastLoginBuffer lastLoginBuffer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void flushWritesTheLatestLoginPerUserOnce() {
+        User user = userRepository.saveAndFlush(User.create("login-" + System.nanoTime() + "@example.com", "encoded", "Login", Set.of(Role.USER)));
+        Instant first = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Instant latest = first.plusSeconds(30);
+
+        lastLoginBuffer.record(user.getId(), first);
+        lastLoginBuffer.record(user.getId(), latest);
+        lastLoginBuffer.record(user.getId(), first.plusSeconds(10));
+        assertThat(lastLoginBuffer.pendingCount()).isGreaterThanOrEqualTo(1);
+
+        lastLoginBuffer.flush();
+
+        assertThat(lastLoginAt(user)).isEqualTo(latest);
+        assertThat(lastLoginBuffer.pendingCount()).isZero();
+    }
+
+    @Test
+    void flushNeverMovesLastLoginBackwards() {
+        User user = userRepository.saveAndFlush(User.create("login-" + System.nanoTime() + "@example.com", "encoded", "Login", Set.of(Role.USER)));
+        Instant latest = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        jdbcTemplate.update("update users set last_login_at = ? where id = ?", Timestamp.from(latest), user.getId());
+
+        lastLoginBuffer.record(user.getId(), latest.minusSeconds(60));
+        lastLoginBuffer.flush();
+
+        assertThat(lastLoginAt(user)).isEqualTo(latest);
+    }
+
+    private Instant lastLoginAt(User user) {
+        return jdbcTemplate.queryForObject("select last_login_at from users where id = ?", Timestamp.class, user.getId()).toInstant();
+    }
+}
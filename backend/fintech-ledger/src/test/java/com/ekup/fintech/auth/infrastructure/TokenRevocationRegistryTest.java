@@ -0,0 +1,84 @@
+package com.ekup.fintech.auth.infrastructure;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import static org.mockito.ArgumentMatchers.any;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.ekup.fintech.auth.domain.Role;
+import com.ekup.fintech.auth.domain.User;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationRegistryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private TokenRevocationRegistry registry(int maxEntries) {
+        return new TokenRevocationRegistry(userRepository, true, 3_600_000, maxEntries, new SimpleMeterRegistry());
+    }
+
+    @Test
+    @DisplayName("tokens issued before a revocation or for a disabled user are rejected")
+    void rejectsRevokedTokens() {
+        User revoked = user();
+        revoked.revokeTokens();
+        User disabled = user();
+        disabled.setEnabled(false);
+        User untouched = user();
+        when(userRepository.findByTokensRevokedAtGreaterThanEqual(any())).thenReturn(List.of(revoked, disabled));
+
+        TokenRevocationRegistry registry = registry(10);
+        assertThat(registry.isComplete()).isFalse();
+        registry.refresh();
+
+        assertThat(registry.isComplete()).isTrue();
+        assertThat(registry.isCurrent(revoked.getId(), 0)).isFalse();
+        assertThat(registry.isCurrent(revoked.getId(), revoked.getTokenVersion())).isTrue();
+        assertThat(registry.isCurrent(disabled.getId(), disabled.getTokenVersion())).isFalse();
+        assertThat(registry.isCurrent(untouched.getId(), 0)).isTrue();
+    }
+
+    @Test
+    @DisplayName("more revocations than max-entries leave the registry incomplete")
+    void incompleteAboveMaxEntries() {
+        User first = user();
+        first.revokeTokens();
+        User second = user();
+        second.revokeTokens();
+        when(userRepository.findByTokensRevokedAtGreaterThanEqual(any())).thenReturn(List.of(first, second));
+
+        TokenRevocationRegistry registry = registry(1);
+        registry.refresh();
+
+        assertThat(registry.isComplete()).isFalse();
+    }
+
+    @Test
+    @DisplayName("a failed refresh falls back to loading the user")
+    void incompleteAfterFailedRefresh() {
+        when(userRepository.findByTokensRevokedAtGreaterThanEqual(any()))
+            .thenReturn(List.of())
+            .thenThrow(new IllegalStateException("database down"));
+
+        TokenRevocationRegistry registry = registry(10);
+        registry.refresh();
+        assertThat(registry.isComplete()).isTrue();
+
+        registry.refresh();
+        assertThat(registry.isComplete()).isFalse();
+    }
+
+    private static User user() {
+        return User.create("user-" + System.nanoTime() + "@example.com", "encoded", "User", Set.of(Role.USER));
+    }
+}
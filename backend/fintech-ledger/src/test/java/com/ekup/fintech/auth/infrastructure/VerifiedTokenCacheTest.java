@@ -0,0 +1,57 @@
+package com.ekup.fintech.auth.infrastructure;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VerifiedTokenCacheTest {
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("a verified token is served from the cache until it expires")
+    void servesUntilExpiry() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 10, meterRegistry);
+
+        cache.put("token-a", "alice", NOW.plusSeconds(60));
+
+        assertThat(cache.<String>get("token-a", NOW)).isEqualTo("alice");
+        assertThat(cache.<String>get("token-b", NOW)).isNull();
+        assertThat(meterRegistry.get("fintech.jwt.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1.0);
+
+        assertThat(cache.<String>get("token-a", NOW.plusSeconds(60))).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("size is bounded by evicting the least recently used token")
+    void boundedSize() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(true, 2, meterRegistry);
+        Instant expiresAt = NOW.plusSeconds(60);
+
+        cache.put("token-a", "a", expiresAt);
+        cache.put("token-b", "b", expiresAt);
+        cache.get("token-a", NOW);
+        cache.put("token-c", "c", expiresAt);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.<String>get("token-a", NOW)).isEqualTo("a");
+        assertThat(cache.<String>get("token-b", NOW)).isNull();
+    }
+
+    @Test
+    @DisplayName("nothing is cached when disabled")
+    void disabled() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(false, 10, meterRegistry);
+
+        cache.put("token-a", "alice", NOW.plusSeconds(60));
+
+        assertThat(cache.<String>get("token-a", NOW)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+}
@@ -0,0 +1,109 @@
+package com.ekup.fintech.ledger.api;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ekup.fintech.ledger.api.dto.CursorPageResponse;
+import com.ekup.fintech.ledger.api.dto.TransactionResponse;
+import com.ekup.fintech.ledger.domain.ReferenceType;
+import com.ekup.fintech.ledger.domain.Transaction;
+import com.ekup.fintech.ledger.domain.TransactionDirection;
+import com.ekup.fintech.ledger.domain.TransactionGroupType;
+import com.ekup.fintech.ledger.infrastructure.persistence.PostingWriter;
+import com.ekup.fintech.shared.domain.Currency;
+import com.ekup.fintech.shared.domain.Money;
+import com.ekup.fintech.shared.exception.InvalidCursorException;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+@Transactional
+class TransactionCursorPagingJpaTest {
+	@Autowired
+	TransactionController controller;
+
+	@Autowired
+	PostingWriter postingWriter;
+
+	@Autowired
+	EntityManager entityManager;
+
+	private final UUID walletId = UUID.randomUUID();
+	private final Instant start = Instant.now().minus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.SECONDS);
+
+	@BeforeEach
+	void seed() {
+		// 25 posting, her occurred_at değerinden üçer tane: sayfa sınırları eşit zaman damgalarına denk gelir
+		List<Transaction> postings = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			Instant occurredAt = start.plus(i / 3, ChronoUnit.MINUTES);
+			Money amount = Money.of(BigDecimal.valueOf(i + 1), Currency.USD);
+			postings.add(i % 2 == 0
+					? Transaction.credit(walletId, amount, TransactionGroupType.USER_ACTION, ReferenceType.DEPOSIT, UUID.randomUUID(), "seed", occurredAt)
+					: Transaction.debit(walletId, amount, TransactionGroupType.USER_ACTION, ReferenceType.WITHDRAWAL, UUID.randomUUID(), "seed", occurredAt));
+		}
+		postingWriter.write(postings);
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void pagesThroughHistoryNewestFirstWithoutGapsOrDuplicates() {
+		List<TransactionResponse> seen = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			CursorPageResponse<TransactionResponse> page = controller.listWalletTransactionsByCursor(walletId, null, null, null, null, null, cursor, 10);
+			seen.addAll(page.items());
+			assertThat(page.hasMore()).isEqualTo(page.nextCursor() != null);
+			cursor = page.nextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertThat(pages).isEqualTo(3);
+		assertThat(seen).hasSize(25);
+		Set<UUID> ids = new HashSet<>();
+		seen.forEach(tx -> ids.add(tx.id()));
+		assertThat(ids).hasSize(25);
+		for (int i = 1; i < seen.size(); i++) {
+			assertThat(seen.get(i).occurredAt()).isBeforeOrEqualTo(seen.get(i - 1).occurredAt());
+		}
+	}
+
+	@Test
+	void filtersApplyAcrossPages() {
+		List<TransactionResponse> credits = new ArrayList<>();
+		String cursor = null;
+		do {
+			CursorPageResponse<TransactionResponse> page = controller.listWalletTransactionsByCursor(
+					walletId, TransactionDirection.CREDIT, null, null, start, start.plus(5, ChronoUnit.MINUTES), cursor, 4);
+			credits.addAll(page.items());
+			cursor = page.nextCursor();
+		} while (cursor != null);
+
+		// Dakika 0-5 arası 18 posting, bunların 9'u credit
+		assertThat(credits).hasSize(9).allMatch(tx -> tx.direction() == TransactionDirection.CREDIT);
+	}
+
+	@Test
+	void cursorRoundTripsAndRejectsGarbage() {
+		TransactionCursor cursor = new TransactionCursor(start, UUID.randomUUID());
+
+		assertThat(TransactionCursor.decode(cursor.encode())).isEqualTo(cursor);
+		assertThatThrownBy(() -> TransactionCursor.decode("not-a-cursor")).isInstanceOf(InvalidCursorException.class);
+	}
+}
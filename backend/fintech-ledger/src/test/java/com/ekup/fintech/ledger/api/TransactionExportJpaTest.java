@@ -0,0 +1,132 @@
+package com.ekup.fintech.ledger.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.ekup.fintech.ledger.domain.ReferenceType;
+import com.ekup.fintech.ledger.domain.Transaction;
+import com.ekup.fintech.ledger.domain.TransactionDirection;
+import com.ekup.fintech.ledger.domain.TransactionGroupType;
+import com.ekup.fintech.ledger.infrastructure.persistence.PostingWriter;
+import com.ekup.fintech.shared.domain.Currency;
+import com.ekup.fintech.shared.domain.Money;
+import com.ekup.fintech.shared.exception.UnsupportedExportFormatException;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+@Transactional
+class TransactionExportJpaTest {
+	@Autowired
+	TransactionController controller;
+
+	@Autowired
+	PostingWriter postingWriter;
+
+	@Autowired
+	EntityManager entityManager;
+
+	private final UUID walletId = UUID.randomUUID();
+
+	@BeforeEach
+	void seed() {
+		Instant start = Instant.now().minus(1, ChronoUnit.DAYS);
+		List<Transaction> postings = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			Money amount = Money.of(BigDecimal.valueOf(i + 1), Currency.USD);
+			String description = i == 0 ? "refund, \"march\"" : "seed " + i;
+			postings.add(Transaction.credit(walletId, amount, TransactionGroupType.USER_ACTION, ReferenceType.DEPOSIT,
+					UUID.randomUUID(), description, start.plus(i, ChronoUnit.MINUTES)));
+		}
+		postingWriter.write(postings);
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void streamsNdjsonOldestFirst() throws IOException {
+		List<String> lines = export("ndjson", null).lines().toList();
+
+		assertThat(lines).hasSize(50);
+		assertThat(lines.get(0)).startsWith("{").contains(walletId.toString()).contains("\"direction\":\"CREDIT\"");
+		assertThat(lines.get(49)).contains("\"seed 49\"");
+	}
+
+	@Test
+	void streamsCsvWithHeaderAndQuotedFields() throws IOException {
+		List<String> lines = export("csv", TransactionDirection.CREDIT).lines().toList();
+
+		assertThat(lines).hasSize(51);
+		assertThat(lines.get(0)).startsWith("id,wallet_id,occurred_at");
+		assertThat(lines.get(1)).endsWith(",\"refund, \"\"march\"\"\"").contains(",1.0000,USD,");
+	}
+
+	@Test
+	void stopsQuietlyWhenClientDisconnects() throws IOException {
+		ResponseEntity<StreamingResponseBody> response = controller.exportWalletTransactions(walletId, null, null, null, null, null, "csv");
+		FailingOutputStream out = new FailingOutputStream(1_000);
+
+		response.getBody().writeTo(out);
+
+		assertThat(out.failed).isTrue();
+	}
+
+	@Test
+	void rejectsUnknownFormat() {
+		assertThatThrownBy(() -> controller.exportWalletTransactions(walletId, null, null, null, null, null, "xml"))
+				.isInstanceOf(UnsupportedExportFormatException.class);
+	}
+
+	private String export(String format, TransactionDirection direction) throws IOException {
+		ResponseEntity<StreamingResponseBody> response = controller.exportWalletTransactions(walletId, direction, null, null, null, null, format);
+		assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION)).contains("wallet-" + walletId);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		response.getBody().writeTo(out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	// İlk 1 KB'tan sonra kopan bir istemciyi taklit eder
+	private static final class FailingOutputStream extends OutputStream {
+		private final int limit;
+		private int written;
+		private boolean failed;
+
+		FailingOutputStream(int limit) {
+			this.limit = limit;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (written + len > limit) {
+				failed = true;
+				throw new IOException("Broken pipe");
+			}
+			written += len;
+		}
+	}
+}
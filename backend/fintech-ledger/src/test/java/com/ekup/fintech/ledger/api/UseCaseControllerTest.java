@@ -2,12 +2,14 @@ package com.ekup.fintech.ledger.api;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +25,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.ekup.fintech.auth.infrastructure.TestSecurityConfig;
+import com.ekup.fintech.ledger.application.BulkPostingService;
+import com.ekup.fintech.ledger.application.BulkPostingService.BulkResult;
+import com.ekup.fintech.ledger.application.BulkPostingService.ItemResult;
+import com.ekup.fintech.ledger.application.BulkPostingService.ItemStatus;
 import com.ekup.fintech.ledger.application.FxService;
 import com.ekup.fintech.ledger.application.LedgerUseCaseService;
 import com.ekup.fintech.ledger.application.LedgerUseCaseService.SingleTransactionResult;
@@ -51,6 +57,9 @@ class UseCaseControllerTest {
 	@MockitoBean
 	private FxService fxService;
 
+	@MockitoBean
+	private BulkPostingService bulkPostingService;
+
 	private static final UUID WALLET_ID = UUID.randomUUID();
 	private static final UUID TARGET_WALLET_ID = UUID.randomUUID();
 	private static final UUID REQUEST_ID = UUID.randomUUID();
@@ -233,6 +242,52 @@ class UseCaseControllerTest {
 		}
 	}
 
+	@Nested
+	@DisplayName("POST /api/v1/postings/bulk")
+	class BulkPostingTests {
+
+		@Test
+		@DisplayName("should return per-item results")
+		void bulk_partialSuccess() throws Exception {
+			Money amount = Money.of("100.00", Currency.TRY);
+			Transaction tx = createTestTransaction(WALLET_ID, amount, ReferenceType.DEPOSIT);
+			BulkResult result = new BulkResult(List.of(
+					new ItemResult(0, REQUEST_ID, ItemStatus.COMPLETED, tx, null, null),
+					new ItemResult(1, UUID.randomUUID(), ItemStatus.FAILED, null, "INSUFFICIENT_BALANCE", "Insufficient balance")
+			), Instant.now());
+
+			when(bulkPostingService.post(anyList(), eq(false))).thenReturn(result);
+
+			String requestBody = """
+					{
+						"items": [
+							{"type": "DEPOSIT", "walletId": "%s", "amount": 100.00, "currency": "TRY"},
+							{"type": "WITHDRAWAL", "walletId": "%s", "amount": 900.00, "currency": "TRY"}
+						]
+					}
+					""".formatted(WALLET_ID, TARGET_WALLET_ID);
+
+			mockMvc.perform(post("/api/v1/postings/bulk")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(requestBody))
+					.andExpect(status().isOk())
+					.andExpect(jsonPath("$.completed").value(1))
+					.andExpect(jsonPath("$.failed").value(1))
+					.andExpect(jsonPath("$.results[0].transactionId").value(tx.getId().toString()))
+					.andExpect(jsonPath("$.results[1].walletId").value(TARGET_WALLET_ID.toString()))
+					.andExpect(jsonPath("$.results[1].errorCode").value("INSUFFICIENT_BALANCE"));
+		}
+
+		@Test
+		@DisplayName("should reject an empty batch")
+		void bulk_empty() throws Exception {
+			mockMvc.perform(post("/api/v1/postings/bulk")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content("{\"items\": []}"))
+					.andExpect(status().isBadRequest());
+		}
+	}
+
 	@Nested
 	@DisplayName("POST /api/v1/fx/convert")
 	class FxConvertTests {
@@ -0,0 +1,84 @@
+package com.ekup.fintech.ledger.application;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ekup.fintech.auth.domain.Role;
+import com.ekup.fintech.auth.domain.User;
+import com.ekup.fintech.auth.infrastructure.UserRepository;
+import com.ekup.fintech.ledger.domain.Wallet;
+import com.ekup.fintech.ledger.infrastructure.persistence.BalanceSnapshotJpaRepository;
+import com.ekup.fintech.shared.domain.Currency;
+import com.ekup.fintech.shared.domain.Money;
+
+@SpringBootTest
+@Transactional
+class BalanceSnapshotBatchJobJpaTest {
+	private static final UUID FIRST_KEY = new UUID(0L, 0L);
+
+	@Autowired
+	BalanceSnapshotJpaRepository snapshotRepository;
+
+	@Autowired
+	BalanceSnapshotService snapshotService;
+
+	@Autowired
+	WalletService walletService;
+
+	@Autowired
+	LedgerService ledgerService;
+
+	@Autowired
+	UserRepository userRepository;
+
+	private User testUser;
+
+	@BeforeEach
+	void setUp() {
+		testUser = userRepository.save(User.create("snapshot-batch-test@example.com", "password", "Test User", Set.of(Role.USER)));
+	}
+
+	@Test
+	void selectsOnlyWalletsWithEnoughPostingsSinceTheirLastSnapshot() {
+		Wallet busy = walletWithDeposits(Currency.USD, 3);
+		Wallet quiet = walletWithDeposits(Currency.EUR, 1);
+		Wallet neverSnapshotted = walletWithDeposits(Currency.GBP, 2);
+		Wallet recentlySnapshotted = walletWithDeposits(Currency.TRY, 2);
+		snapshotService.createSnapshot(recentlySnapshotted.getId());
+		deposit(recentlySnapshotted, 1);
+
+		List<UUID> due = new ArrayList<>();
+		UUID after = FIRST_KEY;
+		List<UUID> page;
+		while (!(page = snapshotRepository.findWalletsDueForSnapshot(after, 2, 1)).isEmpty()) {
+			assertThat(page).hasSize(1);
+			due.addAll(page);
+			after = page.get(0);
+		}
+
+		assertThat(due).containsExactlyInAnyOrder(busy.getId(), neverSnapshotted.getId());
+		assertThat(due).doesNotContain(quiet.getId(), recentlySnapshotted.getId());
+	}
+
+	private Wallet walletWithDeposits(Currency currency, int deposits) {
+		Wallet wallet = walletService.createWallet(testUser, currency);
+		deposit(wallet, deposits);
+		return wallet;
+	}
+
+	private void deposit(Wallet wallet, int deposits) {
+		for (int i = 0; i < deposits; i++) {
+			ledgerService.deposit(wallet.getId(), Money.of(new BigDecimal("10"), wallet.getBaseCurrency()), UUID.randomUUID(), "deposit");
+		}
+	}
+}
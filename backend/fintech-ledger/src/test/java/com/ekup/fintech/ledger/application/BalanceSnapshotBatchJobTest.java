@@ -0,0 +1,110 @@
+package com.ekup.fintech.ledger.application;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.ekup.fintech.ledger.infrastructure.persistence.BalanceSnapshotJpaRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BalanceSnapshotBatchJobTest {
+    private static final UUID FIRST_KEY = new UUID(0L, 0L);
+
+    private final BalanceSnapshotService snapshotService = mock(BalanceSnapshotService.class);
+    private final BalanceSnapshotJpaRepository snapshotRepository = mock(BalanceSnapshotJpaRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BalanceSnapshotBatchJob job =
+        new BalanceSnapshotBatchJob(snapshotService, snapshotRepository, meterRegistry, 100, 2, 2, false);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        job.destroy();
+    }
+
+    @Test
+    @DisplayName("walks keyset pages until a short page and snapshots every selected wallet")
+    void processesAllPages() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        UUID c = UUID.randomUUID();
+        when(snapshotRepository.findWalletsDueForSnapshot(FIRST_KEY, 100, 2)).thenReturn(List.of(a, b));
+        when(snapshotRepository.findWalletsDueForSnapshot(b, 100, 2)).thenReturn(List.of(c));
+
+        assertThat(job.run()).isTrue();
+
+        verify(snapshotService).createSnapshot(a);
+        verify(snapshotService).createSnapshot(b);
+        verify(snapshotService).createSnapshot(c);
+        verify(snapshotRepository, times(2)).findWalletsDueForSnapshot(any(), eq(100L), eq(2));
+        BalanceSnapshotBatchJob.Progress progress = job.getProgress();
+        assertThat(progress.state()).isEqualTo(BalanceSnapshotBatchJob.State.IDLE);
+        assertThat(progress.pages()).isEqualTo(2);
+        assertThat(progress.selected()).isEqualTo(3);
+        assertThat(progress.created()).isEqualTo(3);
+        assertThat(progress.finishedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("a failing wallet is counted and does not stop the run")
+    void countsFailures() {
+        UUID ok = UUID.randomUUID();
+        UUID broken = UUID.randomUUID();
+        when(snapshotRepository.findWalletsDueForSnapshot(FIRST_KEY, 100, 2)).thenReturn(List.of(ok, broken));
+        when(snapshotRepository.findWalletsDueForSnapshot(broken, 100, 2)).thenReturn(List.of());
+        when(snapshotService.createSnapshot(broken)).thenThrow(new IllegalStateException("lock timeout"));
+
+        job.run();
+
+        BalanceSnapshotBatchJob.Progress progress = job.getProgress();
+        assertThat(progress.created()).isEqualTo(1);
+        assertThat(progress.failed()).isEqualTo(1);
+        assertThat(progress.lastError()).contains("lock timeout");
+        assertThat(meterRegistry.get("fintech.balance.snapshot.batch.wallets").tag("result", "failed").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("of two concurrent triggers exactly one starts a run")
+    void concurrentStartsRunOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(snapshotRepository.findWalletsDueForSnapshot(FIRST_KEY, 100, 2)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+        CountDownLatch go = new CountDownLatch(1);
+        CompletableFuture<Boolean> first = CompletableFuture.supplyAsync(() -> startAfter(go));
+        CompletableFuture<Boolean> second = CompletableFuture.supplyAsync(() -> startAfter(go));
+
+        go.countDown();
+        boolean firstStarted = first.get(5, TimeUnit.SECONDS);
+        boolean secondStarted = second.get(5, TimeUnit.SECONDS);
+        assertThat(job.start()).isFalse();
+        release.countDown();
+
+        assertThat(firstStarted ^ secondStarted).isTrue();
+        verify(snapshotRepository, timeout(5000).times(1)).findWalletsDueForSnapshot(FIRST_KEY, 100, 2);
+    }
+
+    private boolean startAfter(CountDownLatch go) {
+        try {
+            go.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return job.start();
+    }
+}
@@ -2,6 +2,7 @@ package com.ekup.fintech.ledger.application;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -13,13 +14,17 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import com.ekup.fintech.auth.domain.Role;
 import com.ekup.fintech.auth.domain.User;
@@ -43,6 +48,9 @@ class BalanceSnapshotServiceTest {
     @Mock
     private WalletJpaRepository walletRepository;
 
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private BalanceSnapshotService snapshotService;
 
@@ -58,15 +66,15 @@ class BalanceSnapshotServiceTest {
     class CalculateBalanceWithSnapshotTests {
 
         @Test
-        @DisplayName("should calculate balance using snapshot + delta")
+        @DisplayName("should calculate balance using snapshot + delta after its last sequence")
         void shouldCalculateBalanceWithSnapshotAndDelta() {
             // Given
             Money snapshotBalance = Money.of(BigDecimal.valueOf(1000), CURRENCY);
-            BalanceSnapshot snapshot = BalanceSnapshot.create(WALLET_ID, snapshotBalance, 50L, UUID.randomUUID());
+            BalanceSnapshot snapshot = BalanceSnapshot.create(WALLET_ID, snapshotBalance, 50L, UUID.randomUUID(), 50L);
             
             when(snapshotRepository.findTopByWalletIdOrderBySnapshotAtDesc(WALLET_ID))
                 .thenReturn(Optional.of(snapshot));
-            when(snapshotRepository.sumSignedAmountAfter(eq(WALLET_ID), eq(CURRENCY), any(Instant.class)))
+            when(snapshotRepository.sumSignedAmountAfterSequence(WALLET_ID, CURRENCY, 50L, snapshot.laterPostingsNotBefore()))
                 .thenReturn(BigDecimal.valueOf(250)); // +250 after snapshot
 
             // When
@@ -75,6 +83,7 @@ class BalanceSnapshotServiceTest {
             // Then
             assertThat(result.amount()).isEqualByComparingTo(BigDecimal.valueOf(1250)); // 1000 + 250
             assertThat(result.currency()).isEqualTo(CURRENCY);
+            verify(snapshotRepository, never()).sumSignedAmountAfter(any(), any(), any(Instant.class));
         }
 
         @Test
@@ -110,8 +119,10 @@ class BalanceSnapshotServiceTest {
             
             Wallet wallet = Wallet.create(createTestUser(), CURRENCY);
             when(walletRepository.findById(WALLET_ID)).thenReturn(Optional.of(wallet));
-            when(transactionRepository.sumSignedAmount(any(), any())).thenReturn(BigDecimal.valueOf(1000));
-            when(snapshotRepository.findLastTransactionId(any())).thenReturn(Optional.of(UUID.randomUUID()));
+            when(snapshotRepository.findMaxSequence(WALLET_ID)).thenReturn(100L);
+            when(snapshotRepository.sumSignedAmountUpToSequence(any(), any(), eq(100L))).thenReturn(BigDecimal.valueOf(1000));
+            when(snapshotRepository.countTransactionsUpToSequence(any(), eq(100L))).thenReturn(100L);
+            when(snapshotRepository.findTransactionIdBySequence(any(), eq(100L))).thenReturn(Optional.of(UUID.randomUUID()));
             when(snapshotRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
 
             // When
@@ -136,6 +147,24 @@ class BalanceSnapshotServiceTest {
             // Then
             verify(snapshotRepository, never()).save(any());
         }
+
+        @Test
+        @DisplayName("should count postings after the latest snapshot's sequence")
+        void shouldCountPostingsAfterSnapshotSequence() {
+            // Given
+            BalanceSnapshot snapshot = BalanceSnapshot.create(WALLET_ID, Money.of(BigDecimal.TEN, CURRENCY), 10L, UUID.randomUUID(), 10L);
+            when(snapshotRepository.findTopByWalletIdOrderBySnapshotAtDesc(WALLET_ID))
+                .thenReturn(Optional.of(snapshot));
+            when(snapshotRepository.countTransactionsAfterSequence(WALLET_ID, 10L, snapshot.laterPostingsNotBefore()))
+                .thenReturn(99L);
+
+            // When
+            snapshotService.createSnapshotIfNeeded(WALLET_ID);
+
+            // Then
+            verify(snapshotRepository, never()).save(any());
+            verify(snapshotRepository, never()).countTransactionsAfter(any(), any());
+        }
     }
 
     @Nested
@@ -149,9 +178,10 @@ class BalanceSnapshotServiceTest {
             Wallet wallet = Wallet.create(createTestUser(), CURRENCY);
             
             when(walletRepository.findById(any())).thenReturn(Optional.of(wallet));
-            when(transactionRepository.sumSignedAmount(any(), any())).thenReturn(BigDecimal.valueOf(1500));
-            when(snapshotRepository.countTransactionsByWalletId(any())).thenReturn(75L);
-            when(snapshotRepository.findLastTransactionId(any())).thenReturn(Optional.of(UUID.randomUUID()));
+            when(snapshotRepository.findMaxSequence(any())).thenReturn(75L);
+            when(snapshotRepository.sumSignedAmountUpToSequence(any(), any(), eq(75L))).thenReturn(BigDecimal.valueOf(1500));
+            when(snapshotRepository.countTransactionsUpToSequence(any(), eq(75L))).thenReturn(75L);
+            when(snapshotRepository.findTransactionIdBySequence(any(), eq(75L))).thenReturn(Optional.of(UUID.randomUUID()));
             when(snapshotRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
 
             // When
@@ -161,6 +191,7 @@ class BalanceSnapshotServiceTest {
             assertThat(result).isNotNull();
             assertThat(result.getBalance().amount()).isEqualByComparingTo(BigDecimal.valueOf(1500));
             assertThat(result.getTransactionCount()).isEqualTo(75L);
+            assertThat(result.getLastSequence()).isEqualTo(75L);
             verify(snapshotRepository).save(any(BalanceSnapshot.class));
         }
 
@@ -176,5 +207,138 @@ class BalanceSnapshotServiceTest {
                 .isInstanceOf(IllegalArgumentException.class)
                 .hasMessageContaining("Wallet not found");
         }
+
+        @Test
+        @DisplayName("should build on the previous snapshot with only the delta after it")
+        void shouldCreateIncrementalSnapshot() {
+            // Given
+            Wallet wallet = Wallet.create(createTestUser(), CURRENCY);
+            UUID walletId = wallet.getId();
+            BalanceSnapshot previous = BalanceSnapshot.create(walletId, Money.of(BigDecimal.valueOf(1000), CURRENCY), 100L, UUID.randomUUID(), 100L);
+
+            when(walletRepository.findById(walletId)).thenReturn(Optional.of(wallet));
+            when(snapshotRepository.findMaxSequence(walletId)).thenReturn(130L);
+            when(snapshotRepository.findTopByWalletIdOrderBySnapshotAtDesc(walletId)).thenReturn(Optional.of(previous));
+            when(snapshotRepository.sumSignedAmountBetweenSequences(walletId, CURRENCY, 100L, 130L, previous.laterPostingsNotBefore())).thenReturn(BigDecimal.valueOf(-250));
+            when(snapshotRepository.countTransactionsBetweenSequences(walletId, 100L, 130L, previous.laterPostingsNotBefore())).thenReturn(30L);
+            when(snapshotRepository.findTransactionIdBySequence(walletId, 130L)).thenReturn(Optional.of(UUID.randomUUID()));
+            when(snapshotRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+            // When
+            BalanceSnapshot result = snapshotService.createSnapshot(walletId);
+
+            // Then
+            assertThat(result.getBalance().amount()).isEqualByComparingTo(BigDecimal.valueOf(750));
+            assertThat(result.getTransactionCount()).isEqualTo(130L);
+            assertThat(result.getLastSequence()).isEqualTo(130L);
+            verify(snapshotRepository, never()).sumSignedAmountUpToSequence(any(), any(), anyLong());
+            verify(snapshotRepository, never()).countTransactionsUpToSequence(any(), anyLong());
+        }
+
+        @Test
+        @DisplayName("should return the latest snapshot when nothing was posted since")
+        void shouldReuseSnapshotWithoutNewPostings() {
+            // Given
+            Wallet wallet = Wallet.create(createTestUser(), CURRENCY);
+            BalanceSnapshot previous = BalanceSnapshot.create(wallet.getId(), Money.of(BigDecimal.TEN, CURRENCY), 5L, UUID.randomUUID(), 5L);
+
+            when(walletRepository.findById(wallet.getId())).thenReturn(Optional.of(wallet));
+            when(snapshotRepository.findMaxSequence(wallet.getId())).thenReturn(5L);
+            when(snapshotRepository.findTopByWalletIdOrderBySnapshotAtDesc(wallet.getId())).thenReturn(Optional.of(previous));
+
+            // When
+            BalanceSnapshot result = snapshotService.createSnapshot(wallet.getId());
+
+            // Then
+            assertThat(result).isSameAs(previous);
+            verify(snapshotRepository, never()).save(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("verifyAllSnapshots")
+    class VerifyAllSnapshotsTests {
+
+        @Test
+        @DisplayName("should report no drift when the snapshot matches the full SUM")
+        void shouldPassMatchingSnapshot() {
+            // Given
+            Wallet wallet = Wallet.create(createTestUser(), CURRENCY);
+            BalanceSnapshot snapshot = BalanceSnapshot.create(wallet.getId(), Money.of(BigDecimal.valueOf(500), CURRENCY), 20L, UUID.randomUUID(), 20L);
+
+            when(snapshotRepository.findWalletsWithSnapshots(any(), anyInt())).thenReturn(List.of(wallet.getId()));
+            when(walletRepository.findById(wallet.getId())).thenReturn(Optional.of(wallet));
+            when(snapshotRepository.findTopByWalletIdOrderBySnapshotAtDesc(wallet.getId())).thenReturn(Optional.of(snapshot));
+            when(snapshotRepository.sumSignedAmountUpToSequence(wallet.getId(), CURRENCY, 20L)).thenReturn(new BigDecimal("500.00"));
+            when(snapshotRepository.countTransactionsUpToSequence(wallet.getId(), 20L)).thenReturn(20L);
+
+            // When
+            BalanceSnapshotService.VerificationReport report = snapshotService.verifyAllSnapshots();
+
+            // Then
+            assertThat(report.walletsChecked()).isEqualTo(1);
+            assertThat(report.drifts()).isEmpty();
+            verify(snapshotRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("should report drift and write a fully recomputed snapshot")
+        void shouldReportAndRepairDrift() {
+            // Given
+            Wallet wallet = Wallet.create(createTestUser(), CURRENCY);
+            BalanceSnapshot snapshot = BalanceSnapshot.create(wallet.getId(), Money.of(BigDecimal.valueOf(500), CURRENCY), 20L, UUID.randomUUID(), 20L);
+
+            when(snapshotRepository.findWalletsWithSnapshots(any(), anyInt())).thenReturn(List.of(wallet.getId()));
+            when(walletRepository.findById(wallet.getId())).thenReturn(Optional.of(wallet));
+            when(snapshotRepository.findTopByWalletIdOrderBySnapshotAtDesc(wallet.getId())).thenReturn(Optional.of(snapshot));
+            when(snapshotRepository.sumSignedAmountUpToSequence(wallet.getId(), CURRENCY, 20L)).thenReturn(BigDecimal.valueOf(480));
+            when(snapshotRepository.countTransactionsUpToSequence(wallet.getId(), 20L)).thenReturn(20L);
+            when(snapshotRepository.findMaxSequence(wallet.getId())).thenReturn(25L);
+            when(snapshotRepository.sumSignedAmountUpToSequence(wallet.getId(), CURRENCY, 25L)).thenReturn(BigDecimal.valueOf(530));
+            when(snapshotRepository.countTransactionsUpToSequence(wallet.getId(), 25L)).thenReturn(25L);
+            when(snapshotRepository.findTransactionIdBySequence(wallet.getId(), 25L)).thenReturn(Optional.of(UUID.randomUUID()));
+
+            // When
+            BalanceSnapshotService.VerificationReport report = snapshotService.verifyAllSnapshots();
+
+            // Then
+            assertThat(report.drifts()).singleElement().satisfies(drift -> {
+                assertThat(drift.snapshotId()).isEqualTo(snapshot.getId());
+                assertThat(drift.actualBalance().amount()).isEqualByComparingTo(BigDecimal.valueOf(480));
+            });
+            ArgumentCaptor<BalanceSnapshot> repaired = ArgumentCaptor.forClass(BalanceSnapshot.class);
+            verify(snapshotRepository).save(repaired.capture());
+            assertThat(repaired.getValue().getBalance().amount()).isEqualByComparingTo(BigDecimal.valueOf(530));
+            assertThat(repaired.getValue().getLastSequence()).isEqualTo(25L);
+        }
+
+        @Test
+        @DisplayName("should verify each wallet in its own transaction so one failure keeps the other repairs")
+        void shouldIsolateFailuresPerWallet() {
+            // Given
+            Wallet broken = Wallet.create(createTestUser(), CURRENCY);
+            Wallet drifted = Wallet.create(createTestUser(), CURRENCY);
+            BalanceSnapshot snapshot = BalanceSnapshot.create(drifted.getId(), Money.of(BigDecimal.valueOf(500), CURRENCY), 20L, UUID.randomUUID(), 20L);
+
+            when(snapshotRepository.findWalletsWithSnapshots(any(), anyInt())).thenReturn(List.of(broken.getId(), drifted.getId()));
+            when(walletRepository.findById(broken.getId())).thenReturn(Optional.of(broken));
+            when(walletRepository.findById(drifted.getId())).thenReturn(Optional.of(drifted));
+            when(snapshotRepository.findTopByWalletIdOrderBySnapshotAtDesc(broken.getId())).thenThrow(new IllegalStateException("db error"));
+            when(snapshotRepository.findTopByWalletIdOrderBySnapshotAtDesc(drifted.getId())).thenReturn(Optional.of(snapshot));
+            when(snapshotRepository.sumSignedAmountUpToSequence(drifted.getId(), CURRENCY, 20L)).thenReturn(BigDecimal.valueOf(480));
+            when(snapshotRepository.countTransactionsUpToSequence(drifted.getId(), 20L)).thenReturn(20L);
+            when(snapshotRepository.findMaxSequence(drifted.getId())).thenReturn(20L);
+            when(snapshotRepository.findTransactionIdBySequence(drifted.getId(), 20L)).thenReturn(Optional.of(UUID.randomUUID()));
+
+            // When
+            BalanceSnapshotService.VerificationReport report = snapshotService.verifyAllSnapshots();
+
+            // Then
+            assertThat(report.walletsChecked()).isEqualTo(1);
+            assertThat(report.drifts()).singleElement().satisfies(drift -> assertThat(drift.walletId()).isEqualTo(drifted.getId()));
+            verify(snapshotRepository).save(any(BalanceSnapshot.class));
+            verify(transactionManager).rollback(any());
+            verify(transactionManager).commit(any());
+        }
     }
 }
@@ -0,0 +1,220 @@
+package com.ekup.fintech.ledger.application;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BalanceSnapshotWorkerTest {
+    private static final UUID WALLET_ID = UUID.randomUUID();
+
+    private final BalanceSnapshotService snapshotService = mock(BalanceSnapshotService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ManualExecutor executor = new ManualExecutor();
+    private final BalanceSnapshotWorker worker = new BalanceSnapshotWorker(snapshotService, meterRegistry, 3, 2, executor);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("a snapshot is queued once the wallet reaches the threshold")
+    void queuesAtThreshold() {
+        worker.recordPosting(WALLET_ID);
+        worker.recordPosting(WALLET_ID);
+        assertThat(executor.tasks).isEmpty();
+
+        worker.recordPosting(WALLET_ID);
+        assertThat(executor.tasks).hasSize(1);
+
+        executor.runAll();
+        verify(snapshotService).createSnapshot(WALLET_ID);
+        assertThat(worker.postingsSinceSnapshot(WALLET_ID)).isZero();
+        assertThat(worker.trackedWallets()).isZero();
+    }
+
+    @Test
+    @DisplayName("no more than max-tracked-wallets wallets are counted")
+    void boundsTrackedWallets() {
+        worker.recordPosting(WALLET_ID);
+        worker.recordPosting(UUID.randomUUID());
+        UUID overflow = UUID.randomUUID();
+        worker.recordPosting(overflow);
+        worker.recordPosting(WALLET_ID);
+
+        assertThat(worker.trackedWallets()).isEqualTo(2);
+        assertThat(worker.postingsSinceSnapshot(overflow)).isZero();
+        assertThat(worker.postingsSinceSnapshot(WALLET_ID)).isEqualTo(2);
+        assertThat(meterRegistry.get("fintech.balance.snapshot.worker.untracked").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("snapshot lag is reported per tier until the snapshot runs")
+    void reportsLagTiers() {
+        UUID quiet = UUID.randomUUID();
+        worker.recordPosting(quiet);
+        worker.recordPosting(WALLET_ID);
+        worker.recordPosting(WALLET_ID);
+        assertThat(lagWallets("near_threshold")).isZero();
+
+        worker.refreshLagStats();
+        assertThat(lagWallets("below_half")).isEqualTo(1.0);
+        assertThat(lagWallets("near_threshold")).isEqualTo(1.0);
+        assertThat(meterRegistry.get("fintech.balance.snapshot.lag.max").gauge().value()).isEqualTo(2.0);
+
+        worker.recordPosting(WALLET_ID);
+        worker.refreshLagStats();
+        assertThat(lagWallets("due")).isEqualTo(1.0);
+
+        executor.runAll();
+        worker.refreshLagStats();
+        assertThat(lagWallets("due")).isZero();
+        assertThat(meterRegistry.get("fintech.balance.snapshot.worker.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("requests for a wallet with a queued snapshot are coalesced")
+    void coalescesPerWallet() {
+        for (int i = 0; i < 10; i++) {
+            worker.recordPosting(WALLET_ID);
+        }
+
+        assertThat(executor.tasks).hasSize(1);
+        assertThat(meterRegistry.get("fintech.balance.snapshot.worker.coalesced").counter().count()).isEqualTo(7.0);
+
+        executor.runAll();
+        verify(snapshotService, times(1)).createSnapshot(WALLET_ID);
+    }
+
+    @Test
+    @DisplayName("postings are only counted after their transaction commits")
+    void countsAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        worker.recordPosting(WALLET_ID);
+        worker.recordPosting(WALLET_ID);
+        worker.recordPosting(WALLET_ID);
+
+        assertThat(worker.postingsSinceSnapshot(WALLET_ID)).isZero();
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertThat(worker.postingsSinceSnapshot(WALLET_ID)).isEqualTo(3);
+        assertThat(executor.tasks).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("rolled back postings are not counted")
+    void ignoresRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        worker.recordPosting(WALLET_ID);
+        completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(worker.postingsSinceSnapshot(WALLET_ID)).isZero();
+        assertThat(TransactionSynchronizationManager.getResource(worker)).isNull();
+    }
+
+    @Test
+    @DisplayName("a full queue defers the snapshot to the next posting")
+    void retriesAfterRejection() {
+        executor.rejecting = true;
+        worker.recordPosting(WALLET_ID);
+        worker.recordPosting(WALLET_ID);
+        worker.recordPosting(WALLET_ID);
+
+        assertThat(meterRegistry.get("fintech.balance.snapshot.worker.rejected").counter().count()).isEqualTo(1.0);
+        verify(snapshotService, never()).createSnapshot(WALLET_ID);
+
+        executor.rejecting = false;
+        worker.recordPosting(WALLET_ID);
+        executor.runAll();
+
+        verify(snapshotService).createSnapshot(WALLET_ID);
+    }
+
+    @Test
+    @DisplayName("a failed snapshot keeps the counted postings")
+    void failedSnapshotKeepsCount() {
+        when(snapshotService.createSnapshot(WALLET_ID)).thenThrow(new IllegalStateException("db down"));
+        for (int i = 0; i < 3; i++) {
+            worker.recordPosting(WALLET_ID);
+        }
+
+        executor.runAll();
+
+        assertThat(worker.postingsSinceSnapshot(WALLET_ID)).isEqualTo(3);
+        worker.recordPosting(WALLET_ID);
+        assertThat(executor.tasks).hasSize(1);
+    }
+
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private double lagWallets(String tier) {
+        return meterRegistry.get("fintech.balance.snapshot.lag.wallets").tag("tier", tier).gauge().value();
+    }
+
+    private static final class ManualExecutor extends AbstractExecutorService {
+        private final Deque<Runnable> tasks = new ArrayDeque<>();
+        private boolean rejecting;
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.poll().run();
+            }
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (rejecting) {
+                throw new RejectedExecutionException("queue full");
+            }
+            tasks.add(command);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return List.copyOf(tasks);
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
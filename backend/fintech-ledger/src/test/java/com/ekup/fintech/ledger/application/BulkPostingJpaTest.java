@@ -0,0 +1,99 @@
+package com.ekup.fintech.ledger.application;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ekup.fintech.auth.domain.Role;
+import com.ekup.fintech.auth.domain.User;
+import com.ekup.fintech.auth.infrastructure.UserRepository;
+import com.ekup.fintech.ledger.application.BulkPostingService.BulkResult;
+import com.ekup.fintech.ledger.application.BulkPostingService.ItemStatus;
+import com.ekup.fintech.ledger.application.BulkPostingService.PostingItem;
+import com.ekup.fintech.ledger.application.BulkPostingService.PostingType;
+import com.ekup.fintech.ledger.domain.Wallet;
+import com.ekup.fintech.ledger.infrastructure.persistence.TransactionJpaRepository;
+import com.ekup.fintech.shared.domain.Currency;
+import com.ekup.fintech.shared.domain.Money;
+import com.ekup.fintech.shared.exception.InsufficientBalanceException;
+
+@SpringBootTest
+@Transactional
+class BulkPostingJpaTest {
+	@Autowired
+	BulkPostingService bulkPostingService;
+
+	@Autowired
+	WalletService walletService;
+
+	@Autowired
+	BalanceCalculator balanceCalculator;
+
+	@Autowired
+	TransactionJpaRepository transactionRepository;
+
+	@Autowired
+	UserRepository userRepository;
+
+	private Wallet wallet;
+
+	@BeforeEach
+	void setUp() {
+		User user = userRepository.save(User.create("bulk-test@example.com", "password", "Test User", Set.of(Role.USER)));
+		wallet = walletService.createWallet(user, Currency.USD);
+	}
+
+	@Test
+	void failingItemDoesNotAbortTheBatch() {
+		BulkResult result = bulkPostingService.post(List.of(
+				item(PostingType.DEPOSIT, wallet.getId(), "100", UUID.randomUUID()),
+				item(PostingType.WITHDRAWAL, wallet.getId(), "150", UUID.randomUUID()),
+				item(PostingType.WITHDRAWAL, wallet.getId(), "60", UUID.randomUUID()),
+				item(PostingType.DEPOSIT, UUID.randomUUID(), "10", UUID.randomUUID())
+		), false);
+
+		assertThat(result.items()).extracting(BulkPostingService.ItemResult::status)
+				.containsExactly(ItemStatus.COMPLETED, ItemStatus.FAILED, ItemStatus.COMPLETED, ItemStatus.FAILED);
+		assertThat(result.items().get(1).errorCode()).isEqualTo("INSUFFICIENT_BALANCE");
+		assertThat(result.items().get(3).errorCode()).isEqualTo("RESOURCE_NOT_FOUND");
+		assertThat(balanceCalculator.calculateBalance(wallet.getId(), Currency.USD).amount()).isEqualByComparingTo("40");
+		assertThat(transactionRepository.countByWalletId(wallet.getId())).isEqualTo(2);
+	}
+
+	@Test
+	void sameIdempotencyKeyIsReplayed() {
+		UUID key = UUID.randomUUID();
+		BulkResult first = bulkPostingService.post(List.of(item(PostingType.DEPOSIT, wallet.getId(), "25", key)), false);
+
+		BulkResult second = bulkPostingService.post(List.of(
+				item(PostingType.DEPOSIT, wallet.getId(), "25", key),
+				item(PostingType.DEPOSIT, wallet.getId(), "25", key)
+		), false);
+
+		assertThat(second.items()).extracting(BulkPostingService.ItemResult::status)
+				.containsExactly(ItemStatus.REPLAYED, ItemStatus.REPLAYED);
+		assertThat(second.items().get(0).transaction().getId()).isEqualTo(first.items().get(0).transaction().getId());
+		assertThat(transactionRepository.countByWalletId(wallet.getId())).isEqualTo(1);
+	}
+
+	@Test
+	void atomicModeFailsOnFirstBadItem() {
+		assertThatThrownBy(() -> bulkPostingService.post(List.of(
+				item(PostingType.DEPOSIT, wallet.getId(), "10", UUID.randomUUID()),
+				item(PostingType.WITHDRAWAL, wallet.getId(), "50", UUID.randomUUID())
+		), true)).isInstanceOf(InsufficientBalanceException.class);
+	}
+
+	private static PostingItem item(PostingType type, UUID walletId, String amount, UUID key) {
+		return new PostingItem(type, walletId, Money.of(new BigDecimal(amount), Currency.USD), key, null);
+	}
+}
@@ -5,6 +5,7 @@ import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +19,10 @@ import com.ekup.fintech.ledger.domain.Wallet;
 import com.ekup.fintech.ledger.infrastructure.persistence.WalletJpaRepository;
 import com.ekup.fintech.shared.domain.Currency;
 import com.ekup.fintech.shared.domain.Money;
+import com.ekup.fintech.shared.exception.CurrencyMismatchException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @SpringBootTest
 @Transactional
@@ -37,6 +42,9 @@ class FxServiceJpaTest {
 	@Autowired
 	UserRepository userRepository;
 
+	@Autowired
+	MeterRegistry meterRegistry;
+
 	private User testUser;
 
 	@BeforeEach
@@ -71,4 +79,29 @@ class FxServiceJpaTest {
 		assertThat(result.exchangeRate()).isNotNull();
 		assertThat(result.targetAmount().currency()).isEqualTo(Currency.EUR);
 	}
+
+	@Test
+	void fxConversionRejectsSourceAmountInOtherCurrency() {
+		Wallet usdWallet = walletRepository.save(Wallet.create(testUser, Currency.USD));
+		Wallet eurWallet = walletRepository.save(Wallet.create(testUser, Currency.EUR));
+		double before = currencyMismatches();
+
+		assertThatThrownBy(() -> fxService.convert(
+				usdWallet.getId(),
+				eurWallet.getId(),
+				Money.of(new BigDecimal("50"), Currency.EUR),
+				UUID.randomUUID(),
+				"test fx"
+		)).isInstanceOf(CurrencyMismatchException.class);
+
+		assertThat(currencyMismatches()).isEqualTo(before + 1);
+	}
+
+	private double currencyMismatches() {
+		Counter counter = meterRegistry.find("fintech.ledger.rejections")
+				.tag("operation", "fx")
+				.tag("reason", "currency_mismatch")
+				.counter();
+		return counter != null ? counter.count() : 0;
+	}
 }
@@ -0,0 +1,117 @@
+package com.ekup.fintech.ledger.application;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.ekup.fintech.auth.domain.Role;
+import com.ekup.fintech.auth.domain.User;
+import com.ekup.fintech.auth.infrastructure.UserRepository;
+import com.ekup.fintech.ledger.domain.Wallet;
+import com.ekup.fintech.shared.domain.Currency;
+import com.ekup.fintech.shared.domain.Money;
+
+/**
+ * Two requests with the same key race on idempotency_records with the partitioned unique key
+ * (operation, idempotency_key, created_at), which does not reject the second insert. Not
+ * {@code @Transactional}: both requests have to commit, so the rows are removed afterwards.
+ */
+@SpringBootTest(properties = "fintech.ledger.locking.mode=none")
+class IdempotencyConcurrencyJpaTest {
+	@Autowired
+	LedgerUseCaseService useCaseService;
+
+	@Autowired
+	WalletService walletService;
+
+	@Autowired
+	UserRepository userRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	private User testUser;
+	private Wallet wallet;
+
+	@BeforeEach
+	void setUp() {
+		usePartitionedUniqueKey(true);
+		testUser = userRepository.save(User.create("idempotency-race-" + System.nanoTime() + "@example.com", "password", "Test User", Set.of(Role.USER)));
+		wallet = walletService.createWallet(testUser, Currency.USD);
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("delete from idempotency_records where wallet_id = ?", wallet.getId());
+		jdbcTemplate.update("delete from transactions where wallet_id = ?", wallet.getId());
+		jdbcTemplate.update("delete from wallet_balances where wallet_id = ?", wallet.getId());
+		jdbcTemplate.update("delete from wallets where id = ?", wallet.getId());
+		jdbcTemplate.update("delete from user_roles where user_id = ?", testUser.getId());
+		jdbcTemplate.update("delete from users where id = ?", testUser.getId());
+		usePartitionedUniqueKey(false);
+	}
+
+	@Test
+	void concurrentDepositsWithSameKeyPostOnce() throws Exception {
+		UUID key = UUID.randomUUID();
+		Money amount = Money.of(new BigDecimal("10"), Currency.USD);
+		CountDownLatch firstPosted = new CountDownLatch(1);
+		CountDownLatch commitFirst = new CountDownLatch(1);
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+		// İlk istek posting'i yapıp commit etmeden bekler; ikinci istek bu sırada aynı key ile gelir
+		CompletableFuture<LedgerUseCaseService.SingleTransactionResult> first = CompletableFuture.supplyAsync(() ->
+				transaction.execute(status -> {
+					LedgerUseCaseService.SingleTransactionResult result = useCaseService.deposit(wallet.getId(), amount, key, "deposit");
+					firstPosted.countDown();
+					await(commitFirst);
+					return result;
+				}));
+		assertThat(firstPosted.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<LedgerUseCaseService.SingleTransactionResult> second = CompletableFuture.supplyAsync(() ->
+				useCaseService.deposit(wallet.getId(), amount, key, "deposit"));
+
+		Thread.sleep(200);
+		assertThat(second).isNotDone();
+		commitFirst.countDown();
+
+		UUID firstId = first.get(5, TimeUnit.SECONDS).transaction().getId();
+		UUID secondId = second.get(5, TimeUnit.SECONDS).transaction().getId();
+		assertThat(secondId).isEqualTo(firstId);
+		assertThat(jdbcTemplate.queryForObject("select count(*) from transactions where wallet_id = ?", Long.class, wallet.getId())).isEqualTo(1L);
+		assertThat(jdbcTemplate.queryForObject("select count(*) from idempotency_records where idempotency_key = ?", Long.class, key)).isEqualTo(1L);
+	}
+
+	/**
+	 * Partitioned tables must carry created_at in every unique key; see db/idempotency_records_partitioned.sql.
+	 */
+	private void usePartitionedUniqueKey(boolean partitioned) {
+		jdbcTemplate.execute("alter table idempotency_records drop constraint ux_idem_operation_key");
+		jdbcTemplate.execute("alter table idempotency_records add constraint ux_idem_operation_key unique "
+				+ (partitioned ? "(operation, idempotency_key, created_at)" : "(operation, idempotency_key)"));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -5,6 +5,7 @@ import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +20,10 @@ import com.ekup.fintech.ledger.infrastructure.persistence.TransactionJpaReposito
 import com.ekup.fintech.ledger.infrastructure.persistence.WalletJpaRepository;
 import com.ekup.fintech.shared.domain.Currency;
 import com.ekup.fintech.shared.domain.Money;
+import com.ekup.fintech.shared.exception.InsufficientBalanceException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @SpringBootTest
 @Transactional
@@ -35,6 +40,9 @@ class IdempotencyDepositJpaTest {
 	@Autowired
 	UserRepository userRepository;
 
+	@Autowired
+	MeterRegistry meterRegistry;
+
 	private User testUser;
 
 	@BeforeEach
@@ -53,4 +61,37 @@ class IdempotencyDepositJpaTest {
 		assertThat(first.transaction().getId()).isEqualTo(second.transaction().getId());
 		assertThat(transactionRepository.count()).isEqualTo(1);
 	}
+
+	@Test
+	void replayMetricCountsEachRequestOnce() {
+		Wallet wallet = walletRepository.save(Wallet.create(testUser, Currency.USD));
+		UUID key = UUID.randomUUID();
+		double newBefore = idempotencyRequests("deposit", "new");
+		double storeBefore = idempotencyRequests("deposit", "store");
+
+		useCaseService.deposit(wallet.getId(), Money.of(new BigDecimal("10"), Currency.USD), key, "deposit");
+		useCaseService.deposit(wallet.getId(), Money.of(new BigDecimal("10"), Currency.USD), key, "deposit");
+
+		assertThat(idempotencyRequests("deposit", "new")).isEqualTo(newBefore + 1);
+		assertThat(idempotencyRequests("deposit", "store")).isEqualTo(storeBefore + 1);
+	}
+
+	@Test
+	void rejectedPostingIsNotCountedAsNewRequest() {
+		Wallet wallet = walletRepository.save(Wallet.create(testUser, Currency.USD));
+		double before = idempotencyRequests("withdrawal", "new");
+
+		assertThatThrownBy(() -> useCaseService.withdraw(wallet.getId(), Money.of(new BigDecimal("10"), Currency.USD), UUID.randomUUID(), "withdraw"))
+				.isInstanceOf(InsufficientBalanceException.class);
+
+		assertThat(idempotencyRequests("withdrawal", "new")).isEqualTo(before);
+	}
+
+	private double idempotencyRequests(String operation, String result) {
+		Counter counter = meterRegistry.find("fintech.ledger.idempotency.requests")
+				.tag("operation", operation)
+				.tag("result", result)
+				.counter();
+		return counter != null ? counter.count() : 0;
+	}
 }
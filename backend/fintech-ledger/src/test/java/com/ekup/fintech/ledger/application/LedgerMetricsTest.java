@@ -0,0 +1,75 @@
+package com.ekup.fintech.ledger.application;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.ekup.fintech.shared.exception.InsufficientBalanceException;
+import com.ekup.fintech.shared.exception.ResourceNotFoundException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LedgerMetricsTest {
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final LedgerMetrics metrics = new LedgerMetrics(meterRegistry);
+
+	@Test
+	@DisplayName("operations are timed per outcome and rejections counted per reason")
+	void timesOutcomesAndCountsRejections() {
+		assertThat(metrics.time(LedgerMetrics.DEPOSIT, () -> "ok")).isEqualTo("ok");
+		assertThatThrownBy(() -> metrics.time(LedgerMetrics.WITHDRAWAL, () -> {
+			throw new InsufficientBalanceException("Insufficient balance");
+		})).isInstanceOf(InsufficientBalanceException.class);
+		assertThatThrownBy(() -> metrics.time(LedgerMetrics.WITHDRAWAL, () -> {
+			throw new ResourceNotFoundException("Wallet not found");
+		})).isInstanceOf(ResourceNotFoundException.class);
+
+		assertThat(timerCount(LedgerMetrics.DEPOSIT, "success")).isEqualTo(1);
+		assertThat(timerCount(LedgerMetrics.WITHDRAWAL, "rejected")).isEqualTo(1);
+		assertThat(timerCount(LedgerMetrics.WITHDRAWAL, "error")).isEqualTo(1);
+		assertThat(meterRegistry.get("fintech.ledger.rejections")
+				.tag("operation", LedgerMetrics.WITHDRAWAL)
+				.tag("reason", "insufficient_balance")
+				.counter().count()).isEqualTo(1.0);
+		assertThat(meterRegistry.find("fintech.ledger.rejections").tag("operation", LedgerMetrics.DEPOSIT).counter()).isNull();
+	}
+
+	@Test
+	@DisplayName("idempotent requests are counted by how they were answered")
+	void countsIdempotencyReplays() {
+		metrics.idempotency(LedgerUseCaseService.OP_DEPOSIT, LedgerMetrics.Replay.NEW);
+		metrics.idempotency(LedgerUseCaseService.OP_DEPOSIT, LedgerMetrics.Replay.CACHE);
+		metrics.idempotency(LedgerUseCaseService.OP_DEPOSIT, LedgerMetrics.Replay.CACHE);
+
+		assertThat(meterRegistry.get("fintech.ledger.idempotency.requests")
+				.tag("operation", "deposit").tag("result", "cache")
+				.counter().count()).isEqualTo(2.0);
+		assertThat(meterRegistry.get("fintech.ledger.idempotency.requests")
+				.tag("operation", "deposit").tag("result", "new")
+				.counter().count()).isEqualTo(1.0);
+	}
+
+	@Test
+	@DisplayName("meters are registered once and reused by later requests")
+	void reusesRegisteredMeters() {
+		metrics.time(LedgerMetrics.DEPOSIT, () -> "ok");
+		metrics.idempotency(LedgerUseCaseService.OP_DEPOSIT, LedgerMetrics.Replay.NEW);
+		int registered = meterRegistry.getMeters().size();
+
+		for (int i = 0; i < 10; i++) {
+			metrics.time(LedgerMetrics.DEPOSIT, () -> "ok");
+			metrics.idempotency(LedgerUseCaseService.OP_DEPOSIT, LedgerMetrics.Replay.NEW);
+		}
+
+		assertThat(meterRegistry.getMeters()).hasSize(registered);
+		assertThat(timerCount(LedgerMetrics.DEPOSIT, "success")).isEqualTo(11);
+	}
+
+	private long timerCount(String operation, String outcome) {
+		return meterRegistry.get("fintech.ledger.operation.duration")
+				.tag("operation", operation)
+				.tag("outcome", outcome)
+				.timer().count();
+	}
+}
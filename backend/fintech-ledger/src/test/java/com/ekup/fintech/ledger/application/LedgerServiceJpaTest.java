@@ -15,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 import com.ekup.fintech.auth.domain.Role;
 import com.ekup.fintech.auth.domain.User;
 import com.ekup.fintech.auth.infrastructure.UserRepository;
+import com.ekup.fintech.ledger.domain.Transaction;
 import com.ekup.fintech.ledger.domain.Wallet;
 import com.ekup.fintech.ledger.infrastructure.persistence.WalletJpaRepository;
 import com.ekup.fintech.shared.domain.Currency;
@@ -100,4 +101,17 @@ class LedgerServiceJpaTest {
 				ledgerService.transfer(wallet.getId(), wallet.getId(), Money.of(new BigDecimal("50"), Currency.USD), UUID.randomUUID(), "self transfer")
 		).isInstanceOf(SameWalletTransferException.class);
 	}
+
+	@Test
+	void postingsAreSequencedPerWallet() {
+		Wallet source = walletRepository.save(Wallet.create(testUser, Currency.USD));
+		Wallet target = walletRepository.save(Wallet.create(otherUser, Currency.USD));
+
+		Transaction first = ledgerService.deposit(source.getId(), Money.of(new BigDecimal("100"), Currency.USD), UUID.randomUUID(), "deposit");
+		LedgerService.TransferResult transfer = ledgerService.transfer(source.getId(), target.getId(), Money.of(new BigDecimal("10"), Currency.USD), UUID.randomUUID(), "transfer");
+
+		assertThat(first.getSequence()).isEqualTo(1L);
+		assertThat(transfer.sourceTransaction().getSequence()).isEqualTo(2L);
+		assertThat(transfer.targetTransaction().getSequence()).isEqualTo(1L);
+	}
 }
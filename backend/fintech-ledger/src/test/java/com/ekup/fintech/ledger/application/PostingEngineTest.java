@@ -0,0 +1,214 @@
+package com.ekup.fintech.ledger.application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import com.ekup.fintech.shared.exception.InsufficientBalanceException;
+import com.ekup.fintech.shared.exception.LedgerBusyException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PostingEngineTest {
+	private final CountingTransactionManager transactionManager = new CountingTransactionManager();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private PostingEngine engine;
+
+	@AfterEach
+	void tearDown() {
+		if (engine != null) {
+			engine.destroy();
+		}
+	}
+
+	@Test
+	@DisplayName("direct mode runs the command on the caller thread in a transaction")
+	void directModeRunsInline() {
+		engine = newEngine("direct", 0);
+
+		String thread = engine.execute(UUID.randomUUID(), () -> Thread.currentThread().getName());
+
+		assertThat(thread).isEqualTo(Thread.currentThread().getName());
+		assertThat(transactionManager.commits.get()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("postings for one wallet always run on the same shard thread")
+	void routesWalletToSingleShard() {
+		engine = newEngine("sharded", 4);
+		UUID walletId = UUID.randomUUID();
+
+		String first = engine.execute(walletId, () -> Thread.currentThread().getName());
+		String second = engine.execute(walletId, () -> Thread.currentThread().getName());
+
+		assertThat(first).startsWith("ledger-shard-").isEqualTo(second);
+		assertThat(PostingEngine.isShardThread()).isFalse();
+	}
+
+	@Test
+	@DisplayName("a failing command does not fail the rest of its batch")
+	void failedBatchIsReplayedPerCommand() throws Exception {
+		engine = newEngine("sharded", 1);
+		UUID walletId = UUID.randomUUID();
+		List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+		for (int i = 0; i < 20; i++) {
+			int n = i;
+			results.add(CompletableFuture.supplyAsync(() -> engine.execute(walletId, () -> {
+				if (n == 7) {
+					throw new InsufficientBalanceException("Insufficient balance");
+				}
+				return n;
+			})));
+		}
+
+		for (int i = 0; i < results.size(); i++) {
+			CompletableFuture<Integer> result = results.get(i);
+			if (i == 7) {
+				assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(InsufficientBalanceException.class);
+			} else {
+				assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(i);
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("opposite cross-shard transfers complete without deadlock")
+	void crossShardHandoffDoesNotDeadlock() throws Exception {
+		engine = newEngine("sharded", 8);
+		UUID a = walletOnShard(0, 8);
+		UUID b = walletOnShard(1, 8);
+		AtomicInteger executed = new AtomicInteger();
+		List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+		for (int i = 0; i < 50; i++) {
+			UUID source = i % 2 == 0 ? a : b;
+			UUID target = source == a ? b : a;
+			results.add(CompletableFuture.supplyAsync(() -> engine.execute(source, target, executed::incrementAndGet)));
+			results.add(CompletableFuture.supplyAsync(() -> engine.execute(source, executed::incrementAndGet)));
+		}
+
+		CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+		assertThat(executed.get()).isEqualTo(100);
+		assertThat(meterRegistry.get("fintech.ledger.engine.handoffs").counter().count()).isEqualTo(50.0);
+	}
+
+	@Test
+	@DisplayName("a command spanning several shards runs while all of them are parked")
+	void multiShardCommandParksEveryShard() throws Exception {
+		engine = newEngine("sharded", 3);
+		UUID a = walletOnShard(0, 3);
+		UUID b = walletOnShard(1, 3);
+		UUID c = walletOnShard(2, 3);
+		List<String> order = Collections.synchronizedList(new ArrayList<>());
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Boolean> bulk = CompletableFuture.supplyAsync(() -> engine.execute(List.of(a, b, c), () -> {
+			started.countDown();
+			await(release);
+			return order.add("bulk");
+		}));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+		CompletableFuture<Boolean> single = CompletableFuture.supplyAsync(() -> engine.execute(c, () -> order.add("single")));
+		Thread.sleep(100);
+		assertThat(single).isNotDone();
+		release.countDown();
+
+		assertThat(bulk.get(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(single.get(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(order).containsExactly("bulk", "single");
+		assertThat(meterRegistry.get("fintech.ledger.engine.handoffs").counter().count()).isEqualTo(1.0);
+	}
+
+	@Test
+	@DisplayName("a saturated shard rejects its hand-offs at once without stalling other shards")
+	void saturatedShardFailsHandoffFast() throws Exception {
+		engine = new PostingEngine(transactionManager, meterRegistry, "sharded", 3, 1, 16, 30_000, 5000);
+		UUID a = walletOnShard(0, 3);
+		UUID b = walletOnShard(1, 3);
+		UUID c = walletOnShard(2, 3);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<Boolean> blocking = CompletableFuture.supplyAsync(() -> engine.execute(b, () -> {
+			started.countDown();
+			return await(release);
+		}));
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> engine.execute(b, () -> true));
+		Gauge depth = meterRegistry.get("fintech.ledger.engine.queue.depth").tag("shard", "1").gauge();
+		while (depth.value() < 1) {
+			Thread.onSpinWait();
+		}
+
+		try {
+			long start = System.nanoTime();
+			assertThatThrownBy(() -> engine.execute(a, b, () -> true)).isInstanceOf(LedgerBusyException.class);
+			assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5_000);
+			assertThat(CompletableFuture.supplyAsync(() -> engine.execute(a, c, () -> true)).get(5, TimeUnit.SECONDS)).isTrue();
+		} finally {
+			release.countDown();
+		}
+		assertThat(blocking.get(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(meterRegistry.get("fintech.ledger.engine.rejected").counter().count()).isEqualTo(1.0);
+	}
+
+	private PostingEngine newEngine(String mode, int shards) {
+		return new PostingEngine(transactionManager, meterRegistry, mode, shards, 1000, 16, 1000, 5000);
+	}
+
+	private static boolean await(CountDownLatch latch) {
+		try {
+			return latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private static UUID walletOnShard(int shard, int shardCount) {
+		UUID walletId;
+		do {
+			walletId = UUID.randomUUID();
+		} while (Math.floorMod(walletId.hashCode(), shardCount) != shard);
+		return walletId;
+	}
+
+	private static final class CountingTransactionManager extends AbstractPlatformTransactionManager {
+		private final AtomicInteger commits = new AtomicInteger();
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+			commits.incrementAndGet();
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package com.ekup.fintech.ledger.application;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ekup.fintech.auth.domain.Role;
+import com.ekup.fintech.auth.domain.User;
+import com.ekup.fintech.auth.infrastructure.UserRepository;
+import com.ekup.fintech.ledger.domain.Wallet;
+import com.ekup.fintech.ledger.domain.WalletBalance;
+import com.ekup.fintech.ledger.infrastructure.persistence.WalletBalanceJpaRepository;
+import com.ekup.fintech.ledger.infrastructure.persistence.WalletJpaRepository;
+import com.ekup.fintech.shared.domain.Currency;
+import com.ekup.fintech.shared.domain.Money;
+
+@SpringBootTest
+@Transactional
+class WalletBalanceJpaTest {
+	@Autowired
+	WalletJpaRepository walletRepository;
+
+	@Autowired
+	WalletBalanceJpaRepository walletBalanceRepository;
+
+	@Autowired
+	WalletService walletService;
+
+	@Autowired
+	LedgerService ledgerService;
+
+	@Autowired
+	WalletBalanceService walletBalanceService;
+
+	@Autowired
+	UserRepository userRepository;
+
+	private User testUser;
+
+	@BeforeEach
+	void setUp() {
+		testUser = userRepository.save(User.create("wallet-balance-test@example.com", "password", "Test User", Set.of(Role.USER)));
+	}
+
+	@Test
+	void createWalletOpensZeroBalanceRow() {
+		Wallet wallet = walletService.createWallet(testUser, Currency.EUR);
+
+		WalletBalance balance = walletBalanceRepository.findById(wallet.getId()).orElseThrow();
+		assertThat(balance.getBalance().amount()).isEqualByComparingTo(BigDecimal.ZERO);
+		assertThat(balance.getCurrency()).isEqualTo(Currency.EUR);
+		assertThat(balance.getLastSequence()).isZero();
+	}
+
+	@Test
+	void postingsMaintainMaterializedBalanceAndSequence() {
+		Wallet wallet = walletService.createWallet(testUser, Currency.USD);
+
+		ledgerService.deposit(wallet.getId(), Money.of(new BigDecimal("100"), Currency.USD), UUID.randomUUID(), "deposit");
+		ledgerService.withdraw(wallet.getId(), Money.of(new BigDecimal("40"), Currency.USD), UUID.randomUUID(), "withdraw");
+
+		WalletBalance balance = walletBalanceRepository.findById(wallet.getId()).orElseThrow();
+		assertThat(balance.getBalance().amount()).isEqualByComparingTo(new BigDecimal("60"));
+		assertThat(balance.getLastSequence()).isEqualTo(2L);
+		assertThat(walletBalanceService.reconcile(wallet.getId()).consistent()).isTrue();
+	}
+
+	@Test
+	void legacyWalletIsBackfilledOnFirstPosting() {
+		Wallet legacy = walletRepository.save(Wallet.create(testUser, Currency.GBP));
+
+		ledgerService.deposit(legacy.getId(), Money.of(new BigDecimal("25"), Currency.GBP), UUID.randomUUID(), "deposit");
+
+		WalletBalance balance = walletBalanceRepository.findById(legacy.getId()).orElseThrow();
+		assertThat(balance.getBalance().amount()).isEqualByComparingTo(new BigDecimal("25"));
+		assertThat(balance.getLastSequence()).isEqualTo(1L);
+	}
+
+	@Test
+	void backfillKeepsRowSeededByConcurrentPosting() {
+		Wallet legacy = walletRepository.save(Wallet.create(testUser, Currency.GBP));
+		walletRepository.flush();
+		// Simulates the racing posting that seeded the row between our lookup and insert
+		walletBalanceRepository.insertIfAbsent(legacy.getId(), new BigDecimal("10.0000"), "GBP", 3L, Instant.now());
+
+		int inserted = walletBalanceRepository.insertIfAbsent(legacy.getId(), BigDecimal.ZERO, "GBP", 0L, Instant.now());
+		WalletBalance locked = walletBalanceService.lockForPosting(legacy);
+
+		assertThat(inserted).isZero();
+		assertThat(locked.getBalance().amount()).isEqualByComparingTo(new BigDecimal("10"));
+		assertThat(locked.getLastSequence()).isEqualTo(3L);
+	}
+}
@@ -0,0 +1,136 @@
+package com.ekup.fintech.ledger.application;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ekup.fintech.ledger.infrastructure.persistence.WalletJpaRepository;
+import com.ekup.fintech.shared.exception.WalletLockTimeoutException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WalletLockManagerTest {
+	private static final UUID LOW = UUID.fromString("00000000-0000-0000-0000-000000000001");
+	private static final UUID HIGH = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+	private WalletJpaRepository walletRepository;
+	private SimpleMeterRegistry meterRegistry;
+
+	@BeforeEach
+	void setUp() {
+		walletRepository = mock(WalletJpaRepository.class);
+		meterRegistry = new SimpleMeterRegistry();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	@DisplayName("database mode locks wallet rows in ascending id order")
+	void databaseModeLocksInIdOrder() {
+		when(walletRepository.findForUpdate(LOW)).thenReturn(Optional.empty());
+		when(walletRepository.findForUpdate(HIGH)).thenReturn(Optional.empty());
+		WalletLockManager manager = new WalletLockManager(walletRepository, meterRegistry, "database", 16, 100);
+
+		manager.lock(HIGH, LOW);
+
+		InOrder order = inOrder(walletRepository);
+		order.verify(walletRepository).findForUpdate(LOW);
+		order.verify(walletRepository).findForUpdate(HIGH);
+		assertThat(meterRegistry.get("fintech.ledger.lock.acquisitions").counter().count()).isEqualTo(2.0);
+	}
+
+	@Test
+	@DisplayName("striped locks are held until the transaction completes")
+	void stripedLockReleasedAfterCompletion() throws Exception {
+		WalletLockManager manager = new WalletLockManager(walletRepository, meterRegistry, "striped", 16, 50);
+
+		TransactionSynchronizationManager.initSynchronization();
+		manager.lock(LOW);
+		manager.lock(LOW); // aynı transaction içinde tekrar kilitlemek bloklamaz
+
+		CompletableFuture<Throwable> blocked = CompletableFuture.supplyAsync(() -> lockInOwnTransaction(manager, LOW));
+		assertThat(blocked.get(5, TimeUnit.SECONDS)).isInstanceOf(WalletLockTimeoutException.class);
+		assertThat(meterRegistry.get("fintech.ledger.lock.contended").counter().count()).isEqualTo(1.0);
+		assertThat(meterRegistry.get("fintech.ledger.lock.timeouts").counter().count()).isEqualTo(1.0);
+
+		completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		CompletableFuture<Throwable> acquired = CompletableFuture.supplyAsync(() -> lockInOwnTransaction(manager, LOW));
+		assertThat(acquired.get(5, TimeUnit.SECONDS)).isNull();
+		assertThat(meterRegistry.get("fintech.ledger.lock.held").gauge().value()).isZero();
+	}
+
+	@Test
+	@DisplayName("opposite transfers acquire stripes in the same order")
+	void oppositeTransfersDoNotDeadlock() throws Exception {
+		WalletLockManager manager = new WalletLockManager(walletRepository, meterRegistry, "striped", 16, 2000);
+		CountDownLatch start = new CountDownLatch(1);
+
+		CompletableFuture<Throwable> forward = CompletableFuture.supplyAsync(() -> {
+			await(start);
+			return lockInOwnTransaction(manager, LOW, HIGH);
+		});
+		CompletableFuture<Throwable> backward = CompletableFuture.supplyAsync(() -> {
+			await(start);
+			return lockInOwnTransaction(manager, HIGH, LOW);
+		});
+		start.countDown();
+
+		assertThat(forward.get(5, TimeUnit.SECONDS)).isNull();
+		assertThat(backward.get(5, TimeUnit.SECONDS)).isNull();
+	}
+
+	@Test
+	@DisplayName("striped mode requires an active transaction")
+	void stripedModeRequiresTransaction() {
+		WalletLockManager manager = new WalletLockManager(walletRepository, meterRegistry, "striped", 16, 50);
+
+		assertThatThrownBy(() -> manager.lock(LOW)).isInstanceOf(IllegalStateException.class);
+	}
+
+	private static Throwable lockInOwnTransaction(WalletLockManager manager, UUID... walletIds) {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			manager.lock(walletIds);
+			return null;
+		} catch (RuntimeException e) {
+			return e;
+		} finally {
+			completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+		}
+	}
+
+	private static void completeTransaction(int status) {
+		var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		synchronizations.forEach(sync -> sync.afterCompletion(status));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
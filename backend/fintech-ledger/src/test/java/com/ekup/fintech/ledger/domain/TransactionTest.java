@@ -91,4 +91,22 @@ class TransactionTest {
 		assertThat(tx.getId()).isNotNull();
 		assertThat(tx.getOccurredAt()).isNotNull();
 	}
+
+	@Test
+	void sequenceCanOnlyBeAssignedOnce() {
+		Transaction tx = Transaction.credit(
+				UUID.randomUUID(),
+				Money.of(new BigDecimal("10"), Currency.USD),
+				TransactionGroupType.USER_ACTION,
+				ReferenceType.DEPOSIT,
+				null,
+				"sequenced",
+				Instant.now()
+		);
+
+		tx.assignSequence(1L);
+
+		assertThat(tx.getSequence()).isEqualTo(1L);
+		assertThatThrownBy(() -> tx.assignSequence(2L)).isInstanceOf(IllegalStateException.class);
+	}
 }
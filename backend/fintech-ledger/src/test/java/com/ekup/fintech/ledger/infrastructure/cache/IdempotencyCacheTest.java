@@ -0,0 +1,107 @@
+package com.ekup.fintech.ledger.infrastructure.cache;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ekup.fintech.ledger.infrastructure.persistence.IdempotencyRetention;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IdempotencyCacheTest {
+	private static final UUID KEY = UUID.randomUUID();
+	private static final IdempotencyRetention RETENTION = new IdempotencyRetention(Duration.ofDays(7));
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	@DisplayName("entries are keyed by operation and idempotency key")
+	void keyedByOperationAndKey() {
+		IdempotencyCache cache = new IdempotencyCache(true, 10, Duration.ofMinutes(1), RETENTION, meterRegistry);
+
+		cache.put("DEPOSIT", KEY, "fp", "response");
+
+		assertThat(cache.get("DEPOSIT", KEY)).isEqualTo(new IdempotencyCache.Hit("fp", "response"));
+		assertThat(cache.get("WITHDRAWAL", KEY)).isNull();
+		assertThat(meterRegistry.get("fintech.idempotency.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1.0);
+	}
+
+	@Test
+	@DisplayName("expired entries are treated as misses")
+	void expiresAfterTtl() {
+		IdempotencyCache cache = new IdempotencyCache(true, 10, Duration.ZERO, RETENTION, meterRegistry);
+
+		cache.put("DEPOSIT", KEY, "fp", "response");
+
+		assertThat(cache.get("DEPOSIT", KEY)).isNull();
+		assertThat(cache.size()).isZero();
+	}
+
+	@Test
+	@DisplayName("size is bounded by evicting the least recently used entry")
+	void boundedSize() {
+		IdempotencyCache cache = new IdempotencyCache(true, 2, Duration.ofMinutes(1), RETENTION, meterRegistry);
+		UUID second = UUID.randomUUID();
+
+		cache.put("DEPOSIT", KEY, "fp1", "r1");
+		cache.put("DEPOSIT", second, "fp2", "r2");
+		cache.get("DEPOSIT", KEY);
+		cache.put("DEPOSIT", UUID.randomUUID(), "fp3", "r3");
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.get("DEPOSIT", KEY)).isNotNull();
+		assertThat(cache.get("DEPOSIT", second)).isNull();
+	}
+
+	@Test
+	@DisplayName("results are only cached after commit")
+	void cachesOnlyCommittedResults() {
+		IdempotencyCache cache = new IdempotencyCache(true, 10, Duration.ofMinutes(1), RETENTION, meterRegistry);
+
+		TransactionSynchronizationManager.initSynchronization();
+		cache.putAfterCommit("DEPOSIT", KEY, "fp", "response");
+		assertThat(cache.get("DEPOSIT", KEY)).isNull();
+		completeTransaction(false);
+		assertThat(cache.get("DEPOSIT", KEY)).isNull();
+
+		TransactionSynchronizationManager.initSynchronization();
+		cache.putAfterCommit("DEPOSIT", KEY, "fp", "response");
+		completeTransaction(true);
+		assertThat(cache.get("DEPOSIT", KEY)).isNotNull();
+	}
+
+	@Test
+	@DisplayName("a TTL longer than the retention window is rejected at startup")
+	void rejectsTtlBeyondRetention() {
+		IdempotencyRetention retention = new IdempotencyRetention(Duration.ofMinutes(5));
+
+		assertThatThrownBy(() -> new IdempotencyCache(true, 10, Duration.ofMinutes(10), retention, meterRegistry))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("fintech.idempotency.cache.ttl");
+	}
+
+	private static void completeTransaction(boolean committed) {
+		var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		for (TransactionSynchronization sync : synchronizations) {
+			if (committed) {
+				sync.afterCommit();
+			}
+			sync.afterCompletion(committed ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package com.ekup.fintech.ledger.infrastructure.cache;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.ekup.fintech.shared.domain.Currency;
+import com.ekup.fintech.shared.domain.Money;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WalletBalanceCacheTest {
+	private static final UUID WALLET_ID = UUID.randomUUID();
+
+	private SimpleMeterRegistry meterRegistry;
+	private WalletBalanceCache cache;
+	private AtomicInteger loads;
+
+	@BeforeEach
+	void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		cache = new WalletBalanceCache(true, 2, Duration.ofMinutes(1), meterRegistry);
+		loads = new AtomicInteger();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.unbindResourceIfPossible(cache);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	@DisplayName("second read is served from cache")
+	void cachesLoadedBalance() {
+		cache.get(WALLET_ID, Currency.USD, () -> load("100"));
+		Money second = cache.get(WALLET_ID, Currency.USD, () -> load("999"));
+
+		assertThat(second.amount()).isEqualByComparingTo("100");
+		assertThat(loads.get()).isEqualTo(1);
+		assertThat(meterRegistry.get("fintech.balance.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1.0);
+		assertThat(meterRegistry.get("fintech.balance.cache.requests").tag("result", "miss").counter().count()).isEqualTo(1.0);
+	}
+
+	@Test
+	@DisplayName("committed posting updates the cached balance")
+	void appliesDeltaOnCommit() {
+		cache.get(WALLET_ID, Currency.USD, () -> load("100"));
+
+		TransactionSynchronizationManager.initSynchronization();
+		cache.applyAfterCommit(WALLET_ID, Money.of("-30", Currency.USD));
+		completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+		Money balance = cache.get(WALLET_ID, Currency.USD, () -> load("999"));
+		assertThat(balance.amount()).isEqualByComparingTo("70");
+		assertThat(loads.get()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("rolled back posting evicts the wallet")
+	void evictsOnRollback() {
+		cache.get(WALLET_ID, Currency.USD, () -> load("100"));
+
+		TransactionSynchronizationManager.initSynchronization();
+		cache.applyAfterCommit(WALLET_ID, Money.of("-30", Currency.USD));
+		completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+		Money balance = cache.get(WALLET_ID, Currency.USD, () -> load("100"));
+		assertThat(balance.amount()).isEqualByComparingTo("100");
+		assertThat(loads.get()).isEqualTo(2);
+	}
+
+	@Test
+	@DisplayName("wallet with uncommitted postings bypasses the cache")
+	void bypassesCacheForPendingWallet() {
+		cache.get(WALLET_ID, Currency.USD, () -> load("100"));
+
+		TransactionSynchronizationManager.initSynchronization();
+		cache.applyAfterCommit(WALLET_ID, Money.of("50", Currency.USD));
+		Money inTransaction = cache.get(WALLET_ID, Currency.USD, () -> load("150"));
+
+		assertThat(inTransaction.amount()).isEqualByComparingTo("150");
+		assertThat(loads.get()).isEqualTo(2);
+	}
+
+	@Test
+	@DisplayName("posting in flight on another wallet does not force a miss")
+	void otherWalletInFlightStillHits() {
+		cache.get(WALLET_ID, Currency.USD, () -> load("100"));
+
+		TransactionSynchronizationManager.initSynchronization();
+		cache.applyAfterCommit(UUID.randomUUID(), Money.of("50", Currency.USD));
+		Money balance = cache.get(WALLET_ID, Currency.USD, () -> load("999"));
+
+		assertThat(balance.amount()).isEqualByComparingTo("100");
+		assertThat(loads.get()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("expired entry is reloaded")
+	void reloadsAfterTtl() {
+		WalletBalanceCache expiring = new WalletBalanceCache(true, 10, Duration.ZERO, meterRegistry);
+		expiring.get(WALLET_ID, Currency.USD, () -> load("100"));
+		Money balance = expiring.get(WALLET_ID, Currency.USD, () -> load("120"));
+
+		assertThat(balance.amount()).isEqualByComparingTo("120");
+		assertThat(loads.get()).isEqualTo(2);
+	}
+
+	@Test
+	@DisplayName("disabled cache always delegates to the loader")
+	void disabledCacheDelegates() {
+		WalletBalanceCache disabled = new WalletBalanceCache(false, 10, Duration.ofMinutes(1), meterRegistry);
+		disabled.get(WALLET_ID, Currency.USD, () -> load("100"));
+		disabled.get(WALLET_ID, Currency.USD, () -> load("100"));
+
+		assertThat(loads.get()).isEqualTo(2);
+	}
+
+	@Test
+	@DisplayName("least recently used wallet is evicted when full")
+	void evictsEldestWhenFull() {
+		cache.get(UUID.randomUUID(), Currency.USD, () -> load("1"));
+		cache.get(UUID.randomUUID(), Currency.USD, () -> load("2"));
+		cache.get(UUID.randomUUID(), Currency.USD, () -> load("3"));
+
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(meterRegistry.get("fintech.balance.cache.evictions").counter().count()).isEqualTo(1.0);
+	}
+
+	private Money load(String amount) {
+		loads.incrementAndGet();
+		return Money.of(amount, Currency.USD);
+	}
+
+	private static void completeTransaction(int status) {
+		var synchronizations = TransactionSynchronizationManager.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		synchronizations.forEach(sync -> sync.afterCompletion(status));
+	}
+}
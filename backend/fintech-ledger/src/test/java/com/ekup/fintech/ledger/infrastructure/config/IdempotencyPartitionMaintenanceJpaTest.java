@@ -0,0 +1,63 @@
+package com.ekup.fintech.ledger.infrastructure.config;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ekup.fintech.ledger.infrastructure.persistence.IdempotencyRecordJpaRepository;
+import com.ekup.fintech.ledger.infrastructure.persistence.IdempotencyRetention;
+
+@SpringBootTest
+@Transactional
+class IdempotencyPartitionMaintenanceJpaTest {
+	@Autowired
+	IdempotencyPartitionMaintenance maintenance;
+
+	@Autowired
+	IdempotencyRecordJpaRepository idempotencyRepository;
+
+	@Autowired
+	IdempotencyRetention retention;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void expiredRecordsAreIgnoredAndPurged() {
+		UUID expiredKey = UUID.randomUUID();
+		UUID liveKey = UUID.randomUUID();
+		insertRecord(expiredKey, Instant.now().minus(retention.getRetention()).minus(Duration.ofHours(1)));
+		insertRecord(liveKey, Instant.now());
+
+		assertThat(idempotencyRepository.findByOperationAndIdempotencyKeyAndCreatedAtAfter("DEPOSIT", expiredKey, retention.cutoff())).isEmpty();
+		assertThat(idempotencyRepository.findByOperationAndIdempotencyKeyAndCreatedAtAfter("DEPOSIT", liveKey, retention.cutoff())).isPresent();
+
+		assertThat(maintenance.deleteExpiredRows()).isEqualTo(1);
+		assertThat(jdbcTemplate.queryForObject("select count(*) from idempotency_records where idempotency_key = ?", Long.class, liveKey)).isEqualTo(1L);
+	}
+
+	@Test
+	void partitionNamesRoundTrip() {
+		LocalDate day = LocalDate.of(2026, 3, 9);
+
+		assertThat(IdempotencyPartitionMaintenance.partitionName(day)).isEqualTo("idempotency_records_p20260309");
+		assertThat(IdempotencyPartitionMaintenance.partitionDay("idempotency_records_p20260309")).isEqualTo(day);
+		assertThat(IdempotencyPartitionMaintenance.partitionDay("idempotency_records_legacy")).isNull();
+	}
+
+	private void insertRecord(UUID key, Instant createdAt) {
+		jdbcTemplate.update("""
+				insert into idempotency_records (id, operation, idempotency_key, request_fingerprint, created_at)
+				values (?, 'DEPOSIT', ?, 'fp', ?)
+				""", UUID.randomUUID(), key, Timestamp.from(createdAt));
+	}
+}
@@ -0,0 +1,87 @@
+package com.ekup.fintech.ledger.infrastructure.config;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ekup.fintech.ledger.domain.ReferenceType;
+import com.ekup.fintech.ledger.domain.Transaction;
+import com.ekup.fintech.ledger.domain.TransactionGroupType;
+import com.ekup.fintech.ledger.infrastructure.persistence.BalanceSnapshotJpaRepository;
+import com.ekup.fintech.ledger.infrastructure.persistence.PostingWriter;
+import com.ekup.fintech.ledger.infrastructure.persistence.TransactionJpaRepository;
+import com.ekup.fintech.shared.domain.Currency;
+import com.ekup.fintech.shared.domain.Money;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+@Transactional
+class TransactionPartitionMaintenanceJpaTest {
+	@Autowired
+	TransactionJpaRepository transactionRepository;
+
+	@Autowired
+	BalanceSnapshotJpaRepository snapshotRepository;
+
+	@Autowired
+	PostingWriter postingWriter;
+
+	@Autowired
+	EntityManager entityManager;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void fullSumsUseArchivedTotalsInsteadOfArchivedRows() {
+		UUID walletId = UUID.randomUUID();
+		Instant rangeEnd = Instant.now().minus(30, ChronoUnit.DAYS);
+		postingWriter.write(List.of(
+				credit(walletId, 100, 1, rangeEnd.minus(10, ChronoUnit.DAYS)),
+				credit(walletId, 50, 2, rangeEnd.minus(1, ChronoUnit.DAYS)),
+				credit(walletId, 25, 3, rangeEnd.plus(1, ChronoUnit.DAYS))
+		));
+		entityManager.flush();
+
+		// Totals recorded, partition not yet detached: the archived rows must not be counted twice
+		jdbcTemplate.update("""
+				insert into archived_transaction_totals
+					(id, partition_name, wallet_id, currency, balance, transaction_count, max_sequence, range_end, archived_at)
+				values (?, 'transactions_p202601', ?, 'USD', 150, 2, 2, ?, ?)
+				""", UUID.randomUUID(), walletId, Timestamp.from(rangeEnd), Timestamp.from(Instant.now()));
+
+		assertThat(transactionRepository.sumSignedAmount(walletId, Currency.USD)).isEqualByComparingTo("175");
+		assertThat(transactionRepository.countByWalletId(walletId)).isEqualTo(3);
+		assertThat(snapshotRepository.sumSignedAmountUpToSequence(walletId, Currency.USD, 3)).isEqualByComparingTo("175");
+		assertThat(snapshotRepository.countTransactionsUpToSequence(walletId, 3)).isEqualTo(3);
+		assertThat(snapshotRepository.countTransactionsByWalletId(walletId)).isEqualTo(3);
+	}
+
+	@Test
+	void partitionNamesRoundTrip() {
+		YearMonth month = YearMonth.of(2026, 3);
+
+		assertThat(TransactionPartitionMaintenance.partitionName(month)).isEqualTo("transactions_p202603");
+		assertThat(TransactionPartitionMaintenance.partitionMonth("transactions_p202603")).isEqualTo(month);
+		assertThat(TransactionPartitionMaintenance.partitionMonth("transactions_legacy")).isNull();
+	}
+
+	private static Transaction credit(UUID walletId, long amount, long sequence, Instant occurredAt) {
+		Transaction transaction = Transaction.credit(walletId, Money.of(BigDecimal.valueOf(amount), Currency.USD),
+				TransactionGroupType.USER_ACTION, ReferenceType.DEPOSIT, UUID.randomUUID(), "seed", occurredAt);
+		transaction.assignSequence(sequence);
+		return transaction;
+	}
+}
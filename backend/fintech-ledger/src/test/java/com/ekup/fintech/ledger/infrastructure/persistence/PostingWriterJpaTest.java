@@ -0,0 +1,79 @@
+package com.ekup.fintech.ledger.infrastructure.persistence;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ekup.fintech.ledger.domain.ReferenceType;
+import com.ekup.fintech.ledger.domain.Transaction;
+import com.ekup.fintech.ledger.domain.TransactionGroupType;
+import com.ekup.fintech.shared.domain.Currency;
+import com.ekup.fintech.shared.domain.Money;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class PostingWriterJpaTest {
+	@Autowired
+	PostingWriter postingWriter;
+
+	@Autowired
+	EntityManager entityManager;
+
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		entityManager.flush();
+		statistics.clear();
+	}
+
+	@Test
+	void twoLegTransferIsInsertedAsOneBatch() {
+		UUID transferId = UUID.randomUUID();
+		Money amount = Money.of("75.00", Currency.EUR);
+		Transaction debit = Transaction.debit(UUID.randomUUID(), amount, TransactionGroupType.USER_ACTION,
+				ReferenceType.TRANSFER, transferId, "transfer", Instant.now());
+		Transaction credit = Transaction.credit(UUID.randomUUID(), amount, TransactionGroupType.USER_ACTION,
+				ReferenceType.TRANSFER, transferId, "transfer", Instant.now());
+
+		List<Transaction> legs = postingWriter.write(debit, credit);
+
+		// persist, not merge: no SELECT before the insert
+		assertThat(legs).containsExactly(debit, credit);
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+
+		entityManager.flush();
+
+		assertThat(statistics.getEntityInsertCount()).isEqualTo(2);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void loadedTransactionIsNotNew() {
+		Transaction deposit = Transaction.credit(UUID.randomUUID(), Money.of("10.00", Currency.USD),
+				TransactionGroupType.USER_ACTION, ReferenceType.DEPOSIT, UUID.randomUUID(), "deposit", Instant.now());
+		assertThat(deposit.isNew()).isTrue();
+
+		postingWriter.write(deposit);
+		entityManager.flush();
+		entityManager.clear();
+
+		assertThat(entityManager.find(Transaction.class, deposit.getId()).isNew()).isFalse();
+	}
+}
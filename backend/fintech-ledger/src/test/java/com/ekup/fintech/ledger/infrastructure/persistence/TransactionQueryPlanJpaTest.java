@@ -0,0 +1,154 @@
+package com.ekup.fintech.ledger.infrastructure.persistence;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.ekup.fintech.ledger.domain.ReferenceType;
+import com.ekup.fintech.ledger.domain.Transaction;
+import com.ekup.fintech.ledger.domain.TransactionGroupType;
+import com.ekup.fintech.shared.domain.Currency;
+import com.ekup.fintech.shared.domain.Money;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Query-plan regression test: every hot transactions query must be answered through an index.
+ * The SQL Hibernate generates is captured and run through H2's EXPLAIN; a "tableScan" on
+ * TRANSACTIONS fails the test. H2 plans at prepare time, so the bound values do not matter.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.ekup.fintech.ledger.infrastructure.persistence.TransactionQueryPlanJpaTest$RecordingStatementInspector")
+@Transactional
+class TransactionQueryPlanJpaTest {
+	@Autowired
+	TransactionJpaRepository transactionRepository;
+
+	@Autowired
+	BalanceSnapshotJpaRepository snapshotRepository;
+
+	@Autowired
+	PostingWriter postingWriter;
+
+	@Autowired
+	EntityManager entityManager;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	private final List<UUID> wallets = new ArrayList<>();
+
+	public static class RecordingStatementInspector implements StatementInspector {
+		static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			STATEMENTS.add(sql);
+			return sql;
+		}
+	}
+
+	@BeforeEach
+	void seed() {
+		Instant start = Instant.now().minus(30, ChronoUnit.DAYS);
+		List<Transaction> postings = new ArrayList<>();
+		for (int w = 0; w < 20; w++) {
+			UUID walletId = UUID.randomUUID();
+			wallets.add(walletId);
+			for (int i = 0; i < 50; i++) {
+				Money amount = Money.of(BigDecimal.valueOf(10 + i), Currency.USD);
+				Instant occurredAt = start.plus(i, ChronoUnit.HOURS);
+				postings.add(i % 3 == 0
+						? Transaction.debit(walletId, amount, TransactionGroupType.USER_ACTION, ReferenceType.WITHDRAWAL, UUID.randomUUID(), "seed", occurredAt)
+						: Transaction.credit(walletId, amount, TransactionGroupType.USER_ACTION, ReferenceType.DEPOSIT, UUID.randomUUID(), "seed", occurredAt));
+			}
+		}
+		postingWriter.write(postings);
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void sumSignedAmountUsesIndex() {
+		assertIndexed(() -> transactionRepository.sumSignedAmount(wallets.get(0), Currency.USD));
+	}
+
+	@Test
+	void searchByWalletIdUsesIndex() {
+		Instant now = Instant.now();
+		assertIndexed(() -> transactionRepository.searchByWalletId(wallets.get(1), null, null, null,
+				now.minus(10, ChronoUnit.DAYS), now, PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "occurredAt"))));
+	}
+
+	@Test
+	void cursorPageUsesIndex() {
+		Instant now = Instant.now();
+		assertIndexed(() -> transactionRepository.findPageBefore(wallets.get(4), null, null, null,
+				TransactionJpaRepository.OCCURRED_MIN, TransactionJpaRepository.OCCURRED_MAX, now, UUID.randomUUID(), 21));
+	}
+
+	@Test
+	void timeBasedSnapshotQueriesUseIndex() {
+		Instant after = Instant.now().minus(5, ChronoUnit.DAYS);
+		assertIndexed(() -> snapshotRepository.sumSignedAmountAfter(wallets.get(2), Currency.USD, after));
+		assertIndexed(() -> snapshotRepository.countTransactionsAfter(wallets.get(2), after));
+		assertIndexed(() -> snapshotRepository.findLastTransactionId(wallets.get(2)));
+		assertIndexed(() -> snapshotRepository.countTransactionsByWalletId(wallets.get(2)));
+	}
+
+	@Test
+	void sequenceBasedSnapshotQueriesUseIndex() {
+		Instant notBefore = Instant.now().minus(20, ChronoUnit.DAYS);
+		assertIndexed(() -> snapshotRepository.sumSignedAmountAfterSequence(wallets.get(3), Currency.USD, 10, notBefore));
+		assertIndexed(() -> snapshotRepository.sumSignedAmountBetweenSequences(wallets.get(3), Currency.USD, 10, 40, notBefore));
+		assertIndexed(() -> snapshotRepository.sumSignedAmountUpToSequence(wallets.get(3), Currency.USD, 40));
+		assertIndexed(() -> snapshotRepository.findMaxSequence(wallets.get(3)));
+	}
+
+	private void assertIndexed(Runnable query) {
+		RecordingStatementInspector.STATEMENTS.clear();
+		query.run();
+		List<String> statements = RecordingStatementInspector.STATEMENTS.stream()
+				.filter(sql -> sql.toLowerCase().contains("transactions"))
+				.toList();
+		assertThat(statements).isNotEmpty();
+
+		for (String sql : statements) {
+			String plan = explain(sql);
+			assertThat(plan)
+					.as("plan for %s", sql)
+					.doesNotContainIgnoringCase("TRANSACTIONS.tableScan")
+					.containsIgnoringCase("TRANSACTIONS_WALLET");
+		}
+	}
+
+	private String explain(String sql) {
+		int parameters = (int) sql.chars().filter(c -> c == '?').count();
+		return jdbcTemplate.query("EXPLAIN " + sql, ps -> {
+			for (int i = 1; i <= parameters; i++) {
+				ps.setObject(i, null);
+			}
+		}, rs -> {
+			StringBuilder plan = new StringBuilder();
+			while (rs.next()) {
+				plan.append(rs.getString(1)).append('\n');
+			}
+			return plan.toString();
+		});
+	}
+}
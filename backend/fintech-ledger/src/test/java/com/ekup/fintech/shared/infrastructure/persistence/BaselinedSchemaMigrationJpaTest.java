@@ -0,0 +1,54 @@
+package com.ekup.fintech.shared.infrastructure.persistence;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * Starts from a database created by ddl-auto=update before Flyway (db/ddl_auto_update_schema.sql),
+ * lets Flyway baseline it at V1 and apply the rest, then lets Hibernate validate the entities
+ * against the result. Catches objects that were put into V1 instead of their own migration.
+ */
+@SpringBootTest(properties = {
+		"spring.flyway.enabled=true",
+		"spring.flyway.baseline-on-migrate=true",
+		"spring.flyway.baseline-version=1",
+		"spring.jpa.hibernate.ddl-auto=validate"
+})
+class BaselinedSchemaMigrationJpaTest {
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void migrationsAfterBaselineUpgradePreFlywaySchema() {
+		List<String> versions = jdbcTemplate.queryForList(
+				"SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"success\" = TRUE ORDER BY \"installed_rank\"", String.class);
+
+		assertThat(versions).first().isEqualTo("1");
+		assertThat(versions).hasSizeGreaterThan(1);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE seq IS NULL", Long.class)).isEqualTo(1L);
+		assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallet_balances", Long.class)).isZero();
+	}
+
+	@TestConfiguration
+	static class PreFlywayDatabase {
+		@Bean
+		DataSource dataSource() {
+			DriverManagerDataSource dataSource = new DriverManagerDataSource(
+					"jdbc:h2:mem:fintech_baselined;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+			new ResourceDatabasePopulator(new ClassPathResource("db/ddl_auto_update_schema.sql")).execute(dataSource);
+			return dataSource;
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.ekup.fintech.shared.infrastructure.persistence;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConnectionLimitingDataSourceTest {
+	private final DataSource target = mock(DataSource.class);
+
+	@Test
+	@DisplayName("a caller beyond the limit times out with a transient connection error")
+	void rejectsBeyondLimit() throws SQLException {
+		when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+		ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, 50);
+
+		Connection first = dataSource.getConnection();
+
+		assertThat(dataSource.getActive()).isEqualTo(1);
+		assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+		first.close();
+
+		assertThat(dataSource.getActive()).isZero();
+		dataSource.getConnection().close();
+	}
+
+	@Test
+	@DisplayName("closing a connection twice returns its permit once")
+	void doubleCloseReleasesOnce() throws SQLException {
+		Connection raw = mock(Connection.class);
+		when(target.getConnection()).thenReturn(raw);
+		ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 2, 50);
+
+		Connection connection = dataSource.getConnection();
+		connection.close();
+		connection.close();
+
+		assertThat(dataSource.getActive()).isZero();
+		dataSource.getConnection();
+		dataSource.getConnection();
+		assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+	}
+
+	@Test
+	@DisplayName("the permit is returned when the pool itself fails")
+	void releasesOnPoolFailure() throws SQLException {
+		when(target.getConnection()).thenThrow(new SQLTransientConnectionException("pool timeout"));
+		when(target.getConnection(anyString(), anyString())).thenThrow(new SQLException("bad credentials"));
+		ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, 50);
+
+		assertThatThrownBy(dataSource::getConnection).hasMessage("pool timeout");
+		assertThatThrownBy(() -> dataSource.getConnection("user", "secret")).hasMessage("bad credentials");
+
+		assertThat(dataSource.getActive()).isZero();
+	}
+
+	@Test
+	@DisplayName("other calls are delegated to the pooled connection")
+	void delegatesToConnection() throws SQLException {
+		Connection raw = mock(Connection.class);
+		when(target.getConnection()).thenReturn(raw);
+		ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(target, 1, 50);
+
+		Connection connection = dataSource.getConnection();
+		connection.setAutoCommit(false);
+		connection.close();
+
+		verify(raw).setAutoCommit(false);
+		verify(raw).close();
+	}
+}
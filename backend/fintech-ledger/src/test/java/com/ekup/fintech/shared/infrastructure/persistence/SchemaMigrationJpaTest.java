@@ -0,0 +1,29 @@
+package com.ekup.fintech.shared.infrastructure.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Runs the Flyway migrations on an empty database and lets Hibernate validate the entities
+ * against the result; the context only starts if every mapped table and column exists.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:fintech_migration;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+		"spring.flyway.enabled=true",
+		"spring.jpa.hibernate.ddl-auto=validate"
+})
+class SchemaMigrationJpaTest {
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void migrationsProduceSchemaMatchingEntities() {
+		Integer applied = jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM \"flyway_schema_history\" WHERE \"success\" = TRUE", Integer.class);
+
+		assertThat(applied).isPositive();
+	}
+}
@@ -0,0 +1,83 @@
+-- Schema of a database created by ddl-auto=update before Flyway was introduced (the release before
+-- V1__baseline.sql), with Hibernate's generated constraint names and one posted deposit.
+
+CREATE TABLE users (
+    id            uuid                        NOT NULL,
+    email         varchar(255)                NOT NULL,
+    password      varchar(255)                NOT NULL,
+    full_name     varchar(255),
+    enabled       boolean                     NOT NULL,
+    last_login_at timestamp(6) with time zone,
+    created_at    timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UK6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email)
+);
+
+CREATE TABLE user_roles (
+    user_id uuid         NOT NULL,
+    role    varchar(255) CHECK (role IN ('USER', 'ADMIN')),
+    CONSTRAINT FKhfh9dx7w3ubf1co1vdev94g3f FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE wallets (
+    id            uuid                        NOT NULL,
+    owner_id      uuid                        NOT NULL,
+    base_currency varchar(3)                  NOT NULL,
+    status        varchar(20)                 NOT NULL,
+    version       bigint,
+    created_at    timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT ux_wallet_owner_currency UNIQUE (owner_id, base_currency),
+    CONSTRAINT FKc1foyisidw7wqqrkamafuwn4e FOREIGN KEY (owner_id) REFERENCES users (id)
+);
+
+CREATE TABLE transactions (
+    id             uuid                        NOT NULL,
+    wallet_id      uuid                        NOT NULL,
+    amount         numeric(19, 4)              NOT NULL,
+    currency       varchar(3)                  NOT NULL,
+    direction      varchar(10)                 NOT NULL,
+    group_type     varchar(30)                 NOT NULL,
+    reference_type varchar(30)                 NOT NULL,
+    reference_id   uuid,
+    description    text,
+    occurred_at    timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE balance_snapshots (
+    id                  uuid                        NOT NULL,
+    wallet_id           uuid                        NOT NULL,
+    balance             numeric(19, 4)              NOT NULL,
+    currency            varchar(3)                  NOT NULL,
+    snapshot_at         timestamp(6) with time zone NOT NULL,
+    transaction_count   bigint                      NOT NULL,
+    last_transaction_id uuid,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_snapshot_wallet_timestamp ON balance_snapshots (wallet_id, snapshot_at DESC);
+
+CREATE TABLE idempotency_records (
+    id                  uuid                        NOT NULL,
+    operation           varchar(30)                 NOT NULL,
+    idempotency_key     uuid                        NOT NULL,
+    request_fingerprint varchar(300)                NOT NULL,
+    wallet_id           uuid,
+    transaction_id      uuid,
+    transaction_id_2    uuid,
+    created_at          timestamp(6) with time zone NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT ux_idem_operation_key UNIQUE (operation, idempotency_key)
+);
+
+INSERT INTO users (id, email, password, full_name, enabled, created_at)
+VALUES ('00000000-0000-0000-0000-000000000001', 'legacy@example.com', 'password', 'Legacy User', TRUE, CURRENT_TIMESTAMP);
+
+INSERT INTO user_roles (user_id, role) VALUES ('00000000-0000-0000-0000-000000000001', 'USER');
+
+INSERT INTO wallets (id, owner_id, base_currency, status, version, created_at)
+VALUES ('00000000-0000-0000-0000-000000000002', '00000000-0000-0000-0000-000000000001', 'USD', 'ACTIVE', 0, CURRENT_TIMESTAMP);
+
+INSERT INTO transactions (id, wallet_id, amount, currency, direction, group_type, reference_type, occurred_at)
+VALUES ('00000000-0000-0000-0000-000000000003', '00000000-0000-0000-0000-000000000002', 10.0000, 'USD', 'CREDIT', 'USER_ACTION', 'DEPOSIT', CURRENT_TIMESTAMP);